@@ -0,0 +1,125 @@
+package org.daodao;
+
+import org.daodao.service.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Benchmark for {@code callCount} concurrent {@code fetchData} calls from virtual threads: one
+ * upstream call per id vs {@link BatchingDataService} coalescing them into {@code fetchBatch}
+ * calls.
+ *
+ * <p>The upstream is modeled as a pool of {@code connections}, each call holding one for a fixed
+ * round trip plus a small cost per id, so one call per id is bounded by the round trips the pool
+ * can carry. With {@code faults} set to {@code spiky}, a {@link FaultInjector} adds a 5 ms stall to
+ * 1% of upstream calls, so both paths can be compared under tail latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchingBenchmark {
+
+    @Param({"1000", "10000"})
+    private int callCount;
+
+    @Param({"8"})
+    private int connections;
+
+    @Param({"100"})
+    private int roundTripMicros;
+
+    @Param({"none", "spiky"})
+    private String faults;
+
+    private DataService upstream;
+    private BatchingDataService batching;
+
+    @Setup
+    public void setUp() {
+        upstream = new PooledUpstream(connections, TimeUnit.MICROSECONDS.toNanos(roundTripMicros), 200);
+        if (faults.equals("spiky")) {
+            upstream = new FaultInjectingDataService(upstream, FaultInjector.builder()
+                .latency(LatencyDistribution.none().withTail(0.01, LatencyDistribution.fixed(Duration.ofMillis(5))))
+                .build());
+        }
+        batching = new BatchingDataService(upstream, 128, Duration.ofMillis(1));
+    }
+
+    @TearDown
+    public void tearDown() {
+        batching.close();
+    }
+
+    @Benchmark
+    public long callPerId() throws Exception {
+        return fanOut(upstream);
+    }
+
+    @Benchmark
+    public long batched() throws Exception {
+        return fanOut(batching);
+    }
+
+    private long fanOut(DataService service) throws Exception {
+        List<Future<String>> results = new ArrayList<>(callCount);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < callCount; i++) {
+                int id = i;
+                results.add(executor.submit(() -> service.fetchData(id)));
+            }
+            long total = 0;
+            for (Future<String> result : results) {
+                total += result.get().length();
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Upstream whose calls each hold one of a fixed number of connections for a round trip plus
+     * a per-id cost.
+     */
+    private static final class PooledUpstream implements DataService {
+        private final Semaphore connections;
+        private final long roundTripNanos;
+        private final long perIdNanos;
+
+        PooledUpstream(int connections, long roundTripNanos, long perIdNanos) {
+            this.connections = new Semaphore(connections);
+            this.roundTripNanos = roundTripNanos;
+            this.perIdNanos = perIdNanos;
+        }
+
+        @Override
+        public String fetchData(int id) {
+            return fetchBatch(new int[] {id})[0];
+        }
+
+        @Override
+        public String[] fetchBatch(int[] ids) {
+            connections.acquireUninterruptibly();
+            try {
+                LockSupport.parkNanos(roundTripNanos + ids.length * perIdNanos);
+            } finally {
+                connections.release();
+            }
+            String[] results = new String[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                results[i] = "Data-" + ids[i];
+            }
+            return results;
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+    }
+}
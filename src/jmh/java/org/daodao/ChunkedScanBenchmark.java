@@ -0,0 +1,81 @@
+package org.daodao;
+
+import org.daodao.io.ChunkedFileScanner;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+import java.util.stream.*;
+
+/**
+ * Benchmark for word counting over one large file: sequential Files.lines vs the chunked
+ * fork-join scanner at increasing thread counts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkedScanBenchmark {
+
+    @Param({"268435456"})
+    private long fileSize;
+
+    @Param({"1", "4", "8", "16", "32"})
+    private int threads;
+
+    private Path file;
+    private ForkJoinPool pool;
+    private ChunkedFileScanner scanner;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("chunked-scan-benchmark-", ".txt");
+        Random random = new Random(42);
+        String[] vocabulary = {"Java", "Record", "Patterns", "Virtual", "Threads", "String", "Templates",
+            "Sealed", "Classes", "the", "a", "of", "Switch", "Stream", "Features"};
+        String block = IntStream.range(0, 1024)
+            .mapToObj(i -> "Line " + i + ": " + IntStream.range(0, 12)
+                .mapToObj(j -> vocabulary[random.nextInt(vocabulary.length)])
+                .collect(Collectors.joining(" ")))
+            .collect(Collectors.joining("\n", "", "\n"));
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (long written = 0; written < fileSize; written += block.length()) {
+                writer.write(block);
+            }
+        }
+        pool = new ForkJoinPool(threads);
+        scanner = new ChunkedFileScanner(pool, 4);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        pool.shutdown();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public Map<String, Long> sequentialFilesLines() throws IOException {
+        try (Stream<String> lines = Files.lines(file)) {
+            return lines
+                .mapMulti((String line, Consumer<String> sink) -> {
+                    for (String part : line.split("\\s+")) {
+                        if (part.length() > 3) {
+                            sink.accept(part.toLowerCase());
+                        }
+                    }
+                })
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        }
+    }
+
+    @Benchmark
+    public Map<String, Long> chunkedScanner() throws IOException {
+        return scanner.countWords(file);
+    }
+}
@@ -0,0 +1,84 @@
+package org.daodao;
+
+import org.daodao.employee.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.*;
+
+/**
+ * Benchmark for employee queries: {@code HashMap<Integer, Employee>} vs the columnar
+ * {@link EmployeeRepository}, for random lookups by id and for counting one department.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmployeeRepositoryBenchmark {
+
+    private static final int LOOKUPS = 1_000;
+
+    @Param({"100000", "1000000"})
+    private int employeeCount;
+
+    private Map<Integer, Employee> byId;
+    private EmployeeRepository repository;
+    private int[] lookupIds;
+    private Department queried;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<Department> departments = IntStream.range(0, 200)
+            .mapToObj(i -> new Department("Department " + i, "Floor " + i % 20))
+            .toList();
+        byId = new HashMap<>();
+        List<Employee> employees = new ArrayList<>(employeeCount);
+        while (employees.size() < employeeCount) {
+            int id = random.nextInt(Integer.MAX_VALUE);
+            Employee employee = new Employee("Name " + random.nextInt(50_000), id,
+                departments.get(random.nextInt(departments.size())));
+            if (byId.putIfAbsent(id, employee) == null) {
+                employees.add(employee);
+            }
+        }
+        repository = EmployeeRepository.load(employees.stream());
+        lookupIds = random.ints(LOOKUPS, 0, employeeCount).map(i -> employees.get(i).id()).toArray();
+        queried = departments.get(0);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int hashMapLookup() {
+        int total = 0;
+        for (int id : lookupIds) {
+            total += byId.get(id).name().length();
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int repositoryLookup() {
+        int total = 0;
+        for (int id : lookupIds) {
+            total += repository.name(repository.rowOf(id)).length();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long hashMapDepartmentCount() {
+        return byId.values().stream()
+            .filter(employee -> employee.department().equals(queried))
+            .count();
+    }
+
+    @Benchmark
+    public int repositoryDepartmentCount() {
+        return repository.countInDepartment(queried);
+    }
+}
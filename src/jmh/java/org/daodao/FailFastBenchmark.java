@@ -0,0 +1,82 @@
+package org.daodao;
+
+import org.daodao.io.MultiFileProcessor;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.*;
+
+/**
+ * Benchmark for time-to-abort of a file batch with one bad file: the keep-going
+ * MultiFileProcessor.process vs the StructuredTaskScope-based processFailFast.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class FailFastBenchmark {
+
+    @Param({"10000"})
+    private int fileCount;
+
+    @Param({"100"})
+    private int failingIndex;
+
+    @Param({"1"})
+    private int ioMillis;
+
+    private Path directory;
+    private List<Path> files;
+    private MultiFileProcessor processor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("fail-fast-benchmark-");
+        files = new ArrayList<>(fileCount);
+        for (int i = 0; i < fileCount; i++) {
+            Path file = directory.resolve("file-" + i + ".txt");
+            if (i != failingIndex) {
+                Files.writeString(file, "Content of file " + i + "\nLine 2 of file " + i + "\n");
+            }
+            files.add(file);
+        }
+        processor = new MultiFileProcessor(256);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        for (Path file : files) {
+            Files.deleteIfExists(file);
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    private int totalLength(Path file) throws IOException, InterruptedException {
+        try (Stream<String> lines = Files.lines(file)) {
+            int length = lines.mapToInt(String::length).sum();
+            // Stand-in for the rest of the per-file work
+            Thread.sleep(ioMillis);
+            return length;
+        }
+    }
+
+    @Benchmark
+    public int keepGoing() throws InterruptedException {
+        return processor.process(files, this::totalLength, 0, Integer::sum).failures().size();
+    }
+
+    @Benchmark
+    public int failFast() throws InterruptedException, TimeoutException {
+        try {
+            return processor.processFailFast(files, this::totalLength, 0, Integer::sum, Instant.now().plusSeconds(60));
+        } catch (ExecutionException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.daodao;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Benchmark for fanning out blocking tasks: virtual thread per task vs a platform
+ * thread pool sized to the CPU count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FanOutBenchmark {
+
+    @Param({"100", "1000"})
+    private int taskCount;
+
+    @Param({"1"})
+    private int blockMillis;
+
+    private ExecutorService platformPool;
+
+    @Setup
+    public void setUp() {
+        platformPool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown
+    public void tearDown() {
+        platformPool.shutdownNow();
+    }
+
+    @Benchmark
+    public long virtualThreads() throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            return fanOut(executor);
+        }
+    }
+
+    @Benchmark
+    public long platformPool() throws Exception {
+        return fanOut(platformPool);
+    }
+
+    private long fanOut(ExecutorService executor) throws Exception {
+        List<Future<Integer>> futures = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            int taskId = i;
+            futures.add(executor.submit(() -> {
+                Thread.sleep(blockMillis);
+                return taskId;
+            }));
+        }
+        long total = 0;
+        for (Future<Integer> future : futures) {
+            total += future.get();
+        }
+        return total;
+    }
+}
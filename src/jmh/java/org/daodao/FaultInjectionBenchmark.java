@@ -0,0 +1,59 @@
+package org.daodao;
+
+import org.daodao.service.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for the cost of {@link FaultInjectingDataService} on a call that does no work: the
+ * bare service, the decorator with its injector disabled, and enabled with no faults configured,
+ * which still draws the call's random outcome.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FaultInjectionBenchmark {
+
+    private static final String VALUE = "Data";
+
+    private DataService bare;
+    private DataService disabled;
+    private DataService enabled;
+    private int id;
+
+    @Setup
+    public void setUp() {
+        bare = new DataService() {
+            @Override
+            public String fetchData(int id) {
+                return VALUE;
+            }
+
+            @Override
+            public boolean isAvailable() {
+                return true;
+            }
+        };
+        disabled = new FaultInjectingDataService(bare, FaultInjector.disabled());
+        enabled = new FaultInjectingDataService(bare, FaultInjector.builder().build());
+    }
+
+    @Benchmark
+    public String bare() {
+        return bare.fetchData(id++);
+    }
+
+    @Benchmark
+    public String disabled() {
+        return disabled.fetchData(id++);
+    }
+
+    @Benchmark
+    public String enabledWithoutFaults() {
+        return enabled.fetchData(id++);
+    }
+}
@@ -0,0 +1,75 @@
+package org.daodao;
+
+import org.daodao.io.MappedLineReader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.*;
+
+/**
+ * Benchmark for the file read paths used in FileProcessingTest:
+ * Files.lines vs Files.readString vs the memory-mapped reader.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileReadBenchmark {
+
+    @Param({"1048576", "67108864"})
+    private long fileSize;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("file-read-benchmark-", ".log");
+        String block = IntStream.range(0, 1024)
+            .mapToObj(i -> "2024-01-01T00:00:00Z INFO request " + i + " served in " + (i % 97) + " ms")
+            .collect(Collectors.joining("\n", "", "\n"));
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (long written = 0; written < fileSize; written += block.length()) {
+                writer.write(block);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long filesLines() throws IOException {
+        try (Stream<String> lines = Files.lines(file)) {
+            return lines.mapToLong(String::length).sum();
+        }
+    }
+
+    @Benchmark
+    public long readString() throws IOException {
+        return Files.readString(file).lines().mapToLong(String::length).sum();
+    }
+
+    @Benchmark
+    public long mappedLines() throws IOException {
+        try (MappedLineReader reader = MappedLineReader.open(file);
+             Stream<String> lines = reader.lines()) {
+            return lines.mapToLong(String::length).sum();
+        }
+    }
+
+    @Benchmark
+    public long mappedVisitor() throws IOException {
+        long[] total = new long[1];
+        try (MappedLineReader reader = MappedLineReader.open(file)) {
+            reader.forEachLine((number, buffer, offset, length) -> total[0] += length);
+        }
+        return total[0];
+    }
+}
@@ -0,0 +1,61 @@
+package org.daodao;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for lookups in immutable Map.of maps vs HashMap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapLookupBenchmark {
+
+    @Param({"3", "10", "1000"})
+    private int size;
+
+    private Map<String, Integer> immutableMap;
+    private Map<String, Integer> hashMap;
+    private String[] keys;
+
+    @Setup
+    public void setUp() {
+        hashMap = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            hashMap.put("key-" + i, i);
+        }
+        // Map.copyOf builds the same ImmutableCollections maps as Map.of / Map.ofEntries
+        immutableMap = Map.copyOf(hashMap);
+        keys = new String[size * 2];
+        for (int i = 0; i < keys.length; i++) {
+            // Half of the lookups miss
+            keys[i] = "key-" + (i % 2 == 0 ? i / 2 : size + i);
+        }
+    }
+
+    @Benchmark
+    public int mapOf() {
+        return lookup(immutableMap);
+    }
+
+    @Benchmark
+    public int hashMap() {
+        return lookup(hashMap);
+    }
+
+    private int lookup(Map<String, Integer> map) {
+        int total = 0;
+        for (String key : keys) {
+            Integer value = map.get(key);
+            if (value != null) {
+                total += value;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,78 @@
+package org.daodao;
+
+import org.daodao.io.MultiFileProcessor;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.*;
+
+/**
+ * Benchmark for processing many small files: CompletableFuture.supplyAsync on the common pool
+ * joined in list order vs the bounded virtual-thread MultiFileProcessor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MultiFileBenchmark {
+
+    @Param({"1000", "10000"})
+    private int fileCount;
+
+    @Param({"64", "256"})
+    private int maxOpenFiles;
+
+    private Path directory;
+    private List<Path> files;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("multi-file-benchmark-");
+        files = new ArrayList<>(fileCount);
+        for (int i = 0; i < fileCount; i++) {
+            Path file = directory.resolve("file-" + i + ".txt");
+            Files.writeString(file, "Content of file " + i + "\nLine 2 of file " + i + "\n");
+            files.add(file);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        for (Path file : files) {
+            Files.deleteIfExists(file);
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    private static int totalLength(Path file) throws IOException {
+        try (Stream<String> lines = Files.lines(file)) {
+            return lines.mapToInt(String::length).sum();
+        }
+    }
+
+    @Benchmark
+    public int commonPoolJoin() {
+        List<CompletableFuture<Integer>> futures = files.stream()
+            .map(file -> CompletableFuture.supplyAsync(() -> {
+                try {
+                    return totalLength(file);
+                } catch (IOException e) {
+                    return 0;
+                }
+            }))
+            .toList();
+        return futures.stream().mapToInt(CompletableFuture::join).sum();
+    }
+
+    @Benchmark
+    public int virtualThreadProcessor() throws InterruptedException {
+        return new MultiFileProcessor(maxOpenFiles)
+            .process(files, MultiFileBenchmark::totalLength, 0, Integer::sum)
+            .value();
+    }
+}
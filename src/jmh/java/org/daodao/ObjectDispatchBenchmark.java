@@ -0,0 +1,189 @@
+package org.daodao;
+
+import org.daodao.dispatch.TypeClassifier;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.*;
+
+/**
+ * Benchmark for classifying heterogeneous {@code Object[]} values, as in
+ * {@code testPatternMatchingForInstanceof}: guarded instanceof ladder vs pattern {@code switch}
+ * with {@code when} guards vs a {@code ClassValue}-cached handler per concrete class vs the
+ * {@link TypeClassifier} built from the same rules.
+ *
+ * <p>Values fall into seven categories (long string, short string, large and small integer,
+ * non-empty list, other, null). {@code mix} picks uniform, skewed or 99/1 category weights, and
+ * {@code polluted} first runs every classifier over the uniform mix, so the skewed runs see a
+ * megamorphic type profile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObjectDispatchBenchmark {
+
+    private static final ToIntFunction<Object> STRING = value -> ((String) value).length() > 5 ? 1 : 2;
+    private static final ToIntFunction<Object> INTEGER = value -> (Integer) value > 40 ? 3 : 4;
+    private static final ToIntFunction<Object> LIST = value -> ((List<?>) value).isEmpty() ? 6 : 5;
+    private static final ToIntFunction<Object> OTHER = value -> 6;
+
+    private static final ClassValue<ToIntFunction<Object>> HANDLERS = new ClassValue<>() {
+        @Override
+        protected ToIntFunction<Object> computeValue(Class<?> type) {
+            if (type == String.class) {
+                return STRING;
+            } else if (type == Integer.class) {
+                return INTEGER;
+            } else if (List.class.isAssignableFrom(type)) {
+                return LIST;
+            }
+            return OTHER;
+        }
+    };
+
+    private static final TypeClassifier<Integer> CLASSIFIER = TypeClassifier.<Integer>builder()
+        .when(String.class, s -> s.length() > 5, s -> 1)
+        .on(String.class, s -> 2)
+        .when(Integer.class, i -> i > 40, i -> 3)
+        .on(Integer.class, i -> 4)
+        .when(List.class, list -> !list.isEmpty(), list -> 5)
+        .onNull(() -> 7)
+        .otherwise(value -> 6)
+        .build();
+
+    @Param({"10000"})
+    private int valueCount;
+
+    @Param({"uniform", "skewed", "99/1"})
+    private String mix;
+
+    @Param({"false", "true"})
+    private boolean polluted;
+
+    private Object[] values;
+
+    @Setup
+    public void setUp() {
+        values = randomValues(valueCount, weights(mix), new Random(42));
+        if (polluted) {
+            Object[] uniform = randomValues(valueCount, weights("uniform"), new Random(7));
+            for (int i = 0; i < 200; i++) {
+                instanceofChain(uniform);
+                patternSwitch(uniform);
+                classValueTable(uniform);
+                typeClassifier(uniform);
+            }
+        }
+    }
+
+    /**
+     * Per-mille weights of the seven categories, in classification order.
+     */
+    private static int[] weights(String mix) {
+        return switch (mix) {
+            case "uniform" -> new int[] {143, 143, 143, 143, 143, 143, 142};
+            case "skewed" -> new int[] {500, 200, 100, 100, 50, 40, 10};
+            case "99/1" -> new int[] {990, 2, 2, 2, 2, 1, 1};
+            default -> throw new IllegalArgumentException("Unknown mix: " + mix);
+        };
+    }
+
+    private static Object[] randomValues(int count, int[] weights, Random random) {
+        Object[] values = new Object[count];
+        for (int i = 0; i < count; i++) {
+            int roll = random.nextInt(1000);
+            int category = 0;
+            while (roll >= weights[category]) {
+                roll -= weights[category++];
+            }
+            values[i] = switch (category) {
+                case 0 -> "Hello World";
+                case 1 -> "Hi";
+                case 2 -> 42;
+                case 3 -> 7;
+                case 4 -> random.nextBoolean() ? List.of("a", "b") : new ArrayList<>(List.of("a", "b", "c"));
+                case 5 -> 3.14;
+                default -> null;
+            };
+        }
+        return values;
+    }
+
+    @Benchmark
+    public int instanceofChain() {
+        return instanceofChain(values);
+    }
+
+    @Benchmark
+    public int patternSwitch() {
+        return patternSwitch(values);
+    }
+
+    @Benchmark
+    public int classValueTable() {
+        return classValueTable(values);
+    }
+
+    @Benchmark
+    public int typeClassifier() {
+        return typeClassifier(values);
+    }
+
+    private static int instanceofChain(Object[] values) {
+        int total = 0;
+        for (Object value : values) {
+            if (value instanceof String s && s.length() > 5) {
+                total += 1;
+            } else if (value instanceof String) {
+                total += 2;
+            } else if (value instanceof Integer i && i > 40) {
+                total += 3;
+            } else if (value instanceof Integer) {
+                total += 4;
+            } else if (value instanceof List<?> list && !list.isEmpty()) {
+                total += 5;
+            } else if (value == null) {
+                total += 7;
+            } else {
+                total += 6;
+            }
+        }
+        return total;
+    }
+
+    private static int patternSwitch(Object[] values) {
+        int total = 0;
+        for (Object value : values) {
+            total += switch (value) {
+                case null -> 7;
+                case String s when s.length() > 5 -> 1;
+                case String s -> 2;
+                case Integer i when i > 40 -> 3;
+                case Integer i -> 4;
+                case List<?> list when !list.isEmpty() -> 5;
+                default -> 6;
+            };
+        }
+        return total;
+    }
+
+    private static int classValueTable(Object[] values) {
+        int total = 0;
+        for (Object value : values) {
+            total += value == null ? 7 : HANDLERS.get(value.getClass()).applyAsInt(value);
+        }
+        return total;
+    }
+
+    private static int typeClassifier(Object[] values) {
+        int total = 0;
+        for (Object value : values) {
+            total += CLASSIFIER.classify(value);
+        }
+        return total;
+    }
+}
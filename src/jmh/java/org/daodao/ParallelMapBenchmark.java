@@ -0,0 +1,65 @@
+package org.daodao;
+
+import org.daodao.concurrent.ParallelMap;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.*;
+
+/**
+ * Benchmark for mapping a blocking call over {@code taskCount} inputs: submitting each task and
+ * calling {@code future.get()} before the next, which runs them one at a time, vs
+ * {@link ParallelMap#parallelMap} with up to {@code maxConcurrency} in flight.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelMapBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int taskCount;
+
+    @Param({"50"})
+    private int blockMicros;
+
+    @Param({"1024"})
+    private int maxConcurrency;
+
+    private List<Integer> inputs;
+
+    @Setup
+    public void setUp() {
+        inputs = IntStream.range(0, taskCount).boxed().toList();
+    }
+
+    private int call(int input) {
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(blockMicros));
+        return input;
+    }
+
+    @Benchmark
+    public long serialGetLoop() throws Exception {
+        long total = 0;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int input : inputs) {
+                Future<Integer> future = executor.submit(() -> call(input));
+                total += future.get();
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long parallelMap() throws Exception {
+        long total = 0;
+        for (int result : ParallelMap.parallelMap(inputs, this::call, maxConcurrency)) {
+            total += result;
+        }
+        return total;
+    }
+}
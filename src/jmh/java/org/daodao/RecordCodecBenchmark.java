@@ -0,0 +1,101 @@
+package org.daodao;
+
+import org.daodao.records.RecordCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for moving a batch of employee records through a byte buffer: {@link RecordCodec}
+ * vs {@code ObjectOutputStream}/{@code ObjectInputStream}. Both sides use the same serializable
+ * records and write the whole batch into one stream, so Java serialization writes each class
+ * descriptor once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecordCodecBenchmark {
+
+    record Department(String name, String location) implements Serializable {}
+
+    record Employee(String name, int id, Department department) implements Serializable {}
+
+    private static final RecordCodec<Employee> CODEC = RecordCodec.of(Employee.class);
+
+    @Param({"1000"})
+    private int batchSize;
+
+    private List<Employee> employees;
+    private ByteBuffer buffer;
+    private byte[] codecBytes;
+    private byte[] serializedBytes;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        employees = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            int d = random.nextInt(50);
+            employees.add(new Employee("Employee " + random.nextInt(100_000), random.nextInt(1_000_000),
+                new Department("Department " + d, "Floor " + d % 10)));
+        }
+        buffer = ByteBuffer.allocate(64 * batchSize);
+        codecBytes = encodeCodec();
+        serializedBytes = encodeObjectStream();
+    }
+
+    @Benchmark
+    public byte[] codecEncode() {
+        return encodeCodec();
+    }
+
+    @Benchmark
+    public byte[] objectStreamEncode() throws IOException {
+        return encodeObjectStream();
+    }
+
+    @Benchmark
+    public int codecDecode() {
+        ByteBuffer in = ByteBuffer.wrap(codecBytes);
+        int total = 0;
+        while (in.hasRemaining()) {
+            total += CODEC.decode(in).id();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int objectStreamDecode() throws IOException, ClassNotFoundException {
+        int total = 0;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serializedBytes))) {
+            for (int i = 0; i < batchSize; i++) {
+                total += ((Employee) in.readObject()).id();
+            }
+        }
+        return total;
+    }
+
+    private byte[] encodeCodec() {
+        buffer.clear();
+        for (Employee employee : employees) {
+            CODEC.encode(employee, buffer);
+        }
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    private byte[] encodeObjectStream() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * batchSize);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            for (Employee employee : employees) {
+                out.writeObject(employee);
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
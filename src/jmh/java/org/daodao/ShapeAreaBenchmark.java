@@ -0,0 +1,99 @@
+package org.daodao;
+
+import org.daodao.shape.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for total area: record-pattern switch over a {@code Shape[]} vs the scalar and
+ * Vector API kernels over the same shapes grouped by kind into primitive columns.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "--add-modules", "jdk.incubator.vector"})
+public class ShapeAreaBenchmark {
+
+    @Param({"10000", "1000000"})
+    private int shapeCount;
+
+    private Shape[] shapes;
+    private double[] radius;
+    private double[] width;
+    private double[] height;
+    private double[] base;
+    private double[] triangleHeight;
+    private int circles;
+    private int rectangles;
+    private int triangles;
+
+    private AreaKernel scalar;
+    private AreaKernel vector;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        shapes = new Shape[shapeCount];
+        radius = new double[shapeCount];
+        width = new double[shapeCount];
+        height = new double[shapeCount];
+        base = new double[shapeCount];
+        triangleHeight = new double[shapeCount];
+        for (int i = 0; i < shapeCount; i++) {
+            double a = 1 + random.nextDouble();
+            double b = 1 + random.nextDouble();
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    shapes[i] = new Circle(a);
+                    radius[circles++] = a;
+                }
+                case 1 -> {
+                    shapes[i] = new Rectangle(a, b);
+                    width[rectangles] = a;
+                    height[rectangles++] = b;
+                }
+                default -> {
+                    shapes[i] = new Triangle(a, b);
+                    base[triangles] = a;
+                    triangleHeight[triangles++] = b;
+                }
+            }
+        }
+        scalar = AreaKernel.scalar();
+        vector = AreaKernel.vector()
+            .orElseThrow(() -> new IllegalStateException("Run with --add-modules jdk.incubator.vector"));
+    }
+
+    @Benchmark
+    public double recordSwitch() {
+        double total = 0;
+        for (Shape shape : shapes) {
+            total += switch (shape) {
+                case Circle(double r) -> Math.PI * r * r;
+                case Rectangle(double w, double h) -> w * h;
+                case Triangle(double b, double h) -> 0.5 * b * h;
+            };
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double scalarKernel() {
+        return total(scalar);
+    }
+
+    @Benchmark
+    public double vectorKernel() {
+        return total(vector);
+    }
+
+    private double total(AreaKernel kernel) {
+        return kernel.circleAreaSum(radius, circles)
+            + kernel.rectangleAreaSum(width, height, rectangles)
+            + kernel.triangleAreaSum(base, triangleHeight, triangles);
+    }
+}
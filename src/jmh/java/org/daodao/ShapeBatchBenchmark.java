@@ -0,0 +1,78 @@
+package org.daodao;
+
+import org.daodao.shape.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for bulk operations over shapes kept as a {@code List<Shape>} of records vs a
+ * columnar {@link ShapeBatch}: total area and per-shape areas in the original order.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "--add-modules", "jdk.incubator.vector"})
+public class ShapeBatchBenchmark {
+
+    @Param({"10000", "1000000"})
+    private int shapeCount;
+
+    private List<Shape> shapes;
+    private ShapeBatch batch;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<Shape> list = new ArrayList<>(shapeCount);
+        for (int i = 0; i < shapeCount; i++) {
+            double a = 1 + random.nextDouble();
+            double b = 1 + random.nextDouble();
+            list.add(switch (random.nextInt(3)) {
+                case 0 -> new Circle(a);
+                case 1 -> new Rectangle(a, b);
+                default -> new Triangle(a, b);
+            });
+        }
+        // Shuffle so records are not laid out in allocation order on the heap
+        Collections.shuffle(list, random);
+        shapes = list;
+        batch = ShapeBatch.of(list);
+        batch.trimToSize();
+    }
+
+    @Benchmark
+    public double recordListTotal() {
+        double total = 0;
+        for (Shape shape : shapes) {
+            total += switch (shape) {
+                case Circle(double r) -> Math.PI * r * r;
+                case Rectangle(double w, double h) -> w * h;
+                case Triangle(double b, double h) -> 0.5 * b * h;
+            };
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double batchTotal() {
+        return batch.totalArea();
+    }
+
+    @Benchmark
+    public double[] recordListAreas() {
+        double[] areas = new double[shapes.size()];
+        for (int i = 0; i < areas.length; i++) {
+            areas[i] = shapes.get(i).area();
+        }
+        return areas;
+    }
+
+    @Benchmark
+    public double[] batchAreas() {
+        return batch.areas();
+    }
+}
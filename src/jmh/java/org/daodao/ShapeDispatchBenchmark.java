@@ -0,0 +1,185 @@
+package org.daodao;
+
+import org.daodao.shape.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.*;
+
+/**
+ * Benchmark for area dispatch over the sealed Shape hierarchy: exhaustive record-pattern switch,
+ * instanceof chain, virtual call, visitor and a {@code ClassValue}-cached handler table.
+ *
+ * <p>{@code mix} gives the circle/rectangle/triangle percentages, from uniform to a single
+ * dominant type; {@code 99/1/0} is the two-type hierarchy of {@code MockitoIntegrationTest}.
+ * With {@code polluted}, every dispatch helper first runs over a uniform mix of all types, so its
+ * type profile is megamorphic by the time it is compiled for the skewed data, as happens when one
+ * shared call site serves many callers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShapeDispatchBenchmark {
+
+    private static final ClassValue<ToDoubleFunction<Shape>> AREA_HANDLERS = new ClassValue<>() {
+        @Override
+        protected ToDoubleFunction<Shape> computeValue(Class<?> type) {
+            if (type == Circle.class) {
+                return shape -> {
+                    double r = ((Circle) shape).radius();
+                    return Math.PI * r * r;
+                };
+            } else if (type == Rectangle.class) {
+                return shape -> ((Rectangle) shape).width() * ((Rectangle) shape).height();
+            } else if (type == Triangle.class) {
+                return shape -> 0.5 * ((Triangle) shape).base() * ((Triangle) shape).height();
+            }
+            throw new IllegalArgumentException("Unknown shape type: " + type);
+        }
+    };
+
+    @Param({"10000"})
+    private int shapeCount;
+
+    @Param({"34/33/33", "80/10/10", "99/1/0"})
+    private String mix;
+
+    @Param({"false", "true"})
+    private boolean polluted;
+
+    private Shape[] shapes;
+    private final AreaVisitor visitor = new AreaVisitor();
+
+    @Setup
+    public void setUp() {
+        int[] percent = Arrays.stream(mix.split("/")).mapToInt(Integer::parseInt).toArray();
+        shapes = randomShapes(shapeCount, percent, new Random(42));
+        if (polluted) {
+            Shape[] uniform = randomShapes(shapeCount, new int[] {34, 33, 33}, new Random(7));
+            for (int i = 0; i < 200; i++) {
+                sealedSwitch(uniform);
+                instanceofChain(uniform);
+                virtualCall(uniform);
+                visitor(uniform);
+                classValueTable(uniform);
+            }
+        }
+    }
+
+    private static Shape[] randomShapes(int count, int[] percent, Random random) {
+        Shape[] shapes = new Shape[count];
+        for (int i = 0; i < count; i++) {
+            double a = 1 + random.nextDouble();
+            double b = 1 + random.nextDouble();
+            int roll = random.nextInt(100);
+            shapes[i] = roll < percent[0] ? new Circle(a)
+                : roll < percent[0] + percent[1] ? new Rectangle(a, b)
+                : new Triangle(a, b);
+        }
+        return shapes;
+    }
+
+    @Benchmark
+    public double sealedSwitch() {
+        return sealedSwitch(shapes);
+    }
+
+    @Benchmark
+    public double instanceofChain() {
+        return instanceofChain(shapes);
+    }
+
+    @Benchmark
+    public double virtualCall() {
+        return virtualCall(shapes);
+    }
+
+    @Benchmark
+    public double visitor() {
+        return visitor(shapes);
+    }
+
+    @Benchmark
+    public double classValueTable() {
+        return classValueTable(shapes);
+    }
+
+    private static double sealedSwitch(Shape[] shapes) {
+        double total = 0;
+        for (Shape shape : shapes) {
+            total += switch (shape) {
+                case Circle(double r) -> Math.PI * r * r;
+                case Rectangle(double w, double h) -> w * h;
+                case Triangle(double b, double h) -> 0.5 * b * h;
+            };
+        }
+        return total;
+    }
+
+    private static double instanceofChain(Shape[] shapes) {
+        double total = 0;
+        for (Shape shape : shapes) {
+            if (shape instanceof Circle c) {
+                total += Math.PI * c.radius() * c.radius();
+            } else if (shape instanceof Rectangle r) {
+                total += r.width() * r.height();
+            } else if (shape instanceof Triangle t) {
+                total += 0.5 * t.base() * t.height();
+            }
+        }
+        return total;
+    }
+
+    private static double virtualCall(Shape[] shapes) {
+        double total = 0;
+        for (Shape shape : shapes) {
+            total += shape.area();
+        }
+        return total;
+    }
+
+    private double visitor(Shape[] shapes) {
+        visitor.total = 0;
+        for (Shape shape : shapes) {
+            shape.accept(visitor);
+        }
+        return visitor.total;
+    }
+
+    private static double classValueTable(Shape[] shapes) {
+        double total = 0;
+        for (Shape shape : shapes) {
+            total += AREA_HANDLERS.get(shape.getClass()).applyAsDouble(shape);
+        }
+        return total;
+    }
+
+    /**
+     * Accumulates into a field so the visitor does not box a result per shape.
+     */
+    private static final class AreaVisitor implements ShapeVisitor<Void> {
+        double total;
+
+        @Override
+        public Void visitCircle(Circle circle) {
+            total += Math.PI * circle.radius() * circle.radius();
+            return null;
+        }
+
+        @Override
+        public Void visitRectangle(Rectangle rectangle) {
+            total += rectangle.width() * rectangle.height();
+            return null;
+        }
+
+        @Override
+        public Void visitTriangle(Triangle triangle) {
+            total += 0.5 * triangle.base() * triangle.height();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.daodao;
+
+import org.daodao.text.WhitespaceTokenizer;
+import org.daodao.text.WordCountMap;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.*;
+
+/**
+ * Benchmark for word frequency counting: {@code groupingBy(counting())} into boxed
+ * {@code Map<String, Long>} vs {@link WordCountMap}, from strings and from raw UTF-8 bytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WordCountBenchmark {
+
+    @Param({"1000", "100000"})
+    private int vocabulary;
+
+    private List<String> words;
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        String[] dictionary = new String[vocabulary];
+        for (int i = 0; i < vocabulary; i++) {
+            char[] chars = new char[4 + random.nextInt(8)];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = (char) ('a' + random.nextInt(26));
+            }
+            dictionary[i] = new String(chars);
+        }
+        words = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            words.add(dictionary[random.nextInt(vocabulary)]);
+        }
+        bytes = String.join(" ", words).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public int groupingByCounting() {
+        return words.stream()
+            .collect(Collectors.groupingBy(word -> word, Collectors.counting()))
+            .size();
+    }
+
+    @Benchmark
+    public int wordCountMapCollector() {
+        return words.stream().collect(WordCountMap.collector()).size();
+    }
+
+    @Benchmark
+    public int wordCountMapBytes() {
+        WordCountMap counts = new WordCountMap();
+        WhitespaceTokenizer.forEachToken(ByteBuffer.wrap(bytes), 0, bytes.length,
+            (source, start, end) -> counts.add(bytes, start, end - start));
+        return counts.size();
+    }
+}
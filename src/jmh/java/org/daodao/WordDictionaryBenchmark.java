@@ -0,0 +1,65 @@
+package org.daodao;
+
+import org.daodao.text.WhitespaceTokenizer;
+import org.daodao.text.WordDictionary;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for unique-word collection: {@code HashSet<String>} vs the off-heap
+ * {@link WordDictionary} fed directly from UTF-8 bytes. Run with {@code -prof gc} to compare
+ * allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class WordDictionaryBenchmark {
+
+    @Param({"1000", "100000"})
+    private int vocabulary;
+
+    private String text;
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        String[] words = new String[vocabulary];
+        for (int i = 0; i < vocabulary; i++) {
+            char[] chars = new char[4 + random.nextInt(8)];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = (char) ('a' + random.nextInt(26));
+            }
+            words[i] = new String(chars);
+        }
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 200_000; i++) {
+            builder.append(words[random.nextInt(vocabulary)]).append(i % 16 == 15 ? '\n' : ' ');
+        }
+        text = builder.toString();
+        bytes = text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public int hashSet() {
+        Set<String> words = new HashSet<>();
+        WhitespaceTokenizer.forEachWord(text, words::add);
+        return words.size();
+    }
+
+    @Benchmark
+    public int wordDictionary() {
+        try (WordDictionary dictionary = new WordDictionary()) {
+            WhitespaceTokenizer.forEachToken(ByteBuffer.wrap(bytes), 0, bytes.length,
+                (source, start, end) -> dictionary.add(bytes, start, end - start));
+            return dictionary.size();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.daodao;
+
+import org.daodao.text.WhitespaceTokenizer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.*;
+import java.util.stream.*;
+
+/**
+ * Benchmark for word extraction as done in FileProcessingTest:
+ * mapMulti with split vs flatMap over split vs the whitespace tokenizer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WordExtractionBenchmark {
+
+    @Param({"1000"})
+    private int lineCount;
+
+    private List<String> lines;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        String[] vocabulary = {"Java", "Record", "Patterns", "Virtual", "Threads", "String", "Templates",
+            "Sealed", "Classes", "the", "a", "of", "Switch", "Stream", "Features"};
+        lines = IntStream.range(0, lineCount)
+            .mapToObj(i -> "Line " + i + ": " + IntStream.range(0, 12)
+                .mapToObj(j -> vocabulary[random.nextInt(vocabulary.length)])
+                .collect(Collectors.joining(" ")))
+            .toList();
+    }
+
+    @Benchmark
+    public List<String> mapMulti() {
+        return lines.stream()
+            .mapMulti((String line, Consumer<String> sink) -> {
+                for (String part : line.split("\\s+")) {
+                    if (part.length() > 3) {
+                        sink.accept(part.toLowerCase());
+                    }
+                }
+            })
+            .toList();
+    }
+
+    @Benchmark
+    public List<String> flatMapSplit() {
+        return lines.stream()
+            .flatMap(line -> Arrays.stream(line.split("\\s+")))
+            .filter(word -> word.length() > 3)
+            .map(String::toLowerCase)
+            .toList();
+    }
+
+    @Benchmark
+    public List<String> tokenizerMapMulti() {
+        return lines.stream()
+            .mapMulti((String line, Consumer<String> sink) ->
+                WhitespaceTokenizer.forEachToken(line, (source, start, end) -> {
+                    if (end - start > 3) {
+                        sink.accept(source.subSequence(start, end).toString().toLowerCase());
+                    }
+                }))
+            .toList();
+    }
+
+    @Benchmark
+    public int tokenizerCallback() {
+        // Allocation-free inner loop: only counts qualifying tokens
+        int[] count = new int[1];
+        for (String line : lines) {
+            WhitespaceTokenizer.forEachToken(line, (source, start, end) -> {
+                if (end - start > 3) {
+                    count[0]++;
+                }
+            });
+        }
+        return count[0];
+    }
+}
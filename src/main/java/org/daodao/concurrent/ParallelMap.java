@@ -0,0 +1,101 @@
+package org.daodao.concurrent;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Maps a function over inputs on virtual threads, at most {@code maxConcurrency} at a time, in
+ * place of a loop that submits a task and waits for its future before submitting the next.
+ *
+ * <p>The calling thread starts tasks and collects their outcomes: a task is only started when an
+ * earlier one finishes, so a batch of any size holds no more than {@code maxConcurrency} threads.
+ * The first failure interrupts every running task, starts no more and is rethrown. Either way no
+ * task is still running when the call returns.
+ */
+public final class ParallelMap {
+
+    /**
+     * Work done for one input. Tasks run on virtual threads and may block.
+     */
+    @FunctionalInterface
+    public interface Task<T, R> {
+        R apply(T input) throws Exception;
+    }
+
+    private record Outcome<R>(int index, R value, Throwable failure) {}
+
+    private ParallelMap() {
+    }
+
+    /**
+     * Applies {@code fn} to every input and returns the results in input order.
+     *
+     * @throws ExecutionException wrapping the first failure
+     */
+    public static <T, R> List<R> parallelMap(Collection<? extends T> inputs, Task<? super T, ? extends R> fn,
+                                             int maxConcurrency) throws InterruptedException, ExecutionException {
+        Object[] results = new Object[inputs.size()];
+        forEachCompleted(inputs, fn, maxConcurrency, (value, index) -> results[index] = value);
+        @SuppressWarnings("unchecked")
+        List<R> ordered = (List<R>) Arrays.asList(results);
+        return Collections.unmodifiableList(ordered);
+    }
+
+    /**
+     * Applies {@code fn} to every input and passes each result to {@code onResult} with its input
+     * index as soon as it completes. {@code onResult} only ever runs on the calling thread; if it
+     * throws, the batch is cancelled as for a failed task and the exception propagates.
+     *
+     * @throws ExecutionException wrapping the first failure
+     */
+    public static <T, R> void forEachCompleted(Collection<? extends T> inputs, Task<? super T, ? extends R> fn,
+                                               int maxConcurrency, ObjIntConsumer<? super R> onResult)
+            throws InterruptedException, ExecutionException {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+        }
+        Objects.requireNonNull(fn, "fn");
+        Objects.requireNonNull(onResult, "onResult");
+        int size = inputs.size();
+        Iterator<? extends T> pending = inputs.iterator();
+        BlockingQueue<Outcome<R>> completed = new LinkedBlockingQueue<>();
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        boolean done = false;
+        try {
+            int started = 0;
+            while (started < Math.min(maxConcurrency, size)) {
+                start(executor, started++, pending.next(), fn, completed);
+            }
+            for (int remaining = size; remaining > 0; remaining--) {
+                Outcome<R> outcome = completed.take();
+                if (outcome.failure() != null) {
+                    throw new ExecutionException(outcome.failure());
+                }
+                if (started < size) {
+                    start(executor, started++, pending.next(), fn, completed);
+                }
+                onResult.accept(outcome.value(), outcome.index());
+            }
+            done = true;
+        } finally {
+            if (!done) {
+                executor.shutdownNow();
+            }
+            executor.close();
+        }
+    }
+
+    private static <T, R> void start(ExecutorService executor, int index, T input, Task<? super T, ? extends R> fn,
+                                     BlockingQueue<Outcome<R>> completed) {
+        executor.execute(() -> {
+            Outcome<R> outcome;
+            try {
+                outcome = new Outcome<>(index, fn.apply(input), null);
+            } catch (Throwable e) {
+                outcome = new Outcome<>(index, null, e);
+            }
+            completed.add(outcome);
+        });
+    }
+}
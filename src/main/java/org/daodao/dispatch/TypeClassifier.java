@@ -0,0 +1,165 @@
+package org.daodao.dispatch;
+
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * Maps objects to results through per-type handlers, with the semantics of a pattern
+ * {@code switch}: rules are tried in registration order, a rule matches when the value is an
+ * instance of its type and its guard (if any) accepts it, and the first match wins. Like
+ * {@code case null}, a null value goes to the {@linkplain Builder#onNull null handler} and
+ * otherwise throws {@link NullPointerException}.
+ *
+ * <p>The rules that can apply to a concrete class are resolved once per class through a
+ * {@link ClassValue}; rules after the first unguarded one are dropped, since they can never be
+ * reached. A class whose first applicable rule is unguarded dispatches straight to that handler,
+ * without any {@code instanceof} test. Instances are immutable and thread-safe.
+ */
+public final class TypeClassifier<R> {
+
+    private record Rule<R>(Class<?> type, Predicate<Object> guard, Function<Object, ? extends R> handler) {
+        boolean unguarded() {
+            return guard == null;
+        }
+    }
+
+    private final List<Rule<R>> rules;
+    private final Supplier<? extends R> nullHandler;
+    private final Function<Object, ? extends R> fallback;
+    private final ClassValue<Function<Object, ? extends R>> resolved = new ClassValue<>() {
+        @Override
+        protected Function<Object, ? extends R> computeValue(Class<?> type) {
+            return resolve(type);
+        }
+    };
+
+    private TypeClassifier(List<Rule<R>> rules, Supplier<? extends R> nullHandler,
+                           Function<Object, ? extends R> fallback) {
+        this.rules = rules;
+        this.nullHandler = nullHandler;
+        this.fallback = fallback;
+    }
+
+    public static <R> Builder<R> builder() {
+        return new Builder<>();
+    }
+
+    public R classify(Object value) {
+        if (value == null) {
+            if (nullHandler == null) {
+                throw new NullPointerException("No null handler registered");
+            }
+            return nullHandler.get();
+        }
+        return resolved.get(value.getClass()).apply(value);
+    }
+
+    /**
+     * Number of rules that can apply to instances of {@code type}, after unreachable rules are
+     * dropped.
+     */
+    public int ruleCount(Class<?> type) {
+        return applicableRules(type).size();
+    }
+
+    private List<Rule<R>> applicableRules(Class<?> type) {
+        List<Rule<R>> applicable = new ArrayList<>();
+        for (Rule<R> rule : rules) {
+            if (rule.type().isAssignableFrom(type)) {
+                applicable.add(rule);
+                if (rule.unguarded()) {
+                    break;
+                }
+            }
+        }
+        return applicable;
+    }
+
+    /**
+     * The dispatch function for {@code type}. It is cached in a {@link ClassValue}, which keeps it
+     * as long as {@code type} is loaded, so it must not capture this classifier: that would keep
+     * the classifier, and through it the ClassValue, reachable from classes such as
+     * {@code String} that are never unloaded.
+     */
+    private Function<Object, ? extends R> resolve(Class<?> type) {
+        Function<Object, ? extends R> fallback = this.fallback;
+        List<Rule<R>> applicable = applicableRules(type);
+        if (applicable.isEmpty()) {
+            return fallback;
+        }
+        if (applicable.get(0).unguarded()) {
+            return applicable.get(0).handler();
+        }
+        @SuppressWarnings("unchecked")
+        Rule<R>[] chain = applicable.toArray(Rule[]::new);
+        return value -> {
+            for (Rule<R> rule : chain) {
+                if (rule.unguarded() || rule.guard().test(value)) {
+                    return rule.handler().apply(value);
+                }
+            }
+            return fallback.apply(value);
+        };
+    }
+
+    /**
+     * Collects rules in priority order.
+     */
+    public static final class Builder<R> {
+        private final List<Rule<R>> rules = new ArrayList<>();
+        private Supplier<? extends R> nullHandler;
+        private Function<Object, ? extends R> fallback;
+
+        private Builder() {
+        }
+
+        /**
+         * Adds {@code case T t -> handler(t)}.
+         */
+        public <T> Builder<R> on(Class<T> type, Function<? super T, ? extends R> handler) {
+            return add(type, null, handler);
+        }
+
+        /**
+         * Adds {@code case T t when guard(t) -> handler(t)}.
+         */
+        public <T> Builder<R> when(Class<T> type, Predicate<? super T> guard, Function<? super T, ? extends R> handler) {
+            return add(type, Objects.requireNonNull(guard, "guard"), handler);
+        }
+
+        /**
+         * Adds {@code case null -> handler()}.
+         */
+        public Builder<R> onNull(Supplier<? extends R> handler) {
+            this.nullHandler = Objects.requireNonNull(handler, "handler");
+            return this;
+        }
+
+        /**
+         * Adds {@code default -> handler(value)} for non-null values no rule matches.
+         */
+        public Builder<R> otherwise(Function<Object, ? extends R> handler) {
+            this.fallback = Objects.requireNonNull(handler, "handler");
+            return this;
+        }
+
+        public TypeClassifier<R> build() {
+            Function<Object, ? extends R> fallback = this.fallback != null ? this.fallback : value -> {
+                throw new IllegalArgumentException("No handler for " + value.getClass().getName());
+            };
+            return new TypeClassifier<>(List.copyOf(rules), nullHandler, fallback);
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> Builder<R> add(Class<T> type, Predicate<? super T> guard, Function<? super T, ? extends R> handler) {
+            Objects.requireNonNull(type, "type");
+            Objects.requireNonNull(handler, "handler");
+            if (type.isPrimitive()) {
+                throw new IllegalArgumentException("Use the wrapper type instead of " + type);
+            }
+            // Only ever applied to instances of type, as checked by resolve()
+            rules.add(new Rule<>(type, (Predicate<Object>) guard, (Function<Object, ? extends R>) handler));
+            return this;
+        }
+    }
+}
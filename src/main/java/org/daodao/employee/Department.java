@@ -0,0 +1,4 @@
+package org.daodao.employee;
+
+public record Department(String name, String location) {
+}
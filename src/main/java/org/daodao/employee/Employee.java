@@ -0,0 +1,4 @@
+package org.daodao.employee;
+
+public record Employee(String name, int id, Department department) {
+}
@@ -0,0 +1,225 @@
+package org.daodao.employee;
+
+import java.util.*;
+import java.util.function.*;
+import java.util.stream.*;
+
+/**
+ * In-memory employee store in column arrays, one row per employee: an {@code int} id, a name code
+ * into a name dictionary and a department ordinal into a department dictionary.
+ *
+ * <p>Lookups by id go through an open-addressed {@code int} hash index from id to row, so
+ * {@link #rowOf(int)} and the per-row accessors never allocate. Each department has a bitmap of
+ * its rows, so department queries scan 64 rows per word instead of testing every employee. A
+ * bitmap costs one bit per row up to the department's last row, which suits up to a few hundred
+ * departments.
+ *
+ * <p>Rows are append-only. Not thread-safe for writes; concurrent reads are safe once loading
+ * has finished and the repository has been safely published.
+ */
+public final class EmployeeRepository {
+
+    private static final int NO_ROW = -1;
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final long[] NO_ROWS = new long[0];
+
+    private int[] ids;
+    private int[] nameCodes;
+    private int[] departmentOrdinals;
+    private int size;
+
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> nameCodesByName = new HashMap<>();
+    private final List<Department> departments = new ArrayList<>();
+    private final Map<Department, Integer> ordinalsByDepartment = new HashMap<>();
+    private final List<long[]> departmentRows = new ArrayList<>();
+
+    private int[] indexKeys;
+    private int[] indexRows;
+    private int indexMask;
+
+    public EmployeeRepository() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public EmployeeRepository(int expectedEmployees) {
+        int capacity = Math.max(DEFAULT_CAPACITY, expectedEmployees);
+        ids = new int[capacity];
+        nameCodes = new int[capacity];
+        departmentOrdinals = new int[capacity];
+        allocateIndex(Math.max(DEFAULT_CAPACITY, Integer.highestOneBit(capacity - 1) << 2));
+    }
+
+    /**
+     * Bulk-loads {@code employees} into a new repository.
+     */
+    public static EmployeeRepository load(Stream<Employee> employees) {
+        EmployeeRepository repository = new EmployeeRepository();
+        employees.forEachOrdered(repository::add);
+        return repository;
+    }
+
+    /**
+     * Appends {@code employee} and returns its row.
+     *
+     * @throws IllegalArgumentException if an employee with the same id is already stored
+     */
+    public int add(Employee employee) {
+        int id = employee.id();
+        int slot = findSlot(id);
+        if (indexRows[slot] != NO_ROW) {
+            throw new IllegalArgumentException("Duplicate employee id: " + id);
+        }
+        int nameCode = encode(employee.name(), names, nameCodesByName);
+        int ordinal = encode(employee.department(), departments, ordinalsByDepartment);
+        if (ordinal == departmentRows.size()) {
+            departmentRows.add(NO_ROWS);
+        }
+        if (size == ids.length) {
+            int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            nameCodes = Arrays.copyOf(nameCodes, capacity);
+            departmentOrdinals = Arrays.copyOf(departmentOrdinals, capacity);
+        }
+        int row = size++;
+        ids[row] = id;
+        nameCodes[row] = nameCode;
+        departmentOrdinals[row] = ordinal;
+        setRowBit(ordinal, row);
+
+        indexKeys[slot] = id;
+        indexRows[slot] = row;
+        if (size * 2 > indexMask) {
+            allocateIndex(indexRows.length * 2);
+        }
+        return row;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Row of the employee with {@code id}, or -1 if there is none.
+     */
+    public int rowOf(int id) {
+        return indexRows[findSlot(id)];
+    }
+
+    public boolean contains(int id) {
+        return rowOf(id) != NO_ROW;
+    }
+
+    public int id(int row) {
+        return ids[Objects.checkIndex(row, size)];
+    }
+
+    public String name(int row) {
+        return names.get(nameCodes[Objects.checkIndex(row, size)]);
+    }
+
+    public Department department(int row) {
+        return departments.get(departmentOrdinals[Objects.checkIndex(row, size)]);
+    }
+
+    /**
+     * Materializes the employee at {@code row} as a record.
+     */
+    public Employee employee(int row) {
+        return new Employee(name(row), id(row), department(row));
+    }
+
+    public Optional<Employee> findById(int id) {
+        int row = rowOf(id);
+        return row == NO_ROW ? Optional.empty() : Optional.of(employee(row));
+    }
+
+    /**
+     * Distinct departments in order of first appearance.
+     */
+    public List<Department> departments() {
+        return Collections.unmodifiableList(departments);
+    }
+
+    public int distinctNames() {
+        return names.size();
+    }
+
+    public int countInDepartment(Department department) {
+        long[] rows = rowsOf(department);
+        int count = 0;
+        for (long word : rows) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Passes every row in {@code department} to {@code action}, in row order.
+     */
+    public void forEachInDepartment(Department department, IntConsumer action) {
+        long[] rows = rowsOf(department);
+        for (int w = 0; w < rows.length; w++) {
+            for (long word = rows[w]; word != 0; word &= word - 1) {
+                action.accept(w * Long.SIZE + Long.numberOfTrailingZeros(word));
+            }
+        }
+    }
+
+    public IntStream rowsInDepartment(Department department) {
+        IntStream.Builder rows = IntStream.builder();
+        forEachInDepartment(department, rows);
+        return rows.build();
+    }
+
+    private long[] rowsOf(Department department) {
+        Integer ordinal = ordinalsByDepartment.get(department);
+        return ordinal == null ? NO_ROWS : departmentRows.get(ordinal);
+    }
+
+    private void setRowBit(int ordinal, int row) {
+        long[] rows = departmentRows.get(ordinal);
+        int word = row >>> 6;
+        if (word >= rows.length) {
+            rows = Arrays.copyOf(rows, Math.max(word + 1, rows.length * 2));
+            departmentRows.set(ordinal, rows);
+        }
+        rows[word] |= 1L << row;
+    }
+
+    private static <T> int encode(T value, List<T> dictionary, Map<T, Integer> codes) {
+        Objects.requireNonNull(value, "name and department must not be null");
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = dictionary.size();
+            dictionary.add(value);
+            codes.put(value, code);
+        }
+        return code;
+    }
+
+    private int findSlot(int id) {
+        int slot = mix(id) & indexMask;
+        while (indexRows[slot] != NO_ROW && indexKeys[slot] != id) {
+            slot = (slot + 1) & indexMask;
+        }
+        return slot;
+    }
+
+    private static int mix(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private void allocateIndex(int capacity) {
+        indexKeys = new int[capacity];
+        indexRows = new int[capacity];
+        Arrays.fill(indexRows, NO_ROW);
+        indexMask = capacity - 1;
+        for (int row = 0; row < size; row++) {
+            int slot = findSlot(ids[row]);
+            indexKeys[slot] = ids[row];
+            indexRows[slot] = row;
+        }
+    }
+}
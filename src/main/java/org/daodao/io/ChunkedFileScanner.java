@@ -0,0 +1,198 @@
+package org.daodao.io;
+
+import org.daodao.text.WhitespaceTokenizer;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+/**
+ * Parallel scanner for a single large file. The file is cut into byte ranges that start
+ * right after a {@code '\n'}, each range is memory-mapped and processed by its own fork-join
+ * task, and the per-range results are merged pairwise on the way back up.
+ *
+ * <p>Because ranges never split a line, any line- or token-based processing gives the same
+ * result as a sequential pass.
+ */
+public final class ChunkedFileScanner {
+
+    static final long MAX_CHUNK_SIZE = 1L << 30;
+
+    private static final int BOUNDARY_PROBE_SIZE = 4096;
+
+    private final ForkJoinPool pool;
+    private final int chunksPerThread;
+
+    /**
+     * Processes one newline-aligned range of the file. The buffer covers exactly the range.
+     */
+    @FunctionalInterface
+    public interface ChunkProcessor<R> {
+        R process(ByteBuffer chunk);
+    }
+
+    /**
+     * Byte range {@code [start, end)} of the scanned file.
+     */
+    public record Range(long start, long end) {
+        public long length() {
+            return end - start;
+        }
+    }
+
+    public ChunkedFileScanner() {
+        this(ForkJoinPool.commonPool(), 4);
+    }
+
+    /**
+     * @param chunksPerThread ranges per pool thread; more than one evens out skewed chunks
+     */
+    public ChunkedFileScanner(ForkJoinPool pool, int chunksPerThread) {
+        if (chunksPerThread < 1) {
+            throw new IllegalArgumentException("chunksPerThread must be positive: " + chunksPerThread);
+        }
+        this.pool = Objects.requireNonNull(pool, "pool");
+        this.chunksPerThread = chunksPerThread;
+    }
+
+    /**
+     * Runs {@code processor} on every range in parallel and combines the results. An empty
+     * file is processed as a single empty chunk.
+     */
+    public <R> R scan(Path file, ChunkProcessor<R> processor, BinaryOperator<R> combiner) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return processor.process(ByteBuffer.allocate(0));
+            }
+            long minChunks = (size + MAX_CHUNK_SIZE - 1) / MAX_CHUNK_SIZE;
+            int chunkCount = (int) Math.max(minChunks, (long) pool.getParallelism() * chunksPerThread);
+            List<Range> ranges = split(channel, size, chunkCount);
+            try {
+                return pool.invoke(new ScanTask<>(channel, ranges, 0, ranges.size(), processor, combiner));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Counts the words of a file the same way FileProcessingTest extracts them: tokens longer
+     * than three characters, lower-cased.
+     */
+    public Map<String, Long> countWords(Path file) throws IOException {
+        return scan(file, ChunkedFileScanner::countWords, ChunkedFileScanner::merge);
+    }
+
+    static Map<String, Long> countWords(ByteBuffer chunk) {
+        Map<String, Long> counts = new HashMap<>();
+        byte[] scratch = new byte[64];
+        WhitespaceTokenizer.forEachToken(chunk, 0, chunk.limit(), (source, start, end) -> {
+            int length = end - start;
+            // A UTF-8 token never has more chars than bytes
+            if (length <= 3) {
+                return;
+            }
+            byte[] bytes = length <= scratch.length ? scratch : new byte[length];
+            source.get(start, bytes, 0, length);
+            String word = new String(bytes, 0, length, StandardCharsets.UTF_8);
+            if (word.length() > 3) {
+                counts.merge(word.toLowerCase(), 1L, Long::sum);
+            }
+        });
+        return counts;
+    }
+
+    static Map<String, Long> merge(Map<String, Long> left, Map<String, Long> right) {
+        Map<String, Long> target = left.size() >= right.size() ? left : right;
+        Map<String, Long> source = target == left ? right : left;
+        source.forEach((word, count) -> target.merge(word, count, Long::sum));
+        return target;
+    }
+
+    /**
+     * Splits {@code [0, size)} into at most {@code chunkCount} ranges, moving every cut forward
+     * to just after the next newline. Ranges are never empty and never exceed
+     * {@link #MAX_CHUNK_SIZE} unless a single line does.
+     */
+    static List<Range> split(FileChannel channel, long size, int chunkCount) throws IOException {
+        List<Range> ranges = new ArrayList<>(chunkCount);
+        ByteBuffer probe = ByteBuffer.allocate(BOUNDARY_PROBE_SIZE);
+        long start = 0;
+        for (int i = 1; i <= chunkCount && start < size; i++) {
+            long target = i == chunkCount ? size : Math.max(start, size / chunkCount * i);
+            long end = target >= size ? size : nextLineStart(channel, target, size, probe);
+            if (end > start) {
+                ranges.add(new Range(start, end));
+                start = end;
+            }
+        }
+        if (start < size) {
+            ranges.add(new Range(start, size));
+        }
+        return ranges;
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, long size, ByteBuffer probe)
+            throws IOException {
+        // A cut at 'position' is aligned if the byte before it is a newline
+        long offset = position == 0 ? 0 : position - 1;
+        while (offset < size) {
+            probe.clear();
+            int read = channel.read(probe, offset);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+        return size;
+    }
+
+    private static final class ScanTask<R> extends RecursiveTask<R> {
+        private final FileChannel channel;
+        private final List<Range> ranges;
+        private final int from;
+        private final int to;
+        private final ChunkProcessor<R> processor;
+        private final BinaryOperator<R> combiner;
+
+        ScanTask(FileChannel channel, List<Range> ranges, int from, int to,
+                 ChunkProcessor<R> processor, BinaryOperator<R> combiner) {
+            this.channel = channel;
+            this.ranges = ranges;
+            this.from = from;
+            this.to = to;
+            this.processor = processor;
+            this.combiner = combiner;
+        }
+
+        @Override
+        protected R compute() {
+            if (to - from == 1) {
+                Range range = ranges.get(from);
+                try {
+                    ByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, range.start(), range.length());
+                    return processor.process(chunk);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            int middle = (from + to) >>> 1;
+            ScanTask<R> left = new ScanTask<>(channel, ranges, from, middle, processor, combiner);
+            ScanTask<R> right = new ScanTask<>(channel, ranges, middle, to, processor, combiner);
+            left.fork();
+            R rightResult = right.compute();
+            return combiner.apply(left.join(), rightResult);
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package org.daodao.io;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.*;
+import java.util.zip.CRC32C;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Follows files in a directory as they grow, like {@code tail -F} over every matching file.
+ *
+ * <p>The directory is registered with a {@link WatchService}. For each file the follower
+ * remembers the byte offset just past the last complete line it delivered. When the file changes,
+ * it reads only the bytes from that offset on. A trailing line without a newline is held back
+ * until the newline arrives.
+ *
+ * <p>A file whose size drops below the remembered offset has been truncated and is re-read from
+ * the start. So is a file whose first bytes no longer hash to what was read from them, which
+ * catches a file truncated and regrown past the offset between two looks; one regrown to exactly
+ * the old size is caught when it next grows. A file whose
+ * {@linkplain BasicFileAttributes#fileKey() file key} changed has been replaced and is also read
+ * from the start. A file renamed within the directory keeps its offset, so the tail of a rotated
+ * file is delivered exactly once under its new name.
+ *
+ * <p>{@link #checkpoint()} and the checkpoint constructor let a restarted follower resume where
+ * the last one stopped. The same checks apply across the restart, so a file rotated or truncated
+ * in between is not resumed at an offset into different content. Not thread-safe, except for
+ * {@link #close()}, which also ends {@link #follow()}.
+ */
+@Slf4j
+public final class DirectoryFollower implements Closeable {
+
+    static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    /** Leading bytes hashed to tell whether a file still holds what was read from it. */
+    static final int FINGERPRINT_BYTES = 1024;
+
+    /**
+     * Receives each complete line, without its terminator, with the byte offset it starts at.
+     */
+    @FunctionalInterface
+    public interface LineHandler {
+        void onLine(Path file, long offset, String line) throws IOException;
+    }
+
+    /**
+     * Where to resume one file: the offset of its next undelivered byte, its file key as a string
+     * (null if the file system has none), and the CRC32C of its first {@code headBytes} bytes.
+     * All components are plain values, so a checkpoint can be persisted as is.
+     */
+    public record Position(long offset, String fileKey, int headBytes, long headHash) {
+        public Position {
+            if (offset < 0 || headBytes < 0 || headBytes > offset) {
+                throw new IllegalArgumentException("Invalid position: offset " + offset + ", head " + headBytes);
+            }
+        }
+    }
+
+    private static final class FileState {
+        long offset;
+        String fileKey;
+        int headBytes;
+        long headHash;
+
+        FileState(long offset, String fileKey, int headBytes, long headHash) {
+            this.offset = offset;
+            this.fileKey = fileKey;
+            this.headBytes = headBytes;
+            this.headHash = headHash;
+        }
+
+        void restart() {
+            offset = 0;
+            headBytes = 0;
+            headHash = 0;
+        }
+    }
+
+    private final Path directory;
+    private final Predicate<? super Path> filter;
+    private final LineHandler handler;
+    private final int bufferSize;
+    private final WatchService watchService;
+    private final Map<Path, FileState> files = new HashMap<>();
+    /** States of files replaced under their name, by file key, until they show up renamed. */
+    private final Map<String, FileState> replaced = new HashMap<>();
+
+    public DirectoryFollower(Path directory, Predicate<? super Path> filter, LineHandler handler)
+            throws IOException {
+        this(directory, filter, handler, Map.of(), DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a follower that resumes each file in {@code checkpoint} at its recorded position,
+     * or from the start if the file there is no longer the one recorded.
+     */
+    public DirectoryFollower(Path directory, Predicate<? super Path> filter, LineHandler handler,
+                             Map<Path, Position> checkpoint) throws IOException {
+        this(directory, filter, handler, checkpoint, DEFAULT_BUFFER_SIZE);
+    }
+
+    DirectoryFollower(Path directory, Predicate<? super Path> filter, LineHandler handler,
+                      Map<Path, Position> checkpoint, int bufferSize) throws IOException {
+        this.directory = directory.toAbsolutePath().normalize();
+        this.filter = Objects.requireNonNull(filter, "filter");
+        this.handler = Objects.requireNonNull(handler, "handler");
+        this.bufferSize = bufferSize;
+        checkpoint.forEach((file, position) -> files.put(this.directory.resolve(file.getFileName()),
+            new FileState(position.offset(), position.fileKey(), position.headBytes(), position.headHash())));
+        this.watchService = this.directory.getFileSystem().newWatchService();
+        this.directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+    }
+
+    /**
+     * Position of the next undelivered byte of every followed file.
+     */
+    public Map<Path, Position> checkpoint() {
+        Map<Path, Position> checkpoint = new TreeMap<>();
+        files.forEach((file, state) -> checkpoint.put(file,
+            new Position(state.offset, state.fileKey, state.headBytes, state.headHash)));
+        return checkpoint;
+    }
+
+    /**
+     * Catches up on every matching file in the directory and forgets files that no longer exist.
+     * Returns the number of lines delivered.
+     */
+    public int scan() throws IOException {
+        int lines = 0;
+        Set<Path> present = new HashSet<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path file : entries) {
+                present.add(file);
+                lines += update(file);
+            }
+        }
+        // Every rename has been seen by now; forget files that are gone
+        files.keySet().retainAll(present);
+        replaced.clear();
+        return lines;
+    }
+
+    /**
+     * Waits up to {@code timeout} for changes and delivers the new lines of every changed file.
+     * Returns the number of lines delivered, 0 on timeout.
+     */
+    public int poll(Duration timeout) throws IOException, InterruptedException {
+        WatchKey key = watchService.poll(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        return key == null ? 0 : handle(key);
+    }
+
+    /**
+     * Catches up, then delivers changes as they happen until {@link #close()} is called or the
+     * thread is interrupted.
+     */
+    public void follow() throws IOException, InterruptedException {
+        scan();
+        try {
+            while (true) {
+                handle(watchService.take());
+            }
+        } catch (ClosedWatchServiceException e) {
+            log.debug("Stopped following {}", directory);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+
+    private int handle(WatchKey key) throws IOException {
+        Set<Path> changed = new LinkedHashSet<>();
+        boolean overflow = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                overflow = true;
+            } else {
+                changed.add(directory.resolve((Path) event.context()));
+            }
+        }
+        if (!key.reset()) {
+            throw new IOException("Directory is no longer accessible: " + directory);
+        }
+        if (overflow) {
+            return scan();
+        }
+        int lines = 0;
+        for (Path file : changed) {
+            lines += update(file);
+        }
+        return lines;
+    }
+
+    /**
+     * Brings one file up to date and returns the number of lines delivered from it.
+     */
+    int update(Path file) throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            // Deleted or renamed away; a rename shows up as a create of the new name
+            return 0;
+        }
+        if (!attributes.isRegularFile() || !filter.test(file)) {
+            return 0;
+        }
+        String fileKey = Objects.toString(attributes.fileKey(), null);
+        FileState state = files.get(file);
+        if (state != null && state.fileKey != null && !state.fileKey.equals(fileKey)) {
+            // Replaced, typically by rotation; the old file may reappear under a new name
+            log.debug("{} was replaced, reading from the start", file);
+            files.remove(file);
+            replaced.put(state.fileKey, state);
+            state = null;
+        }
+        if (state == null) {
+            state = adopt(fileKey);
+            files.put(file, state);
+        }
+        state.fileKey = fileKey;
+        if (attributes.size() < state.offset) {
+            log.debug("{} was truncated from {} to {} bytes", file, state.offset, attributes.size());
+            state.restart();
+        }
+        return attributes.size() > state.offset ? readFrom(file, state) : 0;
+    }
+
+    /**
+     * State for a newly seen file: the state of the same file under its old name if it was
+     * renamed, otherwise a fresh state at offset 0.
+     */
+    private FileState adopt(String fileKey) throws IOException {
+        if (fileKey == null) {
+            return new FileState(0, null, 0, 0);
+        }
+        FileState state = replaced.remove(fileKey);
+        if (state != null) {
+            return state;
+        }
+        for (Iterator<Map.Entry<Path, FileState>> it = files.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Path, FileState> entry = it.next();
+            if (fileKey.equals(entry.getValue().fileKey) && !fileKeyMatches(entry.getKey(), fileKey)) {
+                it.remove();
+                return entry.getValue();
+            }
+        }
+        return new FileState(0, fileKey, 0, 0);
+    }
+
+    private static boolean fileKeyMatches(Path file, String fileKey) throws IOException {
+        try {
+            return fileKey.equals(Objects.toString(Files.readAttributes(file, BasicFileAttributes.class).fileKey(), null));
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    private int readFrom(Path file, FileState state) throws IOException {
+        int lines = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (state.headBytes > 0 && headHash(channel, state.headBytes) != state.headHash) {
+                log.debug("{} no longer starts with the bytes read from it, reading from the start", file);
+                state.restart();
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+            byte[] bytes = buffer.array();
+            long position = state.offset;
+            channel.position(position);
+            while (channel.read(buffer) > 0) {
+                int end = buffer.position();
+                int lineStart = 0;
+                for (int i = 0; i < end; i++) {
+                    if (bytes[i] == '\n') {
+                        int lineEnd = i > lineStart && bytes[i - 1] == '\r' ? i - 1 : i;
+                        handler.onLine(file, position,
+                            new String(bytes, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8));
+                        position += i + 1 - lineStart;
+                        state.offset = position;
+                        lineStart = i + 1;
+                        lines++;
+                    }
+                }
+                if (lineStart == 0 && end == bytes.length) {
+                    // A line longer than the buffer: grow it and keep reading
+                    buffer = ByteBuffer.allocate(bytes.length * 2).put(bytes, 0, end);
+                    bytes = buffer.array();
+                } else {
+                    buffer.position(lineStart);
+                    buffer.limit(end);
+                    buffer.compact();
+                }
+            }
+            int headBytes = (int) Math.min(state.offset, FINGERPRINT_BYTES);
+            if (headBytes > state.headBytes) {
+                state.headHash = headHash(channel, headBytes);
+                state.headBytes = headBytes;
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * CRC32C of the first {@code length} bytes, or -1 if the file is shorter, which no CRC32C
+     * equals.
+     */
+    private static long headHash(FileChannel channel, int length) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(length);
+        while (head.hasRemaining()) {
+            if (channel.read(head, head.position()) < 0) {
+                return -1;
+            }
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(head.flip());
+        return crc.getValue();
+    }
+}
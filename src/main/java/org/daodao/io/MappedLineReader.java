@@ -0,0 +1,239 @@
+package org.daodao.io;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.*;
+import java.util.stream.*;
+
+/**
+ * Line reader backed by {@link FileChannel#map}. Lines are split straight from the mapped
+ * bytes and numbered from 1, so no {@code BufferedReader} or per-line decoding is needed
+ * unless the caller asks for a {@code String}.
+ *
+ * <p>The file is mapped in windows (1 GB by default) so inputs larger than 2 GB can be read.
+ * A line must fit into a single window. Lines end at {@code '\n'}; a trailing {@code '\r'}
+ * is stripped, which covers both Unix and Windows line endings. Because lines are split on the
+ * byte {@code 0x0A}, only charsets that encode ASCII as the same single bytes are accepted.
+ */
+@Slf4j
+public final class MappedLineReader implements AutoCloseable {
+
+    static final long DEFAULT_WINDOW_SIZE = 1L << 30;
+
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+    private static final String ASCII_PROBE = "\r\n" + IntStream.rangeClosed(' ', '~')
+        .mapToObj(Character::toString)
+        .collect(Collectors.joining());
+
+    private final FileChannel channel;
+    private final long size;
+    private final long windowSize;
+    private final Charset charset;
+
+    /**
+     * Callback receiving each line as a slice of the mapped buffer. The buffer is only valid
+     * for the duration of the call.
+     */
+    @FunctionalInterface
+    public interface LineVisitor {
+        void visit(long lineNumber, ByteBuffer buffer, int offset, int length);
+    }
+
+    /**
+     * A decoded line together with its 1-based line number.
+     */
+    public record NumberedLine(long number, String content) {}
+
+    private MappedLineReader(FileChannel channel, long windowSize, Charset charset) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+        this.windowSize = windowSize;
+        this.charset = charset;
+    }
+
+    public static MappedLineReader open(Path path) throws IOException {
+        return open(path, StandardCharsets.UTF_8, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code charset} does not encode ASCII as single bytes,
+     *                                  as UTF-16 and UTF-32 do not
+     */
+    public static MappedLineReader open(Path path, Charset charset) throws IOException {
+        return open(path, charset, DEFAULT_WINDOW_SIZE);
+    }
+
+    static MappedLineReader open(Path path, Charset charset, long windowSize) throws IOException {
+        if (windowSize <= 0 || windowSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Window size must be in (0, " + Integer.MAX_VALUE + "]: " + windowSize);
+        }
+        requireAsciiCompatible(charset);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new MappedLineReader(channel, windowSize, charset);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static void requireAsciiCompatible(Charset charset) {
+        Objects.requireNonNull(charset, "charset");
+        if (!charset.canEncode()
+            || !Arrays.equals(ASCII_PROBE.getBytes(charset), ASCII_PROBE.getBytes(StandardCharsets.US_ASCII))) {
+            throw new IllegalArgumentException("Charset must encode ASCII as single bytes: " + charset);
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Visits every line without decoding it. Returns the number of lines visited.
+     */
+    public long forEachLine(LineVisitor visitor) throws IOException {
+        Cursor cursor = new Cursor();
+        while (cursor.next()) {
+            visitor.visit(cursor.lineNumber, cursor.window, cursor.lineOffset, cursor.lineLength);
+        }
+        return cursor.lineNumber;
+    }
+
+    /**
+     * Lazily decoded lines, equivalent to {@link Files#lines(Path, Charset)}.
+     */
+    public Stream<String> lines() {
+        return stream(cursor -> cursor.decode());
+    }
+
+    /**
+     * Lazily decoded lines with their 1-based line numbers.
+     */
+    public Stream<NumberedLine> numberedLines() {
+        return stream(cursor -> new NumberedLine(cursor.lineNumber, cursor.decode()));
+    }
+
+    private <T> Stream<T> stream(Function<Cursor, T> mapper) {
+        Cursor cursor = new Cursor();
+        Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                boolean advanced;
+                try {
+                    advanced = cursor.next();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (advanced) {
+                    action.accept(mapper.apply(cursor));
+                }
+                return advanced;
+            }
+        };
+        return StreamSupport.stream(spliterator, false).onClose(this::closeQuietly);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            log.warn("Failed to close mapped file channel", e);
+        }
+    }
+
+    /**
+     * Finds the next {@code '\n'} in {@code [from, to)}, eight bytes at a time. Returns -1 if
+     * there is none.
+     */
+    static int indexOfNewline(ByteBuffer buffer, int from, int to) {
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            long word = buffer.getLong(i) ^ 0x0A0A0A0A0A0A0A0AL;
+            long found = (word - 0x0101010101010101L) & ~word & 0x8080808080808080L;
+            if (found != 0) {
+                return i + (Long.numberOfTrailingZeros(found) >>> 3);
+            }
+        }
+        for (; i < to; i++) {
+            if (buffer.get(i) == LF) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Pull-style position over the mapped windows, shared by the visitor and stream paths.
+     */
+    private final class Cursor {
+        private ByteBuffer window;
+        private long windowStart;
+        private int position;
+        private long lineNumber;
+        private int lineOffset;
+        private int lineLength;
+
+        boolean next() throws IOException {
+            while (true) {
+                long absolute = window == null ? 0 : windowStart + position;
+                if (absolute >= size) {
+                    return false;
+                }
+                if (window == null || position >= window.limit()) {
+                    map(absolute);
+                }
+                int end = indexOfNewline(window, position, window.limit());
+                if (end < 0) {
+                    if (windowStart + window.limit() < size) {
+                        if (position == 0) {
+                            throw new IOException("Line " + (lineNumber + 1) + " is longer than the mapping window of "
+                                    + windowSize + " bytes");
+                        }
+                        map(absolute);
+                        continue;
+                    }
+                    end = window.limit();
+                }
+                emit(position, end);
+                position = end + 1;
+                return true;
+            }
+        }
+
+        private void map(long offset) throws IOException {
+            long length = Math.min(windowSize, size - offset);
+            window = channel.map(FileChannel.MapMode.READ_ONLY, offset, length).order(ByteOrder.LITTLE_ENDIAN);
+            windowStart = offset;
+            position = 0;
+        }
+
+        private void emit(int start, int end) {
+            if (end > start && window.get(end - 1) == CR) {
+                end--;
+            }
+            lineNumber++;
+            lineOffset = start;
+            lineLength = end - start;
+        }
+
+        String decode() {
+            byte[] bytes = new byte[lineLength];
+            window.get(lineOffset, bytes);
+            return new String(bytes, charset);
+        }
+    }
+}
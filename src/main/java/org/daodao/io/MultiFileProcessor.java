@@ -0,0 +1,156 @@
+package org.daodao.io;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.file.*;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+/**
+ * Processes many files concurrently, one virtual thread per file. A semaphore caps how many
+ * files are open at the same time, so large batches keep the disk busy without running out of
+ * file descriptors.
+ *
+ * <p>{@link #process} keeps going past failures and folds results in completion order.
+ * {@link #processFailFast} runs the batch in a {@code StructuredTaskScope.ShutdownOnFailure}
+ * instead, so the first failure or the deadline cancels every sibling task.
+ */
+@Slf4j
+public final class MultiFileProcessor {
+
+    private final int maxOpenFiles;
+
+    /**
+     * Work done for one file while it holds an open-file permit. Tasks run on virtual threads
+     * and may block.
+     */
+    @FunctionalInterface
+    public interface FileTask<R> {
+        R process(Path file) throws IOException, InterruptedException;
+    }
+
+    /**
+     * Outcome of a batch: the folded value, the number of files that succeeded and the
+     * failure of every file that did not.
+     */
+    public record Result<A>(A value, int succeeded, Map<Path, Exception> failures) {
+        public boolean hasFailures() {
+            return !failures.isEmpty();
+        }
+    }
+
+    private record Outcome<R>(Path file, R value, Throwable failure) {}
+
+    public MultiFileProcessor(int maxOpenFiles) {
+        if (maxOpenFiles < 1) {
+            throw new IllegalArgumentException("maxOpenFiles must be positive: " + maxOpenFiles);
+        }
+        this.maxOpenFiles = maxOpenFiles;
+    }
+
+    public int maxOpenFiles() {
+        return maxOpenFiles;
+    }
+
+    /**
+     * Runs {@code task} for every file and folds each result into {@code identity} with
+     * {@code accumulator} as soon as it completes. The accumulator only ever runs on the calling
+     * thread. A file failing with an exception is recorded in {@link Result#failures()} and does
+     * not stop the batch; an {@link Error} interrupts the other tasks and is rethrown.
+     */
+    public <R, A> Result<A> process(Collection<Path> files, FileTask<? extends R> task, A identity,
+                                    BiFunction<A, ? super R, A> accumulator) throws InterruptedException {
+        Semaphore permits = new Semaphore(maxOpenFiles);
+        BlockingQueue<Outcome<R>> completed = new LinkedBlockingQueue<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Path file : files) {
+                executor.execute(() -> completed.add(run(file, task, permits)));
+            }
+
+            A value = identity;
+            int succeeded = 0;
+            Map<Path, Exception> failures = new LinkedHashMap<>();
+            try {
+                for (int remaining = files.size(); remaining > 0; remaining--) {
+                    Outcome<R> outcome = completed.take();
+                    if (outcome.failure() == null) {
+                        value = accumulator.apply(value, outcome.value());
+                        succeeded++;
+                    } else if (outcome.failure() instanceof Exception failure) {
+                        log.warn("Error processing file: {}", outcome.file(), failure);
+                        failures.put(outcome.file(), failure);
+                    } else {
+                        executor.shutdownNow();
+                        throw (Error) outcome.failure();
+                    }
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                throw e;
+            }
+            return new Result<>(value, succeeded, Collections.unmodifiableMap(failures));
+        }
+    }
+
+    /**
+     * Runs {@code task} for every file and folds the results in input order, or fails as a whole.
+     * The first failing file, or reaching {@code deadline}, interrupts all other tasks: files
+     * waiting for a permit never open, and interruptible channel I/O in flight is aborted.
+     *
+     * @throws ExecutionException wrapping the first failure
+     * @throws TimeoutException if the batch did not finish before {@code deadline}
+     */
+    public <R, A> A processFailFast(Collection<Path> files, FileTask<? extends R> task, A identity,
+                                    BiFunction<A, ? super R, A> accumulator, Instant deadline)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        Semaphore permits = new Semaphore(maxOpenFiles);
+
+        try (var scope = new StructuredTaskScope.ShutdownOnFailure()) {
+            List<StructuredTaskScope.Subtask<? extends R>> subtasks = new ArrayList<>(files.size());
+            for (Path file : files) {
+                subtasks.add(scope.fork(() -> {
+                    permits.acquire();
+                    try {
+                        return task.process(file);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+
+            try {
+                scope.joinUntil(deadline);
+            } catch (TimeoutException e) {
+                scope.shutdown();
+                throw e;
+            }
+            scope.throwIfFailed();
+
+            A value = identity;
+            for (StructuredTaskScope.Subtask<? extends R> subtask : subtasks) {
+                value = accumulator.apply(value, subtask.get());
+            }
+            return value;
+        }
+    }
+
+    private static <R> Outcome<R> run(Path file, FileTask<? extends R> task, Semaphore permits) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Outcome<>(file, null, e);
+        }
+        try {
+            return new Outcome<>(file, task.process(file), null);
+        } catch (Throwable e) {
+            return new Outcome<>(file, null, e);
+        } finally {
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package org.daodao.json;
+
+import java.io.IOException;
+
+/**
+ * Malformed JSON input, with the absolute byte offset where it was detected.
+ */
+public class JsonParseException extends IOException {
+
+    private final long offset;
+
+    public JsonParseException(String message, long offset) {
+        super(message + " at byte " + offset);
+        this.offset = offset;
+    }
+
+    public long offset() {
+        return offset;
+    }
+}
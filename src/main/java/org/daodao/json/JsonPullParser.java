@@ -0,0 +1,540 @@
+package org.daodao.json;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Pull-style JSON tokenizer over a channel, read in fixed-size windows.
+ *
+ * <p>String, field-name and number tokens are not copied: {@link #tokenBuffer()},
+ * {@link #tokenOffset()} and {@link #tokenLength()} locate their raw UTF-8 bytes (without quotes,
+ * escapes still encoded) inside the current window until the next call to {@link #next()}.
+ * Memory is bounded by the window size and nesting depth, not by the document size; the window
+ * only grows when a single token is larger than it.
+ *
+ * <p>A sequence of top-level values, such as JSON Lines, is accepted.
+ */
+public final class JsonPullParser implements Closeable {
+
+    static final int DEFAULT_WINDOW_SIZE = 64 * 1024;
+
+    private static final byte OBJECT = 1;
+    private static final byte ARRAY = 2;
+
+    private final ReadableByteChannel channel;
+    private byte[] window;
+    private ByteBuffer windowBuffer;
+    private int position;
+    private int limit;
+    private long windowStart;
+    private boolean eof;
+
+    private byte[] stack = new byte[16];
+    private int depth;
+    private boolean needComma;
+    private boolean afterName;
+
+    private JsonToken token;
+    private int tokenOffset;
+    private int tokenLength;
+    private boolean tokenEscaped;
+    private long tokenPosition;
+
+    public JsonPullParser(ReadableByteChannel channel) {
+        this(channel, DEFAULT_WINDOW_SIZE);
+    }
+
+    public JsonPullParser(ReadableByteChannel channel, int windowSize) {
+        if (windowSize < 8) {
+            throw new IllegalArgumentException("Window size must be at least 8 bytes: " + windowSize);
+        }
+        this.channel = Objects.requireNonNull(channel, "channel");
+        this.window = new byte[windowSize];
+        this.windowBuffer = ByteBuffer.wrap(window);
+    }
+
+    /**
+     * Parser over the remaining bytes of {@code buffer}, for example a mapped file.
+     */
+    public static JsonPullParser of(ByteBuffer buffer) {
+        return of(buffer, DEFAULT_WINDOW_SIZE);
+    }
+
+    public static JsonPullParser of(ByteBuffer buffer, int windowSize) {
+        ByteBuffer source = buffer.duplicate();
+        return new JsonPullParser(new ReadableByteChannel() {
+            private boolean open = true;
+
+            @Override
+            public int read(ByteBuffer dst) {
+                if (!source.hasRemaining()) {
+                    return -1;
+                }
+                int count = Math.min(dst.remaining(), source.remaining());
+                dst.put(dst.position(), source, source.position(), count);
+                dst.position(dst.position() + count);
+                source.position(source.position() + count);
+                return count;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return open;
+            }
+
+            @Override
+            public void close() {
+                open = false;
+            }
+        }, windowSize);
+    }
+
+    /**
+     * Advances to the next token. Returns {@link JsonToken#END_DOCUMENT} once the input is exhausted.
+     */
+    public JsonToken next() throws IOException {
+        skipWhitespace();
+        if (position == limit) {
+            if (depth > 0 || afterName) {
+                throw error("Unexpected end of input");
+            }
+            return emit(JsonToken.END_DOCUMENT, position, 0);
+        }
+        byte c = window[position];
+
+        if (depth > 0 && !afterName) {
+            byte container = stack[depth - 1];
+            if ((c == '}' && container == OBJECT) || (c == ']' && container == ARRAY)) {
+                position++;
+                depth--;
+                needComma = true;
+                return emit(container == OBJECT ? JsonToken.END_OBJECT : JsonToken.END_ARRAY, position - 1, 1);
+            }
+            if (needComma) {
+                if (c != ',') {
+                    throw error("Expected ',' but found '" + (char) c + "'");
+                }
+                position++;
+                c = peekAfterWhitespace();
+            }
+            if (container == OBJECT) {
+                if (c != '"') {
+                    throw error("Expected field name but found '" + (char) c + "'");
+                }
+                readString();
+                afterName = true;
+                token = JsonToken.FIELD_NAME;
+                return token;
+            }
+        }
+        if (afterName) {
+            if (c != ':') {
+                throw error("Expected ':' but found '" + (char) c + "'");
+            }
+            position++;
+            c = peekAfterWhitespace();
+            afterName = false;
+        }
+        return readValue(c);
+    }
+
+    private JsonToken readValue(byte c) throws IOException {
+        needComma = true;
+        switch (c) {
+            case '{' -> {
+                push(OBJECT);
+                return emit(JsonToken.START_OBJECT, position++, 1);
+            }
+            case '[' -> {
+                push(ARRAY);
+                return emit(JsonToken.START_ARRAY, position++, 1);
+            }
+            case '"' -> {
+                readString();
+                token = JsonToken.STRING;
+                return token;
+            }
+            case 't' -> {
+                return readLiteral("true", JsonToken.TRUE);
+            }
+            case 'f' -> {
+                return readLiteral("false", JsonToken.FALSE);
+            }
+            case 'n' -> {
+                return readLiteral("null", JsonToken.NULL);
+            }
+            default -> {
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return readNumber();
+                }
+                throw error("Unexpected character '" + (char) c + "'");
+            }
+        }
+    }
+
+    private void push(byte container) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth++] = container;
+        needComma = false;
+    }
+
+    private JsonToken emit(JsonToken type, int offset, int length) {
+        token = type;
+        tokenOffset = offset;
+        tokenLength = length;
+        tokenEscaped = false;
+        tokenPosition = windowStart + offset;
+        return type;
+    }
+
+    private void readString() throws IOException {
+        // Opening quote is at 'position'; keep it in the window while refilling
+        int start = position;
+        int i = start + 1;
+        boolean escaped = false;
+        while (true) {
+            if (i == limit) {
+                int shift = refill(start);
+                start -= shift;
+                i -= shift;
+                if (i == limit) {
+                    throw error("Unterminated string");
+                }
+            }
+            byte b = window[i];
+            if (b == '"') {
+                break;
+            }
+            if (b == '\\') {
+                escaped = true;
+                i++;
+                if (i == limit) {
+                    int shift = refill(start);
+                    start -= shift;
+                    i -= shift;
+                    if (i == limit) {
+                        throw error("Unterminated string");
+                    }
+                }
+            } else if ((b & 0xFF) < 0x20) {
+                throw error("Control character in string");
+            }
+            i++;
+        }
+        emit(JsonToken.STRING, start + 1, i - start - 1);
+        tokenEscaped = escaped;
+        position = i + 1;
+    }
+
+    private JsonToken readNumber() throws IOException {
+        int start = position;
+        int i = start;
+        while (true) {
+            if (i == limit) {
+                int shift = refill(start);
+                start -= shift;
+                i -= shift;
+                if (i == limit) {
+                    break;
+                }
+            }
+            byte b = window[i];
+            if ((b >= '0' && b <= '9') || b == '-' || b == '+' || b == '.' || b == 'e' || b == 'E') {
+                i++;
+            } else {
+                break;
+            }
+        }
+        if (!isValidNumber(window, start, i)) {
+            position = start;
+            throw error("Malformed number '" + new String(window, start, i - start, StandardCharsets.US_ASCII) + "'");
+        }
+        position = i;
+        return emit(JsonToken.NUMBER, start, i - start);
+    }
+
+    static boolean isValidNumber(byte[] bytes, int from, int to) {
+        int i = from;
+        if (i < to && bytes[i] == '-') {
+            i++;
+        }
+        if (i == to) {
+            return false;
+        }
+        if (bytes[i] == '0') {
+            i++;
+        } else {
+            int digits = i;
+            while (i < to && bytes[i] >= '0' && bytes[i] <= '9') {
+                i++;
+            }
+            if (i == digits) {
+                return false;
+            }
+        }
+        if (i < to && bytes[i] == '.') {
+            int digits = ++i;
+            while (i < to && bytes[i] >= '0' && bytes[i] <= '9') {
+                i++;
+            }
+            if (i == digits) {
+                return false;
+            }
+        }
+        if (i < to && (bytes[i] == 'e' || bytes[i] == 'E')) {
+            i++;
+            if (i < to && (bytes[i] == '+' || bytes[i] == '-')) {
+                i++;
+            }
+            int digits = i;
+            while (i < to && bytes[i] >= '0' && bytes[i] <= '9') {
+                i++;
+            }
+            if (i == digits) {
+                return false;
+            }
+        }
+        return i == to;
+    }
+
+    private JsonToken readLiteral(String literal, JsonToken type) throws IOException {
+        int length = literal.length();
+        while (limit - position < length && !eof) {
+            refill(position);
+        }
+        if (limit - position < length) {
+            throw error("Unexpected end of input in literal");
+        }
+        for (int i = 0; i < length; i++) {
+            if (window[position + i] != literal.charAt(i)) {
+                throw error("Expected '" + literal + "'");
+            }
+        }
+        int start = position;
+        position += length;
+        return emit(type, start, length);
+    }
+
+    private void skipWhitespace() throws IOException {
+        while (true) {
+            while (position < limit) {
+                byte b = window[position];
+                if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+                    return;
+                }
+                position++;
+            }
+            if (refill(position) == 0 && position == limit) {
+                return;
+            }
+        }
+    }
+
+    private byte peekAfterWhitespace() throws IOException {
+        skipWhitespace();
+        if (position == limit) {
+            throw error("Unexpected end of input");
+        }
+        return window[position];
+    }
+
+    /**
+     * Moves {@code [keepFrom, limit)} to the front of the window and reads more input behind it.
+     * Grows the window if it is already full of bytes that must be kept. Returns how far the kept
+     * bytes moved so callers can rebase their indexes; {@code position} is rebased here.
+     */
+    private int refill(int keepFrom) throws IOException {
+        if (eof) {
+            return 0;
+        }
+        int shift = keepFrom;
+        if (shift > 0) {
+            System.arraycopy(window, keepFrom, window, 0, limit - keepFrom);
+            limit -= shift;
+            position -= shift;
+            windowStart += shift;
+        } else if (limit == window.length) {
+            window = Arrays.copyOf(window, window.length * 2);
+            windowBuffer = ByteBuffer.wrap(window);
+        }
+        windowBuffer.limit(window.length).position(limit);
+        int read;
+        do {
+            read = channel.read(windowBuffer);
+        } while (read == 0);
+        if (read < 0) {
+            eof = true;
+        } else {
+            limit += read;
+        }
+        return shift;
+    }
+
+    private JsonParseException error(String message) {
+        return new JsonParseException(message, windowStart + position);
+    }
+
+    /**
+     * Skips the children of the current {@code START_OBJECT} or {@code START_ARRAY}; afterwards the
+     * current token is the matching end token. Does nothing for other tokens.
+     */
+    public void skipChildren() throws IOException {
+        if (token != JsonToken.START_OBJECT && token != JsonToken.START_ARRAY) {
+            return;
+        }
+        int target = depth - 1;
+        while (depth > target) {
+            if (next() == JsonToken.END_DOCUMENT) {
+                throw error("Unexpected end of input");
+            }
+        }
+    }
+
+    public JsonToken currentToken() {
+        return token;
+    }
+
+    /**
+     * Current nesting depth; 0 at top level.
+     */
+    public int depth() {
+        return depth;
+    }
+
+    /**
+     * The window holding the current token's bytes. Only valid until the next call to {@link #next()}.
+     */
+    public byte[] tokenBuffer() {
+        return window;
+    }
+
+    public int tokenOffset() {
+        return tokenOffset;
+    }
+
+    public int tokenLength() {
+        return tokenLength;
+    }
+
+    /**
+     * Absolute byte offset of the current token in the input.
+     */
+    public long tokenPosition() {
+        return tokenPosition;
+    }
+
+    /**
+     * Whether the current string or field name contains escape sequences, in which case its raw
+     * bytes differ from its value.
+     */
+    public boolean hasEscapes() {
+        return tokenEscaped;
+    }
+
+    /**
+     * Compares the raw bytes of the current token with {@code expected} without allocating.
+     */
+    public boolean tokenEquals(byte[] expected) {
+        return Arrays.equals(window, tokenOffset, tokenOffset + tokenLength, expected, 0, expected.length);
+    }
+
+    /**
+     * The decoded value of the current string or field name. Allocates.
+     */
+    public String stringValue() throws JsonParseException {
+        if (!tokenEscaped) {
+            return new String(window, tokenOffset, tokenLength, StandardCharsets.UTF_8);
+        }
+        return unescape(window, tokenOffset, tokenOffset + tokenLength, tokenPosition);
+    }
+
+    /**
+     * The current number as a {@code long}, parsed from the raw bytes without allocating.
+     *
+     * @throws NumberFormatException if the number has a fraction or exponent, or overflows
+     */
+    public long longValue() {
+        if (token != JsonToken.NUMBER) {
+            throw new IllegalStateException("Current token is not a number: " + token);
+        }
+        int i = tokenOffset;
+        int end = tokenOffset + tokenLength;
+        boolean negative = window[i] == '-';
+        if (negative) {
+            i++;
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            byte b = window[i];
+            if (b < '0' || b > '9') {
+                throw new NumberFormatException("Not an integer: " + numberText());
+            }
+            value = Math.subtractExact(Math.multiplyExact(value, 10), b - '0');
+        }
+        return negative ? value : Math.negateExact(value);
+    }
+
+    public double doubleValue() {
+        if (token != JsonToken.NUMBER) {
+            throw new IllegalStateException("Current token is not a number: " + token);
+        }
+        return Double.parseDouble(numberText());
+    }
+
+    private String numberText() {
+        return new String(window, tokenOffset, tokenLength, StandardCharsets.US_ASCII);
+    }
+
+    static String unescape(byte[] bytes, int from, int to, long position) throws JsonParseException {
+        ByteArrayOutputStream utf8 = new ByteArrayOutputStream(to - from);
+        StringBuilder result = new StringBuilder(to - from);
+        int i = from;
+        while (i < to) {
+            byte b = bytes[i];
+            if (b != '\\') {
+                utf8.write(b);
+                i++;
+                continue;
+            }
+            // Flush pending raw bytes before appending the escaped character
+            result.append(utf8.toString(StandardCharsets.UTF_8));
+            utf8.reset();
+            if (i + 1 >= to) {
+                throw new JsonParseException("Dangling escape", position + i - from);
+            }
+            char escaped = (char) bytes[i + 1];
+            i += 2;
+            switch (escaped) {
+                case '"', '\\', '/' -> result.append(escaped);
+                case 'b' -> result.append('\b');
+                case 'f' -> result.append('\f');
+                case 'n' -> result.append('\n');
+                case 'r' -> result.append('\r');
+                case 't' -> result.append('\t');
+                case 'u' -> {
+                    if (i + 4 > to) {
+                        throw new JsonParseException("Truncated unicode escape", position + i - from);
+                    }
+                    try {
+                        result.append((char) Integer.parseInt(new String(bytes, i, 4, StandardCharsets.US_ASCII), 16));
+                    } catch (NumberFormatException e) {
+                        throw new JsonParseException("Malformed unicode escape", position + i - from);
+                    }
+                    i += 4;
+                }
+                default -> throw new JsonParseException("Unknown escape '\\" + escaped + "'", position + i - from);
+            }
+        }
+        return result.append(utf8.toString(StandardCharsets.UTF_8)).toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
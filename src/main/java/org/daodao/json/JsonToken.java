@@ -0,0 +1,25 @@
+package org.daodao.json;
+
+/**
+ * Tokens reported by {@link JsonPullParser}.
+ */
+public enum JsonToken {
+    START_OBJECT,
+    END_OBJECT,
+    START_ARRAY,
+    END_ARRAY,
+    FIELD_NAME,
+    STRING,
+    NUMBER,
+    TRUE,
+    FALSE,
+    NULL,
+    END_DOCUMENT;
+
+    public boolean isScalar() {
+        return switch (this) {
+            case STRING, NUMBER, TRUE, FALSE, NULL -> true;
+            default -> false;
+        };
+    }
+}
@@ -0,0 +1,107 @@
+package org.daodao.load;
+
+import java.util.concurrent.atomic.*;
+
+/**
+ * Histogram of latencies in nanoseconds with log-linear buckets: values below 128 each get their
+ * own bucket, and every power-of-two range above is split into 64 equal buckets. Any recorded
+ * value is reported within 1/64 (about 1.6%) of itself, from nanoseconds to centuries, in a fixed
+ * 3712-bucket table.
+ *
+ * <p>Recording is lock-free and safe from any number of threads. Percentiles report the highest
+ * value of the bucket they fall in, capped at the largest value recorded, so they never
+ * understate a latency.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 7;
+    private static final int LINEAR = 1 << SUB_BITS;
+    private static final int HALF = LINEAR / 2;
+    private static final int BUCKETS = (Long.SIZE - SUB_BITS + 1) * HALF;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * @throws IllegalArgumentException if {@code nanos} is negative
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            throw new IllegalArgumentException("Latency must not be negative: " + nanos);
+        }
+        counts.incrementAndGet(index(nanos));
+        count.increment();
+        sum.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    /**
+     * Adds every value recorded in {@code other}.
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long bucketCount = other.counts.get(i);
+            if (bucketCount != 0) {
+                counts.addAndGet(i, bucketCount);
+            }
+        }
+        count.add(other.count.sum());
+        sum.add(other.sum.sum());
+        max.accumulate(other.max.get());
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long maxNanos() {
+        return max.get();
+    }
+
+    public double meanNanos() {
+        long n = count();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * The latency that {@code percentile} percent of the recorded values are at or below; zero
+     * if nothing was recorded.
+     */
+    public long percentileNanos(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Percentile must be in [0, 100]: " + percentile);
+        }
+        long total = count();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestInBucket(i), maxNanos());
+            }
+        }
+        return maxNanos();
+    }
+
+    static int index(long value) {
+        if (value < LINEAR) {
+            return (int) value;
+        }
+        int shift = Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return shift * HALF + (int) (value >>> shift);
+    }
+
+    static long highestInBucket(int index) {
+        if (index < LINEAR) {
+            return index;
+        }
+        int shift = index / HALF - 1;
+        long sub = index - (long) shift * HALF;
+        return ((sub + 1) << shift) - 1;
+    }
+}
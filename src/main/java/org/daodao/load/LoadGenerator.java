@@ -0,0 +1,209 @@
+package org.daodao.load;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator: issues requests at a target rate on a fixed schedule, whether or not
+ * earlier requests have completed, each on its own virtual thread.
+ *
+ * <p>Each request's latency is measured from its <em>intended</em> send time on the schedule, not
+ * from when it actually started. If the system under test stalls, requests that should have been
+ * sent during the stall are charged for the time they waited, so the histogram shows what a client
+ * arriving at that rate would have seen. This corrects for coordinated omission, which makes
+ * closed-loop benchmarks hide stalls. The same holds when {@linkplain Builder#maxOutstanding
+ * outstanding requests are capped}: the schedule waits for a free slot, but the wait is charged
+ * to the latency.
+ */
+public final class LoadGenerator {
+
+    /**
+     * Arrival process of the requests.
+     */
+    public enum Schedule {
+        /**
+         * Evenly spaced arrivals.
+         */
+        CONSTANT,
+        /**
+         * Exponentially distributed gaps with the same mean, as from many independent clients.
+         */
+        POISSON
+    }
+
+    /**
+     * The work of one request. Throwing counts the request as an error.
+     */
+    @FunctionalInterface
+    public interface Task {
+        void run(long sequence) throws Exception;
+    }
+
+    /**
+     * Outcome of one run at a target rate. Latencies are of successful requests only.
+     */
+    public record Result(double targetRate, long sent, long errors, Duration elapsed, LatencyHistogram latencies) {
+
+        public double achievedRate() {
+            return elapsed.isZero() ? 0 : latencies.count() / (elapsed.toNanos() / 1e9);
+        }
+    }
+
+    private final Schedule schedule;
+    private final Duration duration;
+    private final Duration warmup;
+    private final int maxOutstanding;
+    private final long seed;
+
+    private LoadGenerator(Builder builder) {
+        this.schedule = builder.schedule;
+        this.duration = builder.duration;
+        this.warmup = builder.warmup;
+        this.maxOutstanding = builder.maxOutstanding;
+        this.seed = builder.seed;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Runs {@code task} at {@code ratePerSecond} for the warmup, whose results are dropped, then
+     * for the measured duration, and waits for every request to finish.
+     */
+    public Result run(double ratePerSecond, Task task) throws InterruptedException {
+        if (!(ratePerSecond > 0)) {
+            throw new IllegalArgumentException("Rate must be positive: " + ratePerSecond);
+        }
+        if (!warmup.isZero()) {
+            drive(ratePerSecond, warmup, task);
+        }
+        return drive(ratePerSecond, duration, task);
+    }
+
+    /**
+     * Runs each of {@code ratesPerSecond} in turn.
+     */
+    public List<Result> sweep(double[] ratesPerSecond, Task task) throws InterruptedException {
+        List<Result> results = new ArrayList<>(ratesPerSecond.length);
+        for (double rate : ratesPerSecond) {
+            results.add(run(rate, task));
+        }
+        return results;
+    }
+
+    /**
+     * A fixed-width table of the results, latencies in milliseconds.
+     */
+    public static String report(List<Result> results) {
+        StringBuilder report = new StringBuilder(String.format("%10s %10s %8s %6s %9s %9s %9s %9s%n",
+            "target/s", "actual/s", "sent", "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (Result result : results) {
+            LatencyHistogram latencies = result.latencies();
+            report.append(String.format("%10.0f %10.0f %8d %6d %9.3f %9.3f %9.3f %9.3f%n",
+                result.targetRate(), result.achievedRate(), result.sent(), result.errors(),
+                millis(latencies.percentileNanos(50)), millis(latencies.percentileNanos(99)),
+                millis(latencies.percentileNanos(99.9)), millis(latencies.maxNanos())));
+        }
+        return report.toString();
+    }
+
+    private Result drive(double ratePerSecond, Duration length, Task task) throws InterruptedException {
+        SplittableRandom random = new SplittableRandom(seed);
+        double meanGapNanos = 1e9 / ratePerSecond;
+        LatencyHistogram latencies = new LatencyHistogram();
+        AtomicLong errors = new AtomicLong();
+        Semaphore slots = new Semaphore(maxOutstanding);
+        long sent = 0;
+        long start = System.nanoTime();
+        long end = start + length.toNanos();
+        double offset = 0;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long intended = start; intended - end < 0; intended = start + (long) offset) {
+                long delay = intended - System.nanoTime();
+                if (delay > 0) {
+                    LockSupport.parkNanos(delay);
+                }
+                slots.acquire();
+                long sequence = sent++;
+                long sendTime = intended;
+                executor.execute(() -> {
+                    try {
+                        task.run(sequence);
+                        latencies.record(Math.max(0, System.nanoTime() - sendTime));
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    } finally {
+                        slots.release();
+                    }
+                });
+                offset += schedule == Schedule.POISSON ? random.nextExponential() * meanGapNanos : meanGapNanos;
+            }
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        return new Result(ratePerSecond, sent, errors.get(), elapsed, latencies);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    public static final class Builder {
+        private Schedule schedule = Schedule.CONSTANT;
+        private Duration duration = Duration.ofSeconds(10);
+        private Duration warmup = Duration.ZERO;
+        private int maxOutstanding = 100_000;
+        private long seed = 42;
+
+        private Builder() {
+        }
+
+        public Builder schedule(Schedule schedule) {
+            this.schedule = Objects.requireNonNull(schedule, "schedule");
+            return this;
+        }
+
+        public Builder duration(Duration duration) {
+            if (duration.isNegative() || duration.isZero()) {
+                throw new IllegalArgumentException("Duration must be positive: " + duration);
+            }
+            this.duration = duration;
+            return this;
+        }
+
+        public Builder warmup(Duration warmup) {
+            if (warmup.isNegative()) {
+                throw new IllegalArgumentException("Warmup must not be negative: " + warmup);
+            }
+            this.warmup = warmup;
+            return this;
+        }
+
+        /**
+         * Most requests in flight at once, to bound memory when the system under test stops
+         * responding; 100 000 by default.
+         */
+        public Builder maxOutstanding(int maxOutstanding) {
+            if (maxOutstanding <= 0) {
+                throw new IllegalArgumentException("Max outstanding must be positive: " + maxOutstanding);
+            }
+            this.maxOutstanding = maxOutstanding;
+            return this;
+        }
+
+        /**
+         * Seed of the Poisson arrival gaps.
+         */
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public LoadGenerator build() {
+            return new LoadGenerator(this);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.daodao.processor;
+
+import org.daodao.service.FaultInjector;
+
+import java.io.*;
+import java.nio.channels.*;
+import java.util.Objects;
+
+/**
+ * Decorates another {@link FileProcessor} with the latency and failures of a {@link FaultInjector}.
+ * Faults are injected before the delegate runs, once per call. On the streaming path an injected
+ * timeout or interruption is thrown as the {@link IOException} it wraps, as a stalled channel
+ * would throw it.
+ */
+public final class FaultInjectingProcessor implements FileProcessor {
+
+    private final FileProcessor delegate;
+    private final FaultInjector faults;
+
+    public FaultInjectingProcessor(FileProcessor delegate, FaultInjector faults) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.faults = Objects.requireNonNull(faults, "faults");
+    }
+
+    @Override
+    public String process(String content) {
+        faults.inject();
+        return delegate.process(content);
+    }
+
+    @Override
+    public long process(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+        try {
+            faults.inject();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return delegate.process(in, out);
+    }
+
+    public FaultInjector faults() {
+        return faults;
+    }
+}
@@ -0,0 +1,18 @@
+package org.daodao.processor;
+
+import java.io.*;
+import java.nio.channels.*;
+
+/**
+ * Sealed hierarchy of whole-file content processors. Each processor has an in-memory path and
+ * a streaming path whose memory use does not depend on the input size.
+ */
+public sealed interface FileProcessor permits TextProcessor, JsonProcessor, FaultInjectingProcessor {
+
+    String process(String content);
+
+    /**
+     * Streams the processed form of {@code in} to {@code out}. Returns the number of bytes written.
+     */
+    long process(ReadableByteChannel in, WritableByteChannel out) throws IOException;
+}
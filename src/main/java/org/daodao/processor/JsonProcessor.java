@@ -0,0 +1,107 @@
+package org.daodao.processor;
+
+import org.daodao.json.*;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Flattens JSON content onto one line.
+ *
+ * <p>The in-memory {@link #process(String)} path joins lines. The streaming
+ * {@link #process(ReadableByteChannel, WritableByteChannel)} path runs the document through a
+ * {@link JsonPullParser} and writes it back minified, so memory stays constant for documents
+ * of any size.
+ */
+public final class JsonProcessor implements FileProcessor {
+
+    static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+    private static final byte[] PREFIX = "JSON: ".getBytes(StandardCharsets.US_ASCII);
+
+    @Override
+    public String process(String content) {
+        return "JSON: " + content.replace("\n", " ").trim();
+    }
+
+    /**
+     * Streams {@code in} to {@code out} as {@code "JSON: "} followed by the minified document.
+     * Multiple top-level values are written one per line. Returns the number of bytes written.
+     */
+    @Override
+    public long process(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+        JsonPullParser parser = new JsonPullParser(in);
+        ByteBuffer buffer = ByteBuffer.allocate(OUTPUT_BUFFER_SIZE);
+        long written = 0;
+        buffer.put(PREFIX);
+        boolean needComma = false;
+        boolean first = true;
+
+        for (JsonToken token = parser.next(); token != JsonToken.END_DOCUMENT; token = parser.next()) {
+            if (token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY) {
+                written += put(buffer, out, token == JsonToken.END_OBJECT ? (byte) '}' : (byte) ']');
+                needComma = true;
+                continue;
+            }
+            boolean topLevel = parser.depth() == (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY ? 1 : 0);
+            if (topLevel && !first) {
+                written += put(buffer, out, (byte) '\n');
+            } else if (needComma) {
+                written += put(buffer, out, (byte) ',');
+            }
+            first = false;
+            switch (token) {
+                case START_OBJECT -> written += put(buffer, out, (byte) '{');
+                case START_ARRAY -> written += put(buffer, out, (byte) '[');
+                case FIELD_NAME, STRING -> {
+                    written += put(buffer, out, (byte) '"');
+                    written += put(buffer, out, parser.tokenBuffer(), parser.tokenOffset(), parser.tokenLength());
+                    written += put(buffer, out, (byte) '"');
+                    if (token == JsonToken.FIELD_NAME) {
+                        written += put(buffer, out, (byte) ':');
+                    }
+                }
+                default -> written += put(buffer, out, parser.tokenBuffer(), parser.tokenOffset(), parser.tokenLength());
+            }
+            needComma = token != JsonToken.START_OBJECT && token != JsonToken.START_ARRAY
+                && token != JsonToken.FIELD_NAME;
+        }
+        written += PREFIX.length;
+        flush(buffer, out);
+        return written;
+    }
+
+    private static int put(ByteBuffer buffer, WritableByteChannel out, byte b) throws IOException {
+        if (!buffer.hasRemaining()) {
+            flush(buffer, out);
+        }
+        buffer.put(b);
+        return 1;
+    }
+
+    private static int put(ByteBuffer buffer, WritableByteChannel out, byte[] bytes, int offset, int length)
+            throws IOException {
+        if (length > buffer.remaining()) {
+            flush(buffer, out);
+            if (length > buffer.capacity()) {
+                ByteBuffer large = ByteBuffer.wrap(bytes, offset, length);
+                while (large.hasRemaining()) {
+                    out.write(large);
+                }
+                return length;
+            }
+        }
+        buffer.put(bytes, offset, length);
+        return length;
+    }
+
+    private static void flush(ByteBuffer buffer, WritableByteChannel out) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,165 @@
+package org.daodao.processor;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Upper-cases plain text content.
+ *
+ * <p>The streaming {@link #process(ReadableByteChannel, WritableByteChannel)} path reads UTF-8
+ * input in fixed-size chunks. ASCII bytes are mapped through a lookup table; only runs of
+ * non-ASCII bytes are decoded and passed through {@link String#toUpperCase(Locale)}. Peak memory
+ * is two chunk buffers regardless of the input size. Locale rules that change ASCII letters, such
+ * as Turkish dotted {@code 'i'}, are honoured by routing those letters through the slow path.
+ */
+public final class TextProcessor implements FileProcessor {
+
+    static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    private static final byte[] PREFIX = "Text: ".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Marks an ASCII byte whose upper-case form in this locale is not a single ASCII byte,
+     * such as {@code 'i'} in Turkish.
+     */
+    private static final byte SLOW_PATH = -1;
+
+    private final Locale locale;
+    private final int chunkSize;
+    private final byte[] upperAscii = new byte[128];
+
+    public TextProcessor() {
+        this(Locale.getDefault(), DEFAULT_CHUNK_SIZE);
+    }
+
+    public TextProcessor(Locale locale) {
+        this(locale, DEFAULT_CHUNK_SIZE);
+    }
+
+    TextProcessor(Locale locale, int chunkSize) {
+        if (chunkSize < 8) {
+            throw new IllegalArgumentException("Chunk size must be at least 8 bytes: " + chunkSize);
+        }
+        this.locale = Objects.requireNonNull(locale, "locale");
+        this.chunkSize = chunkSize;
+        for (int b = 0; b < 128; b++) {
+            String upper = String.valueOf((char) b).toUpperCase(locale);
+            upperAscii[b] = upper.length() == 1 && upper.charAt(0) < 128 ? (byte) upper.charAt(0) : SLOW_PATH;
+        }
+    }
+
+    @Override
+    public String process(String content) {
+        return "Text: " + content.toUpperCase(locale);
+    }
+
+    /**
+     * Streams {@code in} to {@code out} as {@code "Text: "} followed by the upper-cased text.
+     * Returns the number of bytes written.
+     */
+    @Override
+    public long process(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+        ByteBuffer input = ByteBuffer.allocate(chunkSize);
+        ByteBuffer output = ByteBuffer.allocate(chunkSize);
+        byte[] bytes = input.array();
+        long written = PREFIX.length;
+        output.put(PREFIX);
+
+        boolean eof = false;
+        while (!eof) {
+            eof = in.read(input) < 0;
+            input.flip();
+            int end = input.limit();
+            int i = 0;
+            while (i < end) {
+                // ASCII fast path, one table lookup per byte
+                int fastStart = i;
+                while (i < end && bytes[i] >= 0 && upperAscii[bytes[i]] != SLOW_PATH) {
+                    i++;
+                }
+                if (i > fastStart) {
+                    written += putUpperAscii(output, out, bytes, fastStart, i);
+                }
+                // Non-ASCII run, decoded and case-mapped as a whole
+                int slowStart = i;
+                while (i < end && (bytes[i] < 0 || upperAscii[bytes[i]] == SLOW_PATH)) {
+                    i++;
+                }
+                int slowEnd = i == end && !eof ? completeSequenceEnd(bytes, slowStart, end) : i;
+                if (slowEnd > slowStart) {
+                    byte[] upper = new String(bytes, slowStart, slowEnd - slowStart, StandardCharsets.UTF_8)
+                        .toUpperCase(locale)
+                        .getBytes(StandardCharsets.UTF_8);
+                    written += put(output, out, upper);
+                }
+                if (slowEnd < i) {
+                    // Keep a code point split by the chunk boundary for the next read
+                    i = slowEnd;
+                    break;
+                }
+            }
+            input.position(i);
+            input.compact();
+        }
+        flush(output, out);
+        return written;
+    }
+
+    private int putUpperAscii(ByteBuffer output, WritableByteChannel out, byte[] bytes, int from, int to)
+            throws IOException {
+        byte[] target = output.array();
+        int i = from;
+        while (i < to) {
+            if (!output.hasRemaining()) {
+                flush(output, out);
+            }
+            int position = output.position();
+            int count = Math.min(to - i, output.remaining());
+            for (int j = 0; j < count; j++) {
+                target[position + j] = upperAscii[bytes[i + j]];
+            }
+            output.position(position + count);
+            i += count;
+        }
+        return to - from;
+    }
+
+    /**
+     * End of the last complete UTF-8 sequence in {@code [from, to)}; a sequence cut off by the end
+     * of the chunk is excluded.
+     */
+    static int completeSequenceEnd(byte[] bytes, int from, int to) {
+        for (int i = to - 1; i >= Math.max(from, to - 4); i--) {
+            int b = bytes[i] & 0xFF;
+            if ((b & 0xC0) != 0x80) {
+                int length = b < 0x80 ? 1 : b >= 0xF0 ? 4 : b >= 0xE0 ? 3 : 2;
+                return i + length > to ? i : to;
+            }
+        }
+        return to;
+    }
+
+    private static int put(ByteBuffer output, WritableByteChannel out, byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!output.hasRemaining()) {
+                flush(output, out);
+            }
+            int count = Math.min(bytes.length - offset, output.remaining());
+            output.put(bytes, offset, count);
+            offset += count;
+        }
+        return bytes.length;
+    }
+
+    private static void flush(ByteBuffer output, WritableByteChannel out) throws IOException {
+        output.flip();
+        while (output.hasRemaining()) {
+            out.write(output);
+        }
+        output.clear();
+    }
+}
@@ -0,0 +1,143 @@
+package org.daodao.records;
+
+import java.lang.reflect.*;
+import java.util.*;
+
+/**
+ * Estimated heap retained by a collection of values: every distinct object reachable from the
+ * elements, counted once by identity, so shared instances such as interned records count once.
+ * The collection itself is not included.
+ *
+ * <p>Walks records (through their components), strings, boxed primitives and arrays; enum
+ * constants and {@code Class} objects are shared by the JVM and count as zero. Assumes a 64-bit
+ * JVM with compressed oops and class pointers (12-byte object headers, 16-byte array headers,
+ * 4-byte references, 8-byte alignment) and compact Latin-1 strings.
+ */
+public record HeapFootprint(long objects, long bytes) {
+
+    static final int OBJECT_HEADER = 12;
+    static final int ARRAY_HEADER = 16;
+    static final int REFERENCE = 4;
+
+    private static final ClassValue<Method[]> ACCESSORS = new ClassValue<>() {
+        @Override
+        protected Method[] computeValue(Class<?> type) {
+            RecordComponent[] components = type.getRecordComponents();
+            Method[] accessors = new Method[components.length];
+            for (int i = 0; i < components.length; i++) {
+                accessors[i] = components[i].getAccessor();
+                accessors[i].setAccessible(true);
+            }
+            return accessors;
+        }
+    };
+
+    /**
+     * @throws IllegalArgumentException if a reachable object is of a type this estimate does
+     *                                  not know how to walk
+     */
+    public static HeapFootprint of(Collection<?> values) {
+        Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Object> pending = new ArrayDeque<>();
+        long objects = 0;
+        long bytes = 0;
+        for (Object value : values) {
+            if (value != null && seen.add(value)) {
+                pending.push(value);
+            }
+        }
+        while (!pending.isEmpty()) {
+            Object value = pending.pop();
+            if (!isShared(value)) {
+                objects++;
+                bytes += shallowSize(value);
+            }
+            for (Object child : children(value)) {
+                if (child != null && !isShared(child) && seen.add(child)) {
+                    pending.push(child);
+                }
+            }
+        }
+        return new HeapFootprint(objects, bytes);
+    }
+
+    public double bytesPerValue(int values) {
+        return values == 0 ? 0 : (double) bytes / values;
+    }
+
+    private static boolean isShared(Object value) {
+        return value instanceof Enum<?> || value instanceof Class<?>;
+    }
+
+    private static long shallowSize(Object value) {
+        Class<?> type = value.getClass();
+        if (value instanceof String s) {
+            boolean latin1 = s.chars().allMatch(c -> c < 256);
+            // int hash, byte coder, boolean hashIsZero and the value array reference
+            return object(Integer.BYTES + 2 + REFERENCE) + array(s.length(), latin1 ? 1 : 2);
+        } else if (type.isArray()) {
+            Class<?> element = type.getComponentType();
+            return array(Array.getLength(value), element.isPrimitive() ? primitiveBytes(element) : REFERENCE);
+        } else if (value instanceof Record) {
+            int fields = 0;
+            for (RecordComponent component : type.getRecordComponents()) {
+                Class<?> componentType = component.getType();
+                fields += componentType.isPrimitive() ? primitiveBytes(componentType) : REFERENCE;
+            }
+            return object(fields);
+        }
+        return switch (value) {
+            case Long l -> object(Long.BYTES);
+            case Double d -> object(Double.BYTES);
+            case Integer i -> object(Integer.BYTES);
+            case Float f -> object(Float.BYTES);
+            case Short s -> object(Short.BYTES);
+            case Character c -> object(Character.BYTES);
+            case Byte b -> object(Byte.BYTES);
+            case Boolean b -> object(1);
+            default -> throw new IllegalArgumentException("Cannot estimate the size of " + type.getName());
+        };
+    }
+
+    private static List<Object> children(Object value) {
+        if (value instanceof Object[] array) {
+            return Arrays.asList(array);
+        } else if (value instanceof Record) {
+            List<Object> children = new ArrayList<>();
+            for (Method accessor : ACCESSORS.get(value.getClass())) {
+                if (!accessor.getReturnType().isPrimitive()) {
+                    try {
+                        children.add(accessor.invoke(value));
+                    } catch (ReflectiveOperationException e) {
+                        throw new IllegalStateException("Cannot read " + accessor, e);
+                    }
+                }
+            }
+            return children;
+        }
+        return List.of();
+    }
+
+    private static int primitiveBytes(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        } else if (type == int.class || type == float.class) {
+            return 4;
+        } else if (type == short.class || type == char.class) {
+            return 2;
+        }
+        return 1;
+    }
+
+    static long object(int fieldBytes) {
+        return align(OBJECT_HEADER + fieldBytes);
+    }
+
+    static long array(int length, int elementBytes) {
+        return align(ARRAY_HEADER + (long) length * elementBytes);
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
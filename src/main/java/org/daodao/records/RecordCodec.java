@@ -0,0 +1,356 @@
+package org.daodao.records;
+
+import java.lang.invoke.*;
+import java.lang.reflect.RecordComponent;
+import java.nio.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * Compact binary codec for a record type. Components are written in declaration order, with no
+ * names or type tags:
+ * <ul>
+ *   <li>{@code int}, {@code short} and {@code long}: zigzag varints; {@code char}: a varint</li>
+ *   <li>{@code byte} and {@code boolean}: one byte</li>
+ *   <li>{@code float} and {@code double}: fixed width, in the buffer's byte order</li>
+ *   <li>{@code String}: varint of the UTF-8 length plus one (zero for null), then the bytes</li>
+ *   <li>enum: varint of the ordinal plus one (zero for null)</li>
+ *   <li>nested record: a presence byte, then its own components</li>
+ * </ul>
+ *
+ * <p>Each codec is built once per record class from {@link Class#getRecordComponents()}: the
+ * component accessors and the canonical constructor become {@link MethodHandle}s, so encoding
+ * and decoding do no reflective lookups. Both ends must agree on the record's components and on
+ * the byte order. Codecs are immutable and thread-safe.
+ */
+public final class RecordCodec<T extends Record> {
+
+    private static final ClassValue<RecordCodec<?>> CODECS = new ClassValue<>() {
+        @Override
+        protected RecordCodec<?> computeValue(Class<?> type) {
+            return new RecordCodec<>(type.asSubclass(Record.class));
+        }
+    };
+
+    private final Class<T> type;
+    private final Writer[] writers;
+    private final Reader[] readers;
+    private final MethodHandle constructor;
+
+    private RecordCodec(Class<T> type) {
+        if (!type.isRecord()) {
+            throw new IllegalArgumentException("Not a record class: " + type.getName());
+        }
+        this.type = type;
+        RecordComponent[] components = type.getRecordComponents();
+        this.writers = new Writer[components.length];
+        this.readers = new Reader[components.length];
+        Class<?>[] componentTypes = new Class<?>[components.length];
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            for (int i = 0; i < components.length; i++) {
+                componentTypes[i] = components[i].getType();
+                MethodHandle accessor = lookup.unreflect(components[i].getAccessor());
+                bind(i, componentTypes[i], accessor.asType(accessor.type().changeParameterType(0, Record.class)));
+            }
+            this.constructor = lookup.findConstructor(type, methodType(void.class, componentTypes))
+                .asSpreader(Object[].class, components.length)
+                .asType(methodType(Object.class, Object[].class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Cannot access record " + type.getName(), e);
+        }
+    }
+
+    /**
+     * The codec for {@code type}, built on first use.
+     *
+     * @throws IllegalArgumentException if {@code type} is not a record, or has a component of
+     *                                  an unsupported type
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Record> RecordCodec<T> of(Class<T> type) {
+        return (RecordCodec<T>) CODECS.get(type);
+    }
+
+    public Class<T> type() {
+        return type;
+    }
+
+    /**
+     * Writes {@code value} at the buffer's position.
+     *
+     * @throws BufferOverflowException if the buffer is too small; its position is then unchanged
+     */
+    public void encode(T value, ByteBuffer out) {
+        int start = out.position();
+        try {
+            write(type.cast(Objects.requireNonNull(value, "value")), out);
+        } catch (BufferOverflowException e) {
+            out.position(start);
+            throw e;
+        }
+    }
+
+    /**
+     * Reads one value from the buffer's position.
+     *
+     * @throws BufferUnderflowException if the buffer ends inside the value
+     * @throws IllegalArgumentException if the bytes are not a valid encoding
+     */
+    public T decode(ByteBuffer in) {
+        return type.cast(read(in));
+    }
+
+    public byte[] toBytes(T value) {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        while (true) {
+            try {
+                encode(value, buffer);
+                return Arrays.copyOf(buffer.array(), buffer.position());
+            } catch (BufferOverflowException e) {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+            }
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not exactly one valid encoding
+     */
+    public T fromBytes(byte[] bytes) {
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        try {
+            T value = decode(in);
+            if (in.hasRemaining()) {
+                throw new IllegalArgumentException(in.remaining() + " trailing bytes after " + type.getSimpleName());
+            }
+            return value;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated " + type.getSimpleName(), e);
+        }
+    }
+
+    private void write(Record value, ByteBuffer out) {
+        try {
+            for (Writer writer : writers) {
+                writer.write(value, out);
+            }
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot encode " + type.getName(), e);
+        }
+    }
+
+    private Object read(ByteBuffer in) {
+        Object[] components = new Object[readers.length];
+        for (int i = 0; i < readers.length; i++) {
+            components[i] = readers[i].read(in);
+        }
+        try {
+            return (Object) constructor.invokeExact(components);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot construct " + type.getName(), e);
+        }
+    }
+
+    private void bind(int index, Class<?> componentType, MethodHandle getter) {
+        if (componentType == int.class) {
+            MethodHandle get = getter.asType(methodType(int.class, Record.class));
+            writers[index] = (value, out) -> writeVarInt(out, zigzag((int) get.invokeExact(value)));
+            readers[index] = in -> unzigzag(readVarInt(in));
+        } else if (componentType == long.class) {
+            MethodHandle get = getter.asType(methodType(long.class, Record.class));
+            writers[index] = (value, out) -> writeVarLong(out, zigzag((long) get.invokeExact(value)));
+            readers[index] = in -> unzigzag(readVarLong(in));
+        } else if (componentType == short.class) {
+            MethodHandle get = getter.asType(methodType(short.class, Record.class));
+            writers[index] = (value, out) -> writeVarInt(out, zigzag((short) get.invokeExact(value)));
+            readers[index] = in -> (short) unzigzag(readVarInt(in));
+        } else if (componentType == char.class) {
+            MethodHandle get = getter.asType(methodType(char.class, Record.class));
+            writers[index] = (value, out) -> writeVarInt(out, (char) get.invokeExact(value));
+            readers[index] = in -> (char) readVarInt(in);
+        } else if (componentType == byte.class) {
+            MethodHandle get = getter.asType(methodType(byte.class, Record.class));
+            writers[index] = (value, out) -> out.put((byte) get.invokeExact(value));
+            readers[index] = ByteBuffer::get;
+        } else if (componentType == boolean.class) {
+            MethodHandle get = getter.asType(methodType(boolean.class, Record.class));
+            writers[index] = (value, out) -> out.put((boolean) get.invokeExact(value) ? (byte) 1 : (byte) 0);
+            readers[index] = RecordCodec::readBoolean;
+        } else if (componentType == float.class) {
+            MethodHandle get = getter.asType(methodType(float.class, Record.class));
+            writers[index] = (value, out) -> out.putFloat((float) get.invokeExact(value));
+            readers[index] = ByteBuffer::getFloat;
+        } else if (componentType == double.class) {
+            MethodHandle get = getter.asType(methodType(double.class, Record.class));
+            writers[index] = (value, out) -> out.putDouble((double) get.invokeExact(value));
+            readers[index] = ByteBuffer::getDouble;
+        } else if (componentType == String.class) {
+            MethodHandle get = getter.asType(methodType(String.class, Record.class));
+            writers[index] = (value, out) -> writeString(out, (String) get.invokeExact(value));
+            readers[index] = RecordCodec::readString;
+        } else if (componentType.isEnum()) {
+            MethodHandle get = getter.asType(methodType(Enum.class, Record.class));
+            Object[] constants = componentType.getEnumConstants();
+            writers[index] = (value, out) -> {
+                Enum<?> constant = (Enum<?>) get.invokeExact(value);
+                writeVarInt(out, constant == null ? 0 : constant.ordinal() + 1);
+            };
+            readers[index] = in -> readEnum(in, constants);
+        } else if (componentType.isRecord()) {
+            // Resolved on use rather than here, so a record may contain its own type
+            MethodHandle get = getter.asType(methodType(Record.class, Record.class));
+            writers[index] = (value, out) -> {
+                Record nested = (Record) get.invokeExact(value);
+                out.put(nested == null ? (byte) 0 : (byte) 1);
+                if (nested != null) {
+                    CODECS.get(componentType).write(nested, out);
+                }
+            };
+            readers[index] = in -> readBoolean(in) ? CODECS.get(componentType).read(in) : null;
+        } else {
+            throw new IllegalArgumentException("Unsupported component type " + componentType.getName()
+                + " in " + type.getName());
+        }
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static void writeVarInt(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) (value | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static void writeVarLong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) (value | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static int readVarInt(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7FL) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private static boolean readBoolean(ByteBuffer in) {
+        return switch (in.get()) {
+            case 0 -> false;
+            case 1 -> true;
+            default -> throw new IllegalArgumentException("Malformed boolean");
+        };
+    }
+
+    static void writeString(ByteBuffer out, String value) {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        int length = value.length();
+        if (isAscii(value)) {
+            writeVarInt(out, length + 1);
+            if (out.remaining() < length) {
+                throw new BufferOverflowException();
+            }
+            for (int i = 0; i < length; i++) {
+                out.put((byte) value.charAt(i));
+            }
+        } else {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(out, utf8.length + 1);
+            out.put(utf8);
+        }
+    }
+
+    static String readString(ByteBuffer in) {
+        int length = readVarInt(in) - 1;
+        if (length < 0) {
+            if (length == -1) {
+                return null;
+            }
+            throw new IllegalArgumentException("Malformed string length");
+        }
+        if (in.remaining() < length) {
+            throw new BufferUnderflowException();
+        }
+        String value;
+        if (in.hasArray()) {
+            value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+        } else {
+            byte[] utf8 = new byte[length];
+            in.get(utf8);
+            value = new String(utf8, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Object readEnum(ByteBuffer in, Object[] constants) {
+        int ordinal = readVarInt(in) - 1;
+        if (ordinal < -1 || ordinal >= constants.length) {
+            throw new IllegalArgumentException("Malformed enum ordinal " + ordinal);
+        }
+        return ordinal == -1 ? null : constants[ordinal];
+    }
+
+    @FunctionalInterface
+    private interface Writer {
+        void write(Record value, ByteBuffer out) throws Throwable;
+    }
+
+    @FunctionalInterface
+    private interface Reader {
+        Object read(ByteBuffer in);
+    }
+}
@@ -0,0 +1,205 @@
+package org.daodao.records;
+
+import java.lang.ref.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Canonicalizes equal records, so that values decoded or built independently share one instance
+ * (the flyweight pattern). Equality is the record's own {@code equals}/{@code hashCode}.
+ *
+ * <p>The table holds its canonical instances through weak references: once no caller keeps a
+ * canonical instance reachable, the garbage collector clears it and its entry is expunged on a
+ * later call. The table is also bounded; when inserting a new value takes it past
+ * {@code maxSize}, another entry is evicted by a cursor that sweeps the table round-robin across
+ * calls. Equal values interned after their canonical instance was evicted or collected get a new
+ * canonical instance.
+ *
+ * <p>Lookups go through a probe key reused per thread, so a hit allocates nothing once the calling
+ * thread has interned before. Thread-safe.
+ */
+public final class RecordInterner<T extends Record> {
+
+    private static final ThreadLocal<Lookup> PROBE = ThreadLocal.withInitial(Lookup::new);
+
+    private final ConcurrentHashMap<Object, WeakEntry<T>> table;
+    private final ReferenceQueue<T> queue = new ReferenceQueue<>();
+    private final int maxSize;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    // Guarded by evictionLock
+    private Iterator<Object> evictionCursor = Collections.emptyIterator();
+
+    public RecordInterner(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Max size must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.table = new ConcurrentHashMap<>(Math.min(maxSize, 1 << 16));
+    }
+
+    /**
+     * The canonical instance equal to {@code value}; {@code value} itself if there was none.
+     */
+    public T intern(T value) {
+        Objects.requireNonNull(value, "value");
+        expungeStaleEntries();
+        T canonical = lookup(value);
+        if (canonical != null) {
+            hits.increment();
+            return canonical;
+        }
+        misses.increment();
+        WeakEntry<T> created = new WeakEntry<>(value, queue);
+        while (true) {
+            WeakEntry<T> existing = table.putIfAbsent(created, created);
+            if (existing == null) {
+                evictOverflow(created);
+                return value;
+            }
+            canonical = existing.get();
+            if (canonical != null) {
+                return canonical;
+            }
+            // Cleared after the equality check, before its reference was enqueued
+            table.remove(existing, existing);
+        }
+    }
+
+    /**
+     * Number of entries, including ones cleared but not yet expunged.
+     */
+    public int size() {
+        return table.size();
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    private void expungeStaleEntries() {
+        for (Reference<? extends T> stale; (stale = queue.poll()) != null; ) {
+            table.remove(stale, stale);
+        }
+    }
+
+    private T lookup(T value) {
+        Lookup probe = PROBE.get();
+        if (probe.value != null) {
+            // Reentered from the value's own equals or hashCode
+            probe = new Lookup();
+        }
+        probe.set(value);
+        try {
+            WeakEntry<T> entry = table.get(probe);
+            return entry == null ? null : entry.get();
+        } finally {
+            probe.set(null);
+        }
+    }
+
+    /**
+     * Evicts entries other than {@code keep} until the table is within bounds. The cursor resumes
+     * where the last eviction stopped, so evictions spread over the whole table instead of
+     * emptying its first bins again and again.
+     */
+    private void evictOverflow(WeakEntry<T> keep) {
+        if (table.size() <= maxSize) {
+            return;
+        }
+        evictionLock.lock();
+        try {
+            boolean restarted = false;
+            while (table.size() > maxSize) {
+                if (!evictionCursor.hasNext()) {
+                    if (restarted) {
+                        return;
+                    }
+                    evictionCursor = table.keySet().iterator();
+                    restarted = true;
+                    continue;
+                }
+                Object key = evictionCursor.next();
+                if (key != keep && table.remove(key) != null) {
+                    evictions.increment();
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private static Object referent(Object key) {
+        return key instanceof WeakEntry<?> entry ? entry.get() : ((Lookup) key).value;
+    }
+
+    private static boolean sameValue(Object key, int hash, Object other) {
+        if (!(other instanceof WeakEntry<?> || other instanceof Lookup) || other.hashCode() != hash) {
+            return false;
+        }
+        Object value = referent(key);
+        return value != null && value.equals(referent(other));
+    }
+
+    /**
+     * Table key and value for a canonical instance. A cleared entry is only equal to itself.
+     */
+    private static final class WeakEntry<T> extends WeakReference<T> {
+        private final int hash;
+
+        WeakEntry(T value, ReferenceQueue<? super T> queue) {
+            super(value, queue);
+            this.hash = value.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other == this || sameValue(this, hash, other);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Probe key for lookups, so a hit does not allocate a reference object. Holds its value only
+     * for the duration of one lookup.
+     */
+    private static final class Lookup {
+        private Object value;
+        private int hash;
+
+        void set(Object value) {
+            this.value = value;
+            this.hash = value == null ? 0 : value.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other == this || sameValue(this, hash, other);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package org.daodao.service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coalesces concurrent {@link #fetchData} calls into {@link DataService#fetchBatch} calls on the
+ * delegate. Each caller queues its id and parks; a dispatcher thread collects queued ids into a
+ * batch until it reaches the batch limit or the wait expires, sends the batch from a virtual
+ * thread and completes every caller with its own result or with the batch's exception.
+ *
+ * <p>The batch limit and the wait adapt to load, within the configured maximums. A batch that
+ * fills up doubles the limit; one that times out first moves the limit halfway to its own size,
+ * so the dispatcher stops waiting as soon as the usual number of calls has arrived. A timed-out
+ * batch of a single call halves the wait, so a lone caller is not delayed for nothing when load is
+ * light; a timed-out batch that did coalesce calls grows the wait again by an eighth of the
+ * maximum.
+ *
+ * <p>Thread-safe. {@link #close()} sends the calls already queued and waits for batches in flight.
+ */
+public final class BatchingDataService implements DataService, AutoCloseable {
+
+    private record Pending(int id, CompletableFuture<String> result) {}
+
+    private final DataService delegate;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final LinkedBlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final Thread dispatcher;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private volatile boolean closed;
+    private volatile int batchLimit;
+    private volatile long waitNanos;
+
+    /**
+     * @param maxBatchSize most ids sent in one {@code fetchBatch} call
+     * @param maxWait      longest time the first call of a batch waits for more calls
+     */
+    public BatchingDataService(DataService delegate, int maxBatchSize, Duration maxWait) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Max batch size must be positive: " + maxBatchSize);
+        }
+        if (maxWait.isNegative()) {
+            throw new IllegalArgumentException("Max wait must not be negative: " + maxWait);
+        }
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.batchLimit = maxBatchSize;
+        this.waitNanos = maxWaitNanos;
+        this.dispatcher = Thread.ofVirtual().name("data-service-batcher").start(this::dispatchLoop);
+    }
+
+    /**
+     * @throws IllegalStateException if this service is closed
+     */
+    @Override
+    public String fetchData(int id) {
+        if (closed) {
+            throw new IllegalStateException("Batching service is closed");
+        }
+        Pending pending = new Pending(id, new CompletableFuture<>());
+        queue.add(pending);
+        if (closed && queue.remove(pending)) {
+            throw new IllegalStateException("Batching service is closed");
+        }
+        requests.increment();
+        return Completions.join(pending.result());
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return !closed && delegate.isAvailable();
+    }
+
+    /**
+     * Calls answered through batches.
+     */
+    public long requests() {
+        return requests.sum();
+    }
+
+    /**
+     * {@code fetchBatch} calls sent.
+     */
+    public long batches() {
+        return batches.sum();
+    }
+
+    public int currentBatchLimit() {
+        return batchLimit;
+    }
+
+    public Duration currentWait() {
+        return Duration.ofNanos(waitNanos);
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        dispatcher.interrupt();
+        boolean interrupted = false;
+        while (dispatcher.isAlive()) {
+            try {
+                dispatcher.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        senders.close();
+        for (Pending pending; (pending = queue.poll()) != null; ) {
+            pending.result().completeExceptionally(new IllegalStateException("Batching service is closed"));
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void dispatchLoop() {
+        List<Pending> batch = new ArrayList<>();
+        while (!closed || !queue.isEmpty()) {
+            Pending first = closed ? queue.poll() : poll(Long.MAX_VALUE);
+            if (first == null) {
+                continue;
+            }
+            batch.add(first);
+            int limit = batchLimit;
+            long deadline = System.nanoTime() + waitNanos;
+            while (batch.size() < limit) {
+                queue.drainTo(batch, limit - batch.size());
+                long remaining = deadline - System.nanoTime();
+                if (batch.size() >= limit || remaining <= 0 || closed) {
+                    break;
+                }
+                Pending next = poll(remaining);
+                if (next == null) {
+                    break;
+                }
+                batch.add(next);
+            }
+            adapt(batch.size(), limit);
+            send(List.copyOf(batch));
+            batch.clear();
+        }
+    }
+
+    /**
+     * Waits up to {@code nanos} for a call; null on timeout or when interrupted by close().
+     */
+    private Pending poll(long nanos) {
+        try {
+            return queue.poll(nanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            return null;
+        }
+    }
+
+    private void adapt(int size, int limit) {
+        if (size >= limit) {
+            batchLimit = Math.min(maxBatchSize, limit * 2);
+            return;
+        }
+        batchLimit = Math.max(1, (limit + size) / 2);
+        if (size == 1) {
+            waitNanos /= 2;
+        } else {
+            waitNanos = Math.min(maxWaitNanos, waitNanos + Math.max(1, maxWaitNanos / 8));
+        }
+    }
+
+    private void send(List<Pending> batch) {
+        batches.increment();
+        senders.execute(() -> {
+            int[] ids = new int[batch.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = batch.get(i).id();
+            }
+            try {
+                String[] results = delegate.fetchBatch(ids);
+                if (results == null || results.length != ids.length) {
+                    throw new IllegalStateException("fetchBatch returned "
+                        + (results == null ? "null" : results.length + " results") + " for " + ids.length + " ids");
+                }
+                for (int i = 0; i < ids.length; i++) {
+                    batch.get(i).result().complete(results[i]);
+                }
+            } catch (RuntimeException | Error e) {
+                batch.forEach(pending -> pending.result().completeExceptionally(e));
+            }
+        });
+    }
+}
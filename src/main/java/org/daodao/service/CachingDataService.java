@@ -0,0 +1,275 @@
+package org.daodao.service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Read-through cache in front of a {@link DataService}.
+ *
+ * <p>A value is served from the cache until its time-to-live expires. A {@code null} result,
+ * meaning the id does not exist, is cached as well, under its own and usually shorter
+ * time-to-live, so lookups of missing ids do not go upstream every time. Concurrent misses for the
+ * same id are collapsed into a single upstream call whose result, or exception, is shared by
+ * every waiting caller; exceptions are not cached.
+ *
+ * <p>Entries are spread by id over up to 16 segments, each an access-ordered map holding its share
+ * of the maximum size behind its own lock. A segment that overflows evicts its least recently used
+ * entry, so hot ids stay cached while a stream of one-off ids passes through.
+ *
+ * <p>Callers waiting on another caller's load, or on a segment lock, park rather than spin, so
+ * thousands of virtual threads can wait on one load without pinning carrier threads. Thread-safe.
+ */
+public final class CachingDataService implements DataService {
+
+    private record Entry(String value, long expiresAt) {}
+
+    private static final int MAX_SEGMENTS = 16;
+
+    /**
+     * Access-ordered share of the cache; guarded by {@link #lock}.
+     */
+    private final class Segment extends LinkedHashMap<Integer, Entry> {
+        final ReentrantLock lock = new ReentrantLock();
+        final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private final DataService delegate;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final LongSupplier ticker;
+    private final Segment[] segments;
+    private final ConcurrentHashMap<Integer, CompletableFuture<String>> loading = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private CachingDataService(Builder builder) {
+        this.delegate = builder.delegate;
+        int count = Math.min(MAX_SEGMENTS, builder.maximumSize);
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(builder.maximumSize / count + (i < builder.maximumSize % count ? 1 : 0));
+        }
+        this.ttlNanos = builder.ttl.toNanos();
+        this.negativeTtlNanos = builder.negativeTtl.toNanos();
+        this.ticker = builder.ticker;
+    }
+
+    public static Builder builder(DataService delegate) {
+        return new Builder(delegate);
+    }
+
+    @Override
+    public String fetchData(int id) {
+        Entry entry = get(id);
+        if (entry != null && isFresh(entry)) {
+            hits.increment();
+            return entry.value();
+        }
+        misses.increment();
+        CompletableFuture<String> flight = new CompletableFuture<>();
+        CompletableFuture<String> running = loading.putIfAbsent(id, flight);
+        if (running == null) {
+            return load(id, flight);
+        }
+        coalesced.increment();
+        return Completions.join(running);
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return delegate.isAvailable();
+    }
+
+    /**
+     * Calls served from the cache.
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * Calls not served from the cache, whether they loaded the value or waited for another
+     * caller's load.
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * Upstream calls made.
+     */
+    public long loads() {
+        return loads.sum();
+    }
+
+    /**
+     * Misses that waited for another caller's load instead of loading.
+     */
+    public long coalesced() {
+        return coalesced.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Number of cached entries, including expired ones not yet replaced or evicted.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Drops every cached entry. Loads in progress still complete for their waiting callers.
+     */
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                segment.clear();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    private String load(int id, CompletableFuture<String> flight) {
+        try {
+            // Another caller may have finished loading between our cache check and taking the flight
+            Entry entry = get(id);
+            String value;
+            if (entry != null && isFresh(entry)) {
+                value = entry.value();
+            } else {
+                loads.increment();
+                value = delegate.fetchData(id);
+                long ttl = value == null ? negativeTtlNanos : ttlNanos;
+                if (ttl > 0) {
+                    put(id, new Entry(value, ticker.getAsLong() + ttl));
+                }
+            }
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(id, flight);
+        }
+    }
+
+    private boolean isFresh(Entry entry) {
+        return ticker.getAsLong() - entry.expiresAt() < 0;
+    }
+
+    private Segment segment(int id) {
+        int hash = id * 0x9E3779B9;
+        return segments[Math.floorMod(hash ^ (hash >>> 16), segments.length)];
+    }
+
+    private Entry get(int id) {
+        Segment segment = segment(id);
+        segment.lock.lock();
+        try {
+            return segment.get(id);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    private void put(int id, Entry entry) {
+        Segment segment = segment(id);
+        segment.lock.lock();
+        try {
+            segment.put(id, entry);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    public static final class Builder {
+        private final DataService delegate;
+        private int maximumSize = 10_000;
+        private Duration ttl = Duration.ofMinutes(1);
+        private Duration negativeTtl = Duration.ofSeconds(5);
+        private LongSupplier ticker = System::nanoTime;
+
+        private Builder(DataService delegate) {
+            this.delegate = Objects.requireNonNull(delegate, "delegate");
+        }
+
+        public Builder maximumSize(int maximumSize) {
+            if (maximumSize <= 0) {
+                throw new IllegalArgumentException("Maximum size must be positive: " + maximumSize);
+            }
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * How long a loaded value is served; zero disables caching of values.
+         */
+        public Builder expireAfterWrite(Duration ttl) {
+            this.ttl = requireNonNegative(ttl);
+            return this;
+        }
+
+        /**
+         * How long a {@code null} result is served; zero disables negative caching.
+         */
+        public Builder negativeTtl(Duration negativeTtl) {
+            this.negativeTtl = requireNonNegative(negativeTtl);
+            return this;
+        }
+
+        /**
+         * Nanosecond time source, for tests.
+         */
+        Builder ticker(LongSupplier ticker) {
+            this.ticker = Objects.requireNonNull(ticker, "ticker");
+            return this;
+        }
+
+        public CachingDataService build() {
+            return new CachingDataService(this);
+        }
+
+        private static Duration requireNonNegative(Duration duration) {
+            if (duration.isNegative()) {
+                throw new IllegalArgumentException("Duration must not be negative: " + duration);
+            }
+            return duration;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.daodao.service;
+
+import java.util.concurrent.*;
+
+/**
+ * Future helpers shared by the service decorators.
+ */
+final class Completions {
+
+    private Completions() {
+    }
+
+    /**
+     * Waits for {@code future} and rethrows a failure as the original unchecked exception rather
+     * than a {@link CompletionException}.
+     */
+    static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            } else if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.daodao.service;
+
+/**
+ * Lookup service keyed by integer id.
+ */
+public interface DataService {
+
+    String fetchData(int id);
+
+    boolean isAvailable();
+
+    /**
+     * Results for {@code ids}, in the same order. The default makes one {@link #fetchData} call
+     * per id; services with a bulk operation should override it.
+     */
+    default String[] fetchBatch(int[] ids) {
+        String[] results = new String[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            results[i] = fetchData(ids[i]);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,41 @@
+package org.daodao.service;
+
+import java.util.Objects;
+
+/**
+ * Decorates a {@link DataService} with the latency and failures of a {@link FaultInjector}, to see
+ * how callers such as {@link CachingDataService} and {@link BatchingDataService} behave against a
+ * slow or flaky upstream. Each {@code fetchData} and each {@code fetchBatch} call is one injector
+ * call; availability checks pass straight through.
+ */
+public final class FaultInjectingDataService implements DataService {
+
+    private final DataService delegate;
+    private final FaultInjector faults;
+
+    public FaultInjectingDataService(DataService delegate, FaultInjector faults) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.faults = Objects.requireNonNull(faults, "faults");
+    }
+
+    @Override
+    public String fetchData(int id) {
+        faults.inject();
+        return delegate.fetchData(id);
+    }
+
+    @Override
+    public String[] fetchBatch(int[] ids) {
+        faults.inject();
+        return delegate.fetchBatch(ids);
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return delegate.isAvailable();
+    }
+
+    public FaultInjector faults() {
+        return faults;
+    }
+}
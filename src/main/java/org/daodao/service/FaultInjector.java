@@ -0,0 +1,204 @@
+package org.daodao.service;
+
+import java.io.*;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.Supplier;
+
+/**
+ * Decides, call by call, what latency and failure to inject into a decorated service: a delay
+ * drawn from a {@link LatencyDistribution}, then, at configured rates, an exception or a timeout.
+ * A timeout holds the call for the timeout and then throws {@link UncheckedIOException} wrapping a
+ * {@link SocketTimeoutException}, as a remote call that never answered would.
+ *
+ * <p>The faults of the n-th call depend only on the seed and n, not on which thread makes the
+ * call or when, so a run with the same seed and call order injects the same faults. While
+ * {@linkplain #setEnabled disabled}, {@link #inject()} returns after one volatile read.
+ * Thread-safe.
+ */
+public final class FaultInjector {
+
+    private final LatencyDistribution latency;
+    private final double errorRate;
+    private final Supplier<? extends RuntimeException> error;
+    private final double timeoutRate;
+    private final Duration timeout;
+    private final long seed;
+    private final AtomicLong calls = new AtomicLong();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private volatile boolean enabled;
+
+    private FaultInjector(Builder builder) {
+        this.latency = builder.latency;
+        this.errorRate = builder.errorRate;
+        this.error = builder.error;
+        this.timeoutRate = builder.timeoutRate;
+        this.timeout = builder.timeout;
+        this.seed = builder.seed;
+        this.enabled = builder.enabled;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * An injector that starts disabled and injects nothing when enabled.
+     */
+    public static FaultInjector disabled() {
+        return builder().enabled(false).build();
+    }
+
+    /**
+     * Applies the faults of the next call: sleeps for its latency, then throws if the call was
+     * chosen to fail or time out.
+     *
+     * @throws UncheckedIOException wrapping a {@link SocketTimeoutException} for an injected
+     *                              timeout, or an {@link InterruptedIOException} if interrupted
+     *                              while sleeping
+     */
+    public void inject() {
+        if (!enabled) {
+            return;
+        }
+        SplittableRandom random = random(calls.getAndIncrement());
+        double roll = random.nextDouble();
+        if (roll < timeoutRate) {
+            timeouts.increment();
+            sleep(timeout.toNanos());
+            throw new UncheckedIOException(new SocketTimeoutException("Injected timeout after " + timeout));
+        }
+        sleep(latency.sampleNanos(random));
+        if (roll < timeoutRate + errorRate) {
+            errors.increment();
+            throw error.get();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Calls seen while enabled.
+     */
+    public long calls() {
+        return calls.get();
+    }
+
+    public long errors() {
+        return errors.sum();
+    }
+
+    public long timeouts() {
+        return timeouts.sum();
+    }
+
+    /**
+     * Generator of the draws of call {@code call}. The index is hashed rather than stepped by a
+     * constant, since {@code SplittableRandom} steps its own seed by its gamma and stepping by
+     * the same amount would make each call's draws the next call's shifted by one.
+     */
+    SplittableRandom random(long call) {
+        return new SplittableRandom(mix64(seed ^ call * 0xBF58476D1CE4E5B9L));
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static void sleep(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(Duration.ofNanos(nanos));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException("Interrupted during injected latency"));
+        }
+    }
+
+    public static final class Builder {
+        private LatencyDistribution latency = LatencyDistribution.none();
+        private double errorRate;
+        private Supplier<? extends RuntimeException> error = () -> new IllegalStateException("Injected failure");
+        private double timeoutRate;
+        private Duration timeout = Duration.ZERO;
+        private long seed = 42;
+        private boolean enabled = true;
+
+        private Builder() {
+        }
+
+        /**
+         * Delay added to every call that does not time out; use
+         * {@link LatencyDistribution#withTail} for spikes.
+         */
+        public Builder latency(LatencyDistribution latency) {
+            this.latency = Objects.requireNonNull(latency, "latency");
+            return this;
+        }
+
+        /**
+         * Fraction of calls that throw {@code IllegalStateException("Injected failure")}.
+         */
+        public Builder errorRate(double rate) {
+            this.errorRate = requireRate(rate);
+            return this;
+        }
+
+        /**
+         * Fraction of calls that throw an exception from {@code error}.
+         */
+        public Builder errorRate(double rate, Supplier<? extends RuntimeException> error) {
+            this.error = Objects.requireNonNull(error, "error");
+            return errorRate(rate);
+        }
+
+        /**
+         * Fraction of calls that hang for {@code timeout} and then fail with a timeout.
+         */
+        public Builder timeoutRate(double rate, Duration timeout) {
+            if (timeout.isNegative()) {
+                throw new IllegalArgumentException("Timeout must not be negative: " + timeout);
+            }
+            this.timeoutRate = requireRate(rate);
+            this.timeout = timeout;
+            return this;
+        }
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public Builder enabled(boolean enabled) {
+            this.enabled = enabled;
+            return this;
+        }
+
+        public FaultInjector build() {
+            if (errorRate + timeoutRate > 1) {
+                throw new IllegalArgumentException("Error and timeout rates add up to more than 1");
+            }
+            return new FaultInjector(this);
+        }
+
+        private static double requireRate(double rate) {
+            if (!(rate >= 0 && rate <= 1)) {
+                throw new IllegalArgumentException("Rate must be in [0, 1]: " + rate);
+            }
+            return rate;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.daodao.service;
+
+import java.time.Duration;
+import java.util.random.RandomGenerator;
+
+/**
+ * Source of simulated latencies, such as service times or injected delays. Samples are drawn from
+ * a caller-supplied generator, so a seeded generator gives a reproducible sequence.
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    /**
+     * A latency in nanoseconds, never negative.
+     */
+    long sampleNanos(RandomGenerator random);
+
+    static LatencyDistribution none() {
+        return random -> 0;
+    }
+
+    static LatencyDistribution fixed(Duration latency) {
+        long nanos = requireNonNegative(latency);
+        return random -> nanos;
+    }
+
+    static LatencyDistribution uniform(Duration min, Duration max) {
+        long low = requireNonNegative(min);
+        long high = requireNonNegative(max);
+        if (high < low) {
+            throw new IllegalArgumentException("Max " + max + " is below min " + min);
+        }
+        return random -> low == high ? low : random.nextLong(low, high + 1);
+    }
+
+    /**
+     * Exponentially distributed latencies, as for the service time of a memoryless server.
+     */
+    static LatencyDistribution exponential(Duration mean) {
+        double meanNanos = requireNonNegative(mean);
+        return random -> Math.round(random.nextExponential() * meanNanos);
+    }
+
+    /**
+     * Log-normal latencies with the given median; {@code sigma} is the standard deviation of the
+     * logarithm and sets how heavy the right tail is (0.5 is moderate, 1.5 is very heavy).
+     */
+    static LatencyDistribution logNormal(Duration median, double sigma) {
+        double medianNanos = requireNonNegative(median);
+        if (!(sigma >= 0)) {
+            throw new IllegalArgumentException("Sigma must not be negative: " + sigma);
+        }
+        return random -> Math.round(medianNanos * Math.exp(sigma * random.nextGaussian()));
+    }
+
+    /**
+     * This distribution, except that with the given probability the latency is drawn from
+     * {@code tail} instead, modeling rare spikes such as GC pauses or retransmits.
+     */
+    default LatencyDistribution withTail(double probability, LatencyDistribution tail) {
+        if (!(probability >= 0 && probability <= 1)) {
+            throw new IllegalArgumentException("Probability must be in [0, 1]: " + probability);
+        }
+        LatencyDistribution base = this;
+        return random -> random.nextDouble() < probability ? tail.sampleNanos(random) : base.sampleNanos(random);
+    }
+
+    private static long requireNonNegative(Duration duration) {
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException("Latency must not be negative: " + duration);
+        }
+        return duration.toNanos();
+    }
+}
@@ -0,0 +1,386 @@
+package org.daodao.service;
+
+import java.io.*;
+import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+import java.util.random.RandomGenerator;
+
+/**
+ * Stand-in for a remote {@link DataService}: a server on the loopback interface that answers
+ * {@link RemoteDataService} requests over TCP, using the {@link Protocol} wire format.
+ *
+ * <p>All sockets are served by one thread running a {@link Selector} loop. Each request gets a
+ * service time drawn from a {@link LatencyDistribution}, and its response is held back until that
+ * time has passed, without blocking the loop. With a {@linkplain Builder#concurrency concurrency}
+ * limit, requests queue for one of that many simulated workers, so response times include queueing
+ * delay once the offered load nears capacity; without one, every request is served at once. The
+ * loop polls while a response is due in under a millisecond, so sub-millisecond service times are
+ * kept at the cost of a busy core.
+ */
+public final class LoopbackDataServer implements Closeable {
+
+    private record Scheduled(long dueNanos, long sequence, Connection connection, ByteBuffer response) {}
+
+    private static final class Connection {
+        final SocketChannel channel;
+        final SelectionKey key;
+        final ArrayDeque<ByteBuffer> out = new ArrayDeque<>();
+        ByteBuffer in = ByteBuffer.allocate(8 * 1024);
+
+        Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+    }
+
+    private static final long MILLI = 1_000_000;
+
+    private final ServerSocketChannel server;
+    private final Selector selector;
+    private final LatencyDistribution serviceTime;
+    private final RandomGenerator random;
+    private final IntFunction<String> data;
+    private final long[] workerFreeAt;
+    private final PriorityQueue<Scheduled> scheduled = new PriorityQueue<>(
+        Comparator.comparingLong(Scheduled::dueNanos).thenComparingLong(Scheduled::sequence));
+    private final LongAdder requests = new LongAdder();
+    private final Thread loop;
+    private long sequence;
+    private volatile boolean available = true;
+    private volatile boolean closed;
+
+    private LoopbackDataServer(Builder builder) throws IOException {
+        this.serviceTime = builder.serviceTime;
+        this.random = new SplittableRandom(builder.seed);
+        this.data = builder.data;
+        this.workerFreeAt = builder.concurrency == 0 ? null : new long[builder.concurrency];
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        try {
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), builder.port));
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            server.close();
+            selector.close();
+            throw e;
+        }
+        this.loop = Thread.ofPlatform().name("loopback-data-server").daemon().start(this::run);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public InetSocketAddress address() {
+        try {
+            return (InetSocketAddress) server.getLocalAddress();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Sets the answer to {@code isAvailable} requests.
+     */
+    public void setAvailable(boolean available) {
+        this.available = available;
+    }
+
+    /**
+     * Requests received, of any kind.
+     */
+    public long requests() {
+        return requests.sum();
+    }
+
+    /**
+     * Stops the loop and closes every connection; responses not yet sent are dropped.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        selector.wakeup();
+        boolean interrupted = false;
+        while (loop.isAlive()) {
+            try {
+                loop.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            while (!closed) {
+                sendDue(System.nanoTime());
+                Scheduled next = scheduled.peek();
+                long wait = next == null ? 0 : next.dueNanos() - System.nanoTime();
+                if (next == null) {
+                    selector.select();
+                } else if (wait >= MILLI) {
+                    selector.select(wait / MILLI);
+                } else {
+                    selector.selectNow();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    handle(key);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                closeQuietly(key.channel());
+            }
+            closeQuietly(selector);
+        }
+    }
+
+    private void handle(SelectionKey key) throws IOException {
+        if (!key.isValid()) {
+            return;
+        }
+        if (key.isAcceptable()) {
+            SocketChannel channel = server.accept();
+            if (channel != null) {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                SelectionKey connectionKey = channel.register(selector, SelectionKey.OP_READ);
+                connectionKey.attach(new Connection(channel, connectionKey));
+            }
+            return;
+        }
+        Connection connection = (Connection) key.attachment();
+        try {
+            if (key.isReadable()) {
+                read(connection);
+            }
+            if (key.isValid() && key.isWritable()) {
+                flush(connection);
+            }
+        } catch (IOException e) {
+            disconnect(connection);
+        }
+    }
+
+    private void read(Connection connection) throws IOException {
+        if (connection.channel.read(connection.in) < 0) {
+            disconnect(connection);
+            return;
+        }
+        ByteBuffer in = connection.in.flip();
+        while (in.remaining() >= Integer.BYTES) {
+            int length = in.getInt(in.position());
+            if (length < Protocol.HEADER_BYTES || length > Protocol.MAX_FRAME_BYTES) {
+                disconnect(connection);
+                return;
+            }
+            if (in.remaining() < Integer.BYTES + length) {
+                if (Integer.BYTES + length > in.capacity()) {
+                    connection.in = ByteBuffer.allocate(Integer.BYTES + length).put(in);
+                    return;
+                }
+                break;
+            }
+            int end = in.position() + Integer.BYTES + length;
+            ByteBuffer frame = in.slice(in.position() + Integer.BYTES, length);
+            in.position(end);
+            requests.increment();
+            respond(connection, frame);
+        }
+        in.compact();
+    }
+
+    private void respond(Connection connection, ByteBuffer request) throws IOException {
+        byte op = request.get();
+        int correlation = request.getInt();
+        ByteBuffer response;
+        long service = 0;
+        try {
+            switch (op) {
+                case Protocol.FETCH -> {
+                    String value = data.apply(request.getInt());
+                    response = ByteBuffer.allocate(Integer.BYTES + Protocol.HEADER_BYTES + Protocol.stringBytes(value));
+                    Protocol.begin(response, op, correlation);
+                    Protocol.putString(response, value);
+                    service = serviceTime.sampleNanos(random);
+                }
+                case Protocol.BATCH -> {
+                    int count = request.getInt();
+                    if (count < 0 || count > request.remaining() / Integer.BYTES) {
+                        throw new IllegalStateException("Malformed batch count " + count);
+                    }
+                    String[] values = new String[count];
+                    int bytes = Integer.BYTES + Protocol.HEADER_BYTES + Integer.BYTES;
+                    for (int i = 0; i < count; i++) {
+                        values[i] = data.apply(request.getInt());
+                        bytes += Protocol.stringBytes(values[i]);
+                    }
+                    response = ByteBuffer.allocate(bytes);
+                    Protocol.begin(response, op, correlation);
+                    response.putInt(count);
+                    for (String value : values) {
+                        Protocol.putString(response, value);
+                    }
+                    service = serviceTime.sampleNanos(random);
+                }
+                case Protocol.AVAILABLE -> {
+                    response = ByteBuffer.allocate(Integer.BYTES + Protocol.HEADER_BYTES + 1);
+                    Protocol.begin(response, op, correlation);
+                    response.put(available ? (byte) 1 : (byte) 0);
+                }
+                default -> throw new IllegalStateException("Unknown opcode " + op);
+            }
+            // Keeps an oversized response from breaking the client's connection
+            Protocol.checkFrameSize(response.position() - Integer.BYTES);
+        } catch (RuntimeException e) {
+            String message = String.valueOf(e.getMessage());
+            response = ByteBuffer.allocate(Integer.BYTES + Protocol.HEADER_BYTES + Protocol.stringBytes(message));
+            Protocol.begin(response, Protocol.ERROR, correlation);
+            Protocol.putString(response, message);
+        }
+        Protocol.end(response);
+
+        long now = System.nanoTime();
+        long due = admit(now, service);
+        if (due - now <= 0) {
+            send(connection, response);
+        } else {
+            scheduled.add(new Scheduled(due, sequence++, connection, response));
+        }
+    }
+
+    /**
+     * Completion time of a request arriving at {@code now}, on the worker that frees up first.
+     */
+    private long admit(long now, long service) {
+        if (workerFreeAt == null) {
+            return now + service;
+        }
+        int worker = 0;
+        for (int i = 1; i < workerFreeAt.length; i++) {
+            if (workerFreeAt[i] - workerFreeAt[worker] < 0) {
+                worker = i;
+            }
+        }
+        long start = workerFreeAt[worker] - now > 0 ? workerFreeAt[worker] : now;
+        workerFreeAt[worker] = start + service;
+        return workerFreeAt[worker];
+    }
+
+    private void sendDue(long now) {
+        for (Scheduled next; (next = scheduled.peek()) != null && next.dueNanos() - now <= 0; ) {
+            scheduled.poll();
+            if (next.connection().channel.isOpen()) {
+                try {
+                    send(next.connection(), next.response());
+                } catch (IOException e) {
+                    disconnect(next.connection());
+                }
+            }
+        }
+    }
+
+    private void send(Connection connection, ByteBuffer response) throws IOException {
+        if (connection.out.isEmpty()) {
+            connection.channel.write(response);
+            if (!response.hasRemaining()) {
+                return;
+            }
+        }
+        connection.out.add(response);
+        connection.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+    }
+
+    private void flush(Connection connection) throws IOException {
+        for (ByteBuffer head; (head = connection.out.peek()) != null; connection.out.poll()) {
+            connection.channel.write(head);
+            if (head.hasRemaining()) {
+                return;
+            }
+        }
+        connection.key.interestOps(SelectionKey.OP_READ);
+    }
+
+    private static void disconnect(Connection connection) {
+        connection.key.cancel();
+        closeQuietly(connection.channel);
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+            // Nothing left to release
+        }
+    }
+
+    public static final class Builder {
+        private LatencyDistribution serviceTime = LatencyDistribution.none();
+        private int concurrency;
+        private long seed = 42;
+        private int port;
+        private IntFunction<String> data = id -> "Data-" + id;
+
+        private Builder() {
+        }
+
+        /**
+         * Service time of each {@code fetchData} or {@code fetchBatch} request; availability
+         * checks are answered at once.
+         */
+        public Builder serviceTime(LatencyDistribution serviceTime) {
+            this.serviceTime = Objects.requireNonNull(serviceTime, "serviceTime");
+            return this;
+        }
+
+        /**
+         * Number of simulated workers; zero, the default, serves every request at once.
+         */
+        public Builder concurrency(int concurrency) {
+            if (concurrency < 0) {
+                throw new IllegalArgumentException("Concurrency must not be negative: " + concurrency);
+            }
+            this.concurrency = concurrency;
+            return this;
+        }
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Loopback port to listen on; zero, the default, picks a free one.
+         */
+        public Builder port(int port) {
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * The value served for each id; {@code "Data-" + id} by default. A null value means the
+         * id does not exist.
+         */
+        public Builder data(IntFunction<String> data) {
+            this.data = Objects.requireNonNull(data, "data");
+            return this;
+        }
+
+        public LoopbackDataServer start() throws IOException {
+            return new LoopbackDataServer(this);
+        }
+    }
+}
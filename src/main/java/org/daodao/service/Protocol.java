@@ -0,0 +1,87 @@
+package org.daodao.service;
+
+import java.nio.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Wire format between {@link LoopbackDataServer} and {@link RemoteDataService}. Every frame is a
+ * big-endian {@code int} length of the rest of the frame, an opcode byte and an {@code int}
+ * correlation id that the response echoes. Request payloads:
+ * <ul>
+ *   <li>{@link #FETCH}: the {@code int} id</li>
+ *   <li>{@link #BATCH}: an {@code int} count, then the ids</li>
+ *   <li>{@link #AVAILABLE}: empty</li>
+ * </ul>
+ * Response payloads are one string for {@code FETCH}, a count and that many strings for
+ * {@code BATCH}, and one byte for {@code AVAILABLE}. An {@link #ERROR} response carries a message
+ * string. A string is an {@code int} byte length, -1 for null, then UTF-8 bytes.
+ */
+final class Protocol {
+
+    static final byte FETCH = 1;
+    static final byte BATCH = 2;
+    static final byte AVAILABLE = 3;
+    static final byte ERROR = 127;
+
+    /**
+     * Opcode plus correlation id.
+     */
+    static final int HEADER_BYTES = 1 + Integer.BYTES;
+    static final int MAX_FRAME_BYTES = 16 * 1024 * 1024;
+
+    private Protocol() {
+    }
+
+    /**
+     * Starts a frame: leaves room for the length and writes the header.
+     */
+    static void begin(ByteBuffer frame, byte op, int correlation) {
+        frame.position(Integer.BYTES);
+        frame.put(op).putInt(correlation);
+    }
+
+    /**
+     * Fills in the length of a frame started with {@link #begin} and flips it for writing.
+     */
+    static ByteBuffer end(ByteBuffer frame) {
+        frame.putInt(0, frame.position() - Integer.BYTES);
+        return frame.flip();
+    }
+
+    /**
+     * @throws IllegalArgumentException if a frame of {@code frameBytes} after its length prefix
+     *                                  would exceed {@link #MAX_FRAME_BYTES}
+     */
+    static void checkFrameSize(long frameBytes) {
+        if (frameBytes > MAX_FRAME_BYTES) {
+            throw new IllegalArgumentException(
+                "Frame of " + frameBytes + " bytes exceeds the " + MAX_FRAME_BYTES + "-byte limit");
+        }
+    }
+
+    static int stringBytes(String value) {
+        return Integer.BYTES + (value == null ? 0 : value.length() * 3);
+    }
+
+    static void putString(ByteBuffer out, String value) {
+        if (value == null) {
+            out.putInt(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.putInt(utf8.length).put(utf8);
+    }
+
+    static String getString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length == -1) {
+            return null;
+        }
+        if (length < 0 || length > in.remaining()) {
+            throw new IllegalStateException("Malformed string length " + length);
+        }
+        byte[] utf8 = new byte[length];
+        in.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
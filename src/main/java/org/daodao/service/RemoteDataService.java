@@ -0,0 +1,216 @@
+package org.daodao.service;
+
+import java.io.*;
+import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * {@link DataService} client for {@link LoopbackDataServer}, speaking the {@link Protocol} wire
+ * format over one TCP connection.
+ *
+ * <p>Calls from many threads share the connection: each request carries a correlation id, a
+ * writer thread sends queued requests, several per write when they pile up, and a reader thread
+ * completes each caller's future as its response arrives, in whatever order the server sends
+ * them. A caller blocks for at most the configured timeout. Callers never touch the socket, which
+ * closes if a thread is interrupted during I/O on it, so interrupting or cancelling a caller fails
+ * only that call. Failures surface as {@link UncheckedIOException}; once the connection fails,
+ * every later call fails with the same cause, and {@link #isAvailable()} returns false.
+ * Thread-safe.
+ */
+public final class RemoteDataService implements DataService, Closeable {
+
+    private final SocketChannel channel;
+    private final Duration timeout;
+    private final LinkedBlockingQueue<ByteBuffer> outbound = new LinkedBlockingQueue<>();
+    private final ConcurrentHashMap<Integer, CompletableFuture<ByteBuffer>> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger correlations = new AtomicInteger();
+    private final Thread reader;
+    private final Thread writer;
+    private volatile IOException failure;
+
+    private RemoteDataService(SocketChannel channel, Duration timeout) {
+        this.channel = channel;
+        this.timeout = timeout;
+        this.reader = Thread.ofVirtual().name("remote-data-service-reader").start(this::readLoop);
+        this.writer = Thread.ofVirtual().name("remote-data-service-writer").start(this::writeLoop);
+    }
+
+    public static RemoteDataService connect(InetSocketAddress address, Duration timeout) throws IOException {
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("Timeout must be positive: " + timeout);
+        }
+        SocketChannel channel = SocketChannel.open(address);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        return new RemoteDataService(channel, timeout);
+    }
+
+    @Override
+    public String fetchData(int id) {
+        return Protocol.getString(call(Protocol.FETCH, Integer.BYTES, frame -> frame.putInt(id)));
+    }
+
+    @Override
+    public String[] fetchBatch(int[] ids) {
+        ByteBuffer response = call(Protocol.BATCH, Integer.BYTES * (ids.length + 1L), frame -> {
+            frame.putInt(ids.length);
+            for (int id : ids) {
+                frame.putInt(id);
+            }
+        });
+        int count = response.getInt();
+        if (count != ids.length) {
+            throw new IllegalStateException("Server returned " + count + " results for " + ids.length + " ids");
+        }
+        String[] results = new String[count];
+        for (int i = 0; i < count; i++) {
+            results[i] = Protocol.getString(response);
+        }
+        return results;
+    }
+
+    /**
+     * Asks the server; false if the connection has failed or the server does not answer in time.
+     */
+    @Override
+    public boolean isAvailable() {
+        try {
+            return call(Protocol.AVAILABLE, 0, frame -> {}).get() == 1;
+        } catch (UncheckedIOException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        writer.interrupt();
+        boolean interrupted = false;
+        for (Thread thread : List.of(reader, writer)) {
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Sends one request and waits for its response body, positioned after the header.
+     *
+     * @throws IllegalArgumentException if the request would exceed the frame size limit; it is
+     *                                  not sent, and the connection stays usable
+     */
+    private ByteBuffer call(byte op, long payloadBytes, Consumer<ByteBuffer> payload) {
+        Protocol.checkFrameSize(Protocol.HEADER_BYTES + payloadBytes);
+        int correlation = correlations.incrementAndGet();
+        ByteBuffer frame = ByteBuffer.allocate(Integer.BYTES + Protocol.HEADER_BYTES + (int) payloadBytes);
+        Protocol.begin(frame, op, correlation);
+        payload.accept(frame);
+        Protocol.end(frame);
+
+        CompletableFuture<ByteBuffer> response = new CompletableFuture<>();
+        pending.put(correlation, response);
+        try {
+            if (failure != null) {
+                throw failure;
+            }
+            outbound.add(frame);
+            return response.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (TimeoutException e) {
+            throw new UncheckedIOException(new SocketTimeoutException("No response within " + timeout));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException("Interrupted waiting for a response"));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw new UncheckedIOException(cause);
+            } else if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pending.remove(correlation);
+        }
+    }
+
+    private void readLoop() {
+        ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+        try {
+            while (true) {
+                readFully(length.clear());
+                int frameLength = length.getInt(0);
+                if (frameLength < Protocol.HEADER_BYTES || frameLength > Protocol.MAX_FRAME_BYTES) {
+                    throw new IOException("Malformed frame length " + frameLength);
+                }
+                ByteBuffer body = ByteBuffer.allocate(frameLength);
+                readFully(body);
+                body.flip();
+                byte op = body.get();
+                CompletableFuture<ByteBuffer> response = pending.remove(body.getInt());
+                if (response == null) {
+                    // The caller timed out or was interrupted
+                    continue;
+                }
+                if (op == Protocol.ERROR) {
+                    response.completeExceptionally(new IllegalStateException(Protocol.getString(body)));
+                } else {
+                    response.complete(body);
+                }
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private void writeLoop() {
+        List<ByteBuffer> frames = new ArrayList<>();
+        try {
+            while (true) {
+                frames.add(outbound.take());
+                outbound.drainTo(frames, 63);
+                ByteBuffer[] batch = frames.toArray(new ByteBuffer[0]);
+                frames.clear();
+                while (batch[batch.length - 1].hasRemaining()) {
+                    channel.write(batch);
+                }
+            }
+        } catch (InterruptedException e) {
+            // Closed
+        } catch (IOException e) {
+            fail(e);
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // The reader sees the closed channel and stops
+            }
+        }
+    }
+
+    private void fail(IOException e) {
+        if (failure == null) {
+            failure = e;
+        }
+        pending.values().forEach(response -> response.completeExceptionally(e));
+    }
+
+    private void readFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Connection closed by server");
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.daodao.shape;
+
+import java.util.*;
+
+/**
+ * Bulk area computation over shapes grouped by kind into primitive columns: {@code PI * r * r}
+ * for circles, {@code w * h} for rectangles and {@code 0.5 * b * h} for triangles.
+ *
+ * <p>Element-wise results are bit-for-bit equal to {@link Shape#area()}. The {@code *Sum}
+ * methods may add in a different order than a sequential loop, so sums can differ from it in
+ * the last bits.
+ *
+ * <p>{@link #vector()} uses the {@code jdk.incubator.vector} module, which must be resolved at
+ * run time ({@code --add-modules jdk.incubator.vector}); {@link #best()} falls back to the
+ * scalar kernel when it is not.
+ */
+public sealed interface AreaKernel permits ScalarAreaKernel, VectorAreaKernel {
+
+    static AreaKernel scalar() {
+        return ScalarAreaKernel.INSTANCE;
+    }
+
+    /**
+     * The SIMD kernel, or empty if the Vector API module is not available or the platform has
+     * no vector lanes wider than one double.
+     */
+    static Optional<AreaKernel> vector() {
+        return VectorKernelLoader.KERNEL;
+    }
+
+    static AreaKernel best() {
+        return vector().orElse(scalar());
+    }
+
+    void circleAreas(double[] radius, double[] area, int length);
+
+    void rectangleAreas(double[] width, double[] height, double[] area, int length);
+
+    void triangleAreas(double[] base, double[] height, double[] area, int length);
+
+    double circleAreaSum(double[] radius, int length);
+
+    double rectangleAreaSum(double[] width, double[] height, int length);
+
+    double triangleAreaSum(double[] base, double[] height, int length);
+
+    /**
+     * Number of doubles processed per step.
+     */
+    int lanes();
+}
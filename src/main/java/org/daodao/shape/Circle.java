@@ -0,0 +1,14 @@
+package org.daodao.shape;
+
+public record Circle(double radius) implements Shape {
+
+    @Override
+    public double area() {
+        return Math.PI * radius * radius;
+    }
+
+    @Override
+    public <R> R accept(ShapeVisitor<R> visitor) {
+        return visitor.visitCircle(this);
+    }
+}
@@ -0,0 +1,14 @@
+package org.daodao.shape;
+
+public record Rectangle(double width, double height) implements Shape {
+
+    @Override
+    public double area() {
+        return width * height;
+    }
+
+    @Override
+    public <R> R accept(ShapeVisitor<R> visitor) {
+        return visitor.visitRectangle(this);
+    }
+}
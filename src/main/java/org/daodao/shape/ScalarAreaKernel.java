@@ -0,0 +1,73 @@
+package org.daodao.shape;
+
+import java.util.*;
+
+/**
+ * Plain loops; the fallback when the Vector API is not available.
+ */
+final class ScalarAreaKernel implements AreaKernel {
+
+    static final ScalarAreaKernel INSTANCE = new ScalarAreaKernel();
+
+    private ScalarAreaKernel() {
+    }
+
+    @Override
+    public void circleAreas(double[] radius, double[] area, int length) {
+        Objects.checkFromIndexSize(0, length, Math.min(radius.length, area.length));
+        for (int i = 0; i < length; i++) {
+            area[i] = Math.PI * radius[i] * radius[i];
+        }
+    }
+
+    @Override
+    public void rectangleAreas(double[] width, double[] height, double[] area, int length) {
+        Objects.checkFromIndexSize(0, length, Math.min(Math.min(width.length, height.length), area.length));
+        for (int i = 0; i < length; i++) {
+            area[i] = width[i] * height[i];
+        }
+    }
+
+    @Override
+    public void triangleAreas(double[] base, double[] height, double[] area, int length) {
+        Objects.checkFromIndexSize(0, length, Math.min(Math.min(base.length, height.length), area.length));
+        for (int i = 0; i < length; i++) {
+            area[i] = 0.5 * base[i] * height[i];
+        }
+    }
+
+    @Override
+    public double circleAreaSum(double[] radius, int length) {
+        Objects.checkFromIndexSize(0, length, radius.length);
+        double sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += Math.PI * radius[i] * radius[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public double rectangleAreaSum(double[] width, double[] height, int length) {
+        Objects.checkFromIndexSize(0, length, Math.min(width.length, height.length));
+        double sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += width[i] * height[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public double triangleAreaSum(double[] base, double[] height, int length) {
+        Objects.checkFromIndexSize(0, length, Math.min(base.length, height.length));
+        double sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += 0.5 * base[i] * height[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public int lanes() {
+        return 1;
+    }
+}
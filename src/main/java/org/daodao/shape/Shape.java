@@ -0,0 +1,11 @@
+package org.daodao.shape;
+
+/**
+ * Closed hierarchy of plane shapes with an area.
+ */
+public sealed interface Shape permits Circle, Rectangle, Triangle {
+
+    double area();
+
+    <R> R accept(ShapeVisitor<R> visitor);
+}
@@ -0,0 +1,245 @@
+package org.daodao.shape;
+
+import java.util.*;
+
+/**
+ * Columnar (struct-of-arrays) store for shapes. Each kind keeps its components in its own
+ * {@code double[]} columns: radius for circles, width and height for rectangles, base and height
+ * for triangles. A {@code byte[]} of kind ordinals records the original order: the n-th circle in
+ * that order is at index n of the circle column, and likewise for the other kinds.
+ *
+ * <p>Bulk operations run one {@link AreaKernel} loop per kind instead of a type switch per
+ * element. {@link #toList()} and {@link #of(Collection)} convert to and from the {@link Shape}
+ * records. Not thread-safe.
+ */
+public final class ShapeBatch {
+
+    public enum Kind {
+        CIRCLE, RECTANGLE, TRIANGLE;
+
+        private static final Kind[] VALUES = values();
+    }
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private byte[] kinds;
+    private int size;
+
+    private double[] radius;
+    private int circles;
+
+    private double[] width;
+    private double[] height;
+    private int rectangles;
+
+    private double[] base;
+    private double[] triangleHeight;
+    private int triangles;
+
+    public ShapeBatch() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ShapeBatch(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative: " + capacity);
+        }
+        kinds = new byte[capacity];
+        radius = new double[0];
+        width = new double[0];
+        height = new double[0];
+        base = new double[0];
+        triangleHeight = new double[0];
+    }
+
+    public static ShapeBatch of(Collection<? extends Shape> shapes) {
+        ShapeBatch batch = new ShapeBatch(shapes.size());
+        shapes.forEach(batch::add);
+        return batch;
+    }
+
+    public ShapeBatch add(Shape shape) {
+        switch (shape) {
+            case Circle(double r) -> addCircle(r);
+            case Rectangle(double w, double h) -> addRectangle(w, h);
+            case Triangle(double b, double h) -> addTriangle(b, h);
+        }
+        return this;
+    }
+
+    public ShapeBatch addCircle(double r) {
+        if (circles == radius.length) {
+            radius = grow(radius);
+        }
+        radius[circles++] = r;
+        return append(Kind.CIRCLE);
+    }
+
+    public ShapeBatch addRectangle(double w, double h) {
+        if (rectangles == width.length) {
+            width = grow(width);
+            height = grow(height);
+        }
+        width[rectangles] = w;
+        height[rectangles++] = h;
+        return append(Kind.RECTANGLE);
+    }
+
+    public ShapeBatch addTriangle(double b, double h) {
+        if (triangles == base.length) {
+            base = grow(base);
+            triangleHeight = grow(triangleHeight);
+        }
+        base[triangles] = b;
+        triangleHeight[triangles++] = h;
+        return append(Kind.TRIANGLE);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int count(Kind kind) {
+        return switch (kind) {
+            case CIRCLE -> circles;
+            case RECTANGLE -> rectangles;
+            case TRIANGLE -> triangles;
+        };
+    }
+
+    public Kind kind(int index) {
+        return Kind.VALUES[kinds[Objects.checkIndex(index, size)]];
+    }
+
+    /**
+     * The shapes as records, in the order they were added.
+     */
+    public List<Shape> toList() {
+        List<Shape> shapes = new ArrayList<>(size);
+        int c = 0;
+        int r = 0;
+        int t = 0;
+        for (int i = 0; i < size; i++) {
+            shapes.add(switch (Kind.VALUES[kinds[i]]) {
+                case CIRCLE -> new Circle(radius[c++]);
+                case RECTANGLE -> new Rectangle(width[r], height[r++]);
+                case TRIANGLE -> new Triangle(base[t], triangleHeight[t++]);
+            });
+        }
+        return Collections.unmodifiableList(shapes);
+    }
+
+    public double totalArea() {
+        return totalArea(AreaKernel.best());
+    }
+
+    /**
+     * Sum of all areas, one kernel loop per kind.
+     */
+    public double totalArea(AreaKernel kernel) {
+        return kernel.circleAreaSum(radius, circles)
+            + kernel.rectangleAreaSum(width, height, rectangles)
+            + kernel.triangleAreaSum(base, triangleHeight, triangles);
+    }
+
+    public double[] areas() {
+        return areas(AreaKernel.best());
+    }
+
+    /**
+     * Area of every shape in the original order. Each kind is computed in one kernel loop, then
+     * the results are interleaved back into place.
+     */
+    public double[] areas(AreaKernel kernel) {
+        double[] circleAreas = new double[circles];
+        double[] rectangleAreas = new double[rectangles];
+        double[] triangleAreas = new double[triangles];
+        kernel.circleAreas(radius, circleAreas, circles);
+        kernel.rectangleAreas(width, height, rectangleAreas, rectangles);
+        kernel.triangleAreas(base, triangleHeight, triangleAreas, triangles);
+
+        double[] areas = new double[size];
+        int c = 0;
+        int r = 0;
+        int t = 0;
+        for (int i = 0; i < size; i++) {
+            areas[i] = switch (Kind.VALUES[kinds[i]]) {
+                case CIRCLE -> circleAreas[c++];
+                case RECTANGLE -> rectangleAreas[r++];
+                case TRIANGLE -> triangleAreas[t++];
+            };
+        }
+        return areas;
+    }
+
+    /**
+     * Shrinks every column to its used length.
+     */
+    public void trimToSize() {
+        kinds = Arrays.copyOf(kinds, size);
+        radius = Arrays.copyOf(radius, circles);
+        width = Arrays.copyOf(width, rectangles);
+        height = Arrays.copyOf(height, rectangles);
+        base = Arrays.copyOf(base, triangles);
+        triangleHeight = Arrays.copyOf(triangleHeight, triangles);
+    }
+
+    /**
+     * Estimated heap retained by this batch and by the equivalent {@code ArrayList<Shape>} of
+     * records, assuming a 64-bit JVM with compressed oops and class pointers (12-byte object
+     * headers, 16-byte array headers, 4-byte references, 8-byte alignment).
+     */
+    public Footprint footprint() {
+        long batch = Footprint.array(kinds.length, Byte.BYTES)
+            + Footprint.array(radius.length, Double.BYTES)
+            + Footprint.array(width.length, Double.BYTES) + Footprint.array(height.length, Double.BYTES)
+            + Footprint.array(base.length, Double.BYTES) + Footprint.array(triangleHeight.length, Double.BYTES);
+        long records = Footprint.object(Integer.BYTES * 2 + Footprint.REFERENCE)
+            + Footprint.array(size, Footprint.REFERENCE)
+            + circles * Footprint.object(Double.BYTES)
+            + (long) (rectangles + triangles) * Footprint.object(Double.BYTES * 2);
+        return new Footprint(size, batch, records);
+    }
+
+    /**
+     * Heap estimate for {@code shapes} shapes: the columnar batch vs a record list.
+     */
+    public record Footprint(int shapes, long batchBytes, long recordListBytes) {
+
+        static final int OBJECT_HEADER = 12;
+        static final int ARRAY_HEADER = 16;
+        static final int REFERENCE = 4;
+
+        public double batchBytesPerShape() {
+            return shapes == 0 ? 0 : (double) batchBytes / shapes;
+        }
+
+        public double recordListBytesPerShape() {
+            return shapes == 0 ? 0 : (double) recordListBytes / shapes;
+        }
+
+        static long object(int fieldBytes) {
+            return align(OBJECT_HEADER + fieldBytes);
+        }
+
+        static long array(int length, int elementBytes) {
+            return align(ARRAY_HEADER + (long) length * elementBytes);
+        }
+
+        private static long align(long bytes) {
+            return (bytes + 7) & ~7L;
+        }
+    }
+
+    private ShapeBatch append(Kind kind) {
+        if (size == kinds.length) {
+            kinds = Arrays.copyOf(kinds, Math.max(DEFAULT_CAPACITY, size * 2));
+        }
+        kinds[size++] = (byte) kind.ordinal();
+        return this;
+    }
+
+    private static double[] grow(double[] column) {
+        return Arrays.copyOf(column, Math.max(DEFAULT_CAPACITY, column.length * 2));
+    }
+}
@@ -0,0 +1,14 @@
+package org.daodao.shape;
+
+/**
+ * Classic double-dispatch visitor over the {@link Shape} hierarchy, as an alternative to a
+ * pattern-matching {@code switch}.
+ */
+public interface ShapeVisitor<R> {
+
+    R visitCircle(Circle circle);
+
+    R visitRectangle(Rectangle rectangle);
+
+    R visitTriangle(Triangle triangle);
+}
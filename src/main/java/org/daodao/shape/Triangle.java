@@ -0,0 +1,14 @@
+package org.daodao.shape;
+
+public record Triangle(double base, double height) implements Shape {
+
+    @Override
+    public double area() {
+        return 0.5 * base * height;
+    }
+
+    @Override
+    public <R> R accept(ShapeVisitor<R> visitor) {
+        return visitor.visitTriangle(this);
+    }
+}
@@ -0,0 +1,111 @@
+package org.daodao.shape;
+
+import jdk.incubator.vector.*;
+
+import java.util.*;
+
+/**
+ * {@link DoubleVector} kernels at the platform's preferred width. The multiplications keep the
+ * operand order of {@link Shape#area()}, so element-wise results are identical to it; sums keep
+ * one partial sum per lane and reduce them at the end.
+ */
+final class VectorAreaKernel implements AreaKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    VectorAreaKernel() {
+    }
+
+    @Override
+    public void circleAreas(double[] radius, double[] area, int length) {
+        Objects.checkFromIndexSize(0, length, Math.min(radius.length, area.length));
+        int i = 0;
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            DoubleVector r = DoubleVector.fromArray(SPECIES, radius, i);
+            r.mul(Math.PI).mul(r).intoArray(area, i);
+        }
+        for (; i < length; i++) {
+            area[i] = Math.PI * radius[i] * radius[i];
+        }
+    }
+
+    @Override
+    public void rectangleAreas(double[] width, double[] height, double[] area, int length) {
+        Objects.checkFromIndexSize(0, length, Math.min(Math.min(width.length, height.length), area.length));
+        int i = 0;
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            DoubleVector w = DoubleVector.fromArray(SPECIES, width, i);
+            w.mul(DoubleVector.fromArray(SPECIES, height, i)).intoArray(area, i);
+        }
+        for (; i < length; i++) {
+            area[i] = width[i] * height[i];
+        }
+    }
+
+    @Override
+    public void triangleAreas(double[] base, double[] height, double[] area, int length) {
+        Objects.checkFromIndexSize(0, length, Math.min(Math.min(base.length, height.length), area.length));
+        int i = 0;
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            DoubleVector b = DoubleVector.fromArray(SPECIES, base, i);
+            b.mul(0.5).mul(DoubleVector.fromArray(SPECIES, height, i)).intoArray(area, i);
+        }
+        for (; i < length; i++) {
+            area[i] = 0.5 * base[i] * height[i];
+        }
+    }
+
+    @Override
+    public double circleAreaSum(double[] radius, int length) {
+        Objects.checkFromIndexSize(0, length, radius.length);
+        DoubleVector sum = DoubleVector.zero(SPECIES);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            DoubleVector r = DoubleVector.fromArray(SPECIES, radius, i);
+            sum = sum.add(r.mul(Math.PI).mul(r));
+        }
+        double total = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            total += Math.PI * radius[i] * radius[i];
+        }
+        return total;
+    }
+
+    @Override
+    public double rectangleAreaSum(double[] width, double[] height, int length) {
+        Objects.checkFromIndexSize(0, length, Math.min(width.length, height.length));
+        DoubleVector sum = DoubleVector.zero(SPECIES);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            DoubleVector w = DoubleVector.fromArray(SPECIES, width, i);
+            sum = w.mul(DoubleVector.fromArray(SPECIES, height, i)).add(sum);
+        }
+        double total = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            total += width[i] * height[i];
+        }
+        return total;
+    }
+
+    @Override
+    public double triangleAreaSum(double[] base, double[] height, int length) {
+        Objects.checkFromIndexSize(0, length, Math.min(base.length, height.length));
+        DoubleVector sum = DoubleVector.zero(SPECIES);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            DoubleVector b = DoubleVector.fromArray(SPECIES, base, i);
+            sum = b.mul(DoubleVector.fromArray(SPECIES, height, i)).add(sum);
+        }
+        // Halve once at the end instead of per element
+        double total = 0.5 * sum.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            total += 0.5 * base[i] * height[i];
+        }
+        return total;
+    }
+
+    @Override
+    public int lanes() {
+        return SPECIES.length();
+    }
+}
@@ -0,0 +1,24 @@
+package org.daodao.shape;
+
+import java.util.*;
+
+/**
+ * Resolves the vector kernel once, without touching Vector API classes when the module is absent.
+ */
+final class VectorKernelLoader {
+
+    static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    static final Optional<AreaKernel> KERNEL = load();
+
+    private VectorKernelLoader() {
+    }
+
+    private static Optional<AreaKernel> load() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            return Optional.empty();
+        }
+        AreaKernel kernel = new VectorAreaKernel();
+        return kernel.lanes() > 1 ? Optional.of(kernel) : Optional.empty();
+    }
+}
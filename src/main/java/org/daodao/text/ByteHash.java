@@ -0,0 +1,84 @@
+package org.daodao.text;
+
+import java.lang.invoke.*;
+import java.nio.ByteOrder;
+
+/**
+ * 64-bit hash over byte ranges, eight bytes at a time, shared by the byte-keyed word tables.
+ */
+final class ByteHash {
+
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final long SEED = 0x2545F4914F6CDD1DL;
+    private static final long MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private ByteHash() {
+    }
+
+    static long hash(byte[] bytes, int offset, int length) {
+        long h = SEED ^ length;
+        int i = offset;
+        int end = offset + length;
+        for (; i + Long.BYTES <= end; i += Long.BYTES) {
+            h = mix(h ^ (long) LONGS.get(bytes, i));
+        }
+        long tail = 0;
+        for (int shift = 0; i < end; i++, shift += 8) {
+            tail |= (bytes[i] & 0xFFL) << shift;
+        }
+        return finish(mix(h ^ tail));
+    }
+
+    private static long mix(long h) {
+        h *= MULTIPLIER;
+        return h ^ (h >>> 32);
+    }
+
+    private static long finish(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Reads eight bytes of {@code bytes} at {@code index} as a little-endian long.
+     */
+    static long longAt(byte[] bytes, int index) {
+        return (long) LONGS.get(bytes, index);
+    }
+
+    /**
+     * Encodes {@code text} as UTF-8 into {@code target}, which must hold at least
+     * {@code 3 * text.length()} bytes. Unpaired surrogates become {@code '?'}, as in
+     * {@link String#getBytes}. Returns the encoded length.
+     */
+    static int encodeUtf8(CharSequence text, byte[] target) {
+        int length = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                target[length++] = (byte) c;
+            } else if (c < 0x800) {
+                target[length++] = (byte) (0xC0 | (c >> 6));
+                target[length++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                    target[length++] = (byte) (0xF0 | (codePoint >> 18));
+                    target[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    target[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    target[length++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else {
+                    target[length++] = '?';
+                }
+            } else {
+                target[length++] = (byte) (0xE0 | (c >> 12));
+                target[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                target[length++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return length;
+    }
+}
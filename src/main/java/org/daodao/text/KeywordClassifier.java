@@ -0,0 +1,164 @@
+package org.daodao.text;
+
+import java.util.*;
+
+/**
+ * Classifies a line by the keywords it contains, with first-rule-wins semantics: the result is
+ * the category of the earliest added rule whose keyword occurs anywhere in the line, just like a
+ * chain of {@code case String s when s.contains(keyword)} guards.
+ *
+ * <p>The keyword table is compiled into an Aho-Corasick automaton with a full transition table,
+ * so a line is scanned once no matter how many keywords there are. Matching is case-sensitive,
+ * like {@link String#contains}.
+ */
+public final class KeywordClassifier<C> {
+
+    private static final int NO_RULE = Integer.MAX_VALUE;
+
+    /** Dense symbol id per UTF-16 char; 0 for chars that occur in no keyword. */
+    private final char[] symbols;
+    private final int alphabetSize;
+    private final int[] transitions;
+    /** Lowest rule index matched on reaching each state, following failure links. */
+    private final int[] bestRule;
+    private final List<C> categories;
+
+    private KeywordClassifier(char[] symbols, int alphabetSize, int[] transitions, int[] bestRule, List<C> categories) {
+        this.symbols = symbols;
+        this.alphabetSize = alphabetSize;
+        this.transitions = transitions;
+        this.bestRule = bestRule;
+        this.categories = categories;
+    }
+
+    public static <C> Builder<C> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Returns the category of the first rule whose keyword occurs in {@code line}, or
+     * {@code fallback} if none does.
+     */
+    public C classify(CharSequence line, C fallback) {
+        int rule = firstRule(line);
+        return rule == NO_RULE ? fallback : categories.get(rule);
+    }
+
+    /**
+     * Index of the first matching rule in insertion order, or -1 if none matches.
+     */
+    public int matchRule(CharSequence line) {
+        int rule = firstRule(line);
+        return rule == NO_RULE ? -1 : rule;
+    }
+
+    public int ruleCount() {
+        return categories.size();
+    }
+
+    public int stateCount() {
+        return bestRule.length;
+    }
+
+    private int firstRule(CharSequence line) {
+        int best = bestRule[0];
+        int state = 0;
+        for (int i = 0, length = line.length(); i < length && best != 0; i++) {
+            state = transitions[state * alphabetSize + symbols[line.charAt(i)]];
+            int rule = bestRule[state];
+            if (rule < best) {
+                best = rule;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Collects keyword rules in priority order.
+     */
+    public static final class Builder<C> {
+        private final List<String> keywords = new ArrayList<>();
+        private final List<C> categories = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a rule. Earlier rules win when several keywords occur in the same line.
+         */
+        public Builder<C> add(String keyword, C category) {
+            keywords.add(Objects.requireNonNull(keyword, "keyword"));
+            categories.add(category);
+            return this;
+        }
+
+        public KeywordClassifier<C> build() {
+            char[] symbols = new char[Character.MAX_VALUE + 1];
+            int alphabetSize = 1;
+            int maxStates = 1;
+            for (String keyword : keywords) {
+                for (int i = 0; i < keyword.length(); i++) {
+                    char c = keyword.charAt(i);
+                    if (symbols[c] == 0) {
+                        symbols[c] = (char) alphabetSize++;
+                    }
+                }
+                maxStates += keyword.length();
+            }
+
+            // Trie
+            int[] transitions = new int[maxStates * alphabetSize];
+            Arrays.fill(transitions, -1);
+            int[] bestRule = new int[maxStates];
+            Arrays.fill(bestRule, NO_RULE);
+            int states = 1;
+            for (int rule = 0; rule < keywords.size(); rule++) {
+                String keyword = keywords.get(rule);
+                int state = 0;
+                for (int i = 0; i < keyword.length(); i++) {
+                    int slot = state * alphabetSize + symbols[keyword.charAt(i)];
+                    if (transitions[slot] < 0) {
+                        transitions[slot] = states++;
+                    }
+                    state = transitions[slot];
+                }
+                bestRule[state] = Math.min(bestRule[state], rule);
+            }
+
+            // Failure links in BFS order, folded into a complete transition table
+            int[] fail = new int[states];
+            int[] queue = new int[states];
+            int head = 0;
+            int tail = 0;
+            for (int symbol = 0; symbol < alphabetSize; symbol++) {
+                int child = transitions[symbol];
+                if (child < 0) {
+                    transitions[symbol] = 0;
+                } else {
+                    fail[child] = 0;
+                    bestRule[child] = Math.min(bestRule[child], bestRule[0]);
+                    queue[tail++] = child;
+                }
+            }
+            while (head < tail) {
+                int state = queue[head++];
+                for (int symbol = 0; symbol < alphabetSize; symbol++) {
+                    int slot = state * alphabetSize + symbol;
+                    int fallback = transitions[fail[state] * alphabetSize + symbol];
+                    int child = transitions[slot];
+                    if (child < 0) {
+                        transitions[slot] = fallback;
+                    } else {
+                        fail[child] = fallback;
+                        bestRule[child] = Math.min(bestRule[child], bestRule[fallback]);
+                        queue[tail++] = child;
+                    }
+                }
+            }
+
+            return new KeywordClassifier<>(symbols, alphabetSize,
+                Arrays.copyOf(transitions, states * alphabetSize), Arrays.copyOf(bestRule, states),
+                Collections.unmodifiableList(new ArrayList<>(categories)));
+        }
+    }
+}
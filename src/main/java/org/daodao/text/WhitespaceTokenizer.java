@@ -0,0 +1,161 @@
+package org.daodao.text;
+
+import java.nio.*;
+import java.util.*;
+import java.util.function.*;
+import java.util.stream.*;
+
+/**
+ * Whitespace tokenizer that replaces {@code line.split("\\s+")} without a regex.
+ *
+ * <p>The static {@code forEachToken} methods report tokens as {@code [start, end)} offsets into
+ * the input and allocate nothing per token. An instance keeps the offsets of the last tokenized
+ * line in a reused buffer. Whitespace is the same set as the regex {@code \s}
+ * ({@code [ \t\n\x0B\f\r]}). Unlike {@code split}, empty tokens are never produced, so a line
+ * with leading whitespace does not yield a leading {@code ""}.
+ */
+public final class WhitespaceTokenizer {
+
+    /**
+     * Receives one token as offsets into the tokenized characters.
+     */
+    @FunctionalInterface
+    public interface TokenConsumer {
+        void accept(CharSequence source, int start, int end);
+    }
+
+    /**
+     * Receives one token as offsets into the tokenized bytes.
+     */
+    @FunctionalInterface
+    public interface ByteTokenConsumer {
+        void accept(ByteBuffer source, int start, int end);
+    }
+
+    private int[] bounds;
+    private int count;
+    private CharSequence source;
+
+    public WhitespaceTokenizer() {
+        this(16);
+    }
+
+    public WhitespaceTokenizer(int expectedTokens) {
+        this.bounds = new int[Math.max(1, expectedTokens) * 2];
+    }
+
+    static boolean isWhitespace(int c) {
+        // ' ' or one of \t \n \x0B \f \r
+        return c == ' ' || (c >= '\t' && c <= '\r');
+    }
+
+    /**
+     * Tokenizes {@code line} into the reused offset buffer and returns the token count.
+     * The buffer only grows, so steady-state calls allocate nothing.
+     */
+    public int tokenize(CharSequence line) {
+        source = line;
+        count = 0;
+        int length = line.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && isWhitespace(line.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && !isWhitespace(line.charAt(i))) {
+                i++;
+            }
+            if (i > start) {
+                if (count * 2 == bounds.length) {
+                    bounds = Arrays.copyOf(bounds, bounds.length * 2);
+                }
+                bounds[count * 2] = start;
+                bounds[count * 2 + 1] = i;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public int start(int index) {
+        return bounds[checkIndex(index) * 2];
+    }
+
+    public int end(int index) {
+        return bounds[checkIndex(index) * 2 + 1];
+    }
+
+    /**
+     * A view of the token without copying its characters.
+     */
+    public CharSequence token(int index) {
+        return CharBuffer.wrap(source, start(index), end(index));
+    }
+
+    private int checkIndex(int index) {
+        return Objects.checkIndex(index, count);
+    }
+
+    /**
+     * Reports every token of {@code line} to {@code consumer} as character offsets.
+     */
+    public static void forEachToken(CharSequence line, TokenConsumer consumer) {
+        int length = line.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && isWhitespace(line.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && !isWhitespace(line.charAt(i))) {
+                i++;
+            }
+            if (i > start) {
+                consumer.accept(line, start, i);
+            }
+        }
+    }
+
+    /**
+     * Reports every token in {@code buffer[offset, offset + length)} to {@code consumer} as
+     * absolute byte offsets. Only ASCII whitespace separates tokens, so UTF-8 input is safe.
+     */
+    public static void forEachToken(ByteBuffer buffer, int offset, int length, ByteTokenConsumer consumer) {
+        int limit = offset + length;
+        int i = offset;
+        while (i < limit) {
+            while (i < limit && isWhitespace(buffer.get(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < limit && !isWhitespace(buffer.get(i))) {
+                i++;
+            }
+            if (i > start) {
+                consumer.accept(buffer, start, i);
+            }
+        }
+    }
+
+    /**
+     * Passes each token of {@code line} to {@code sink} as a {@code String}. Shaped for
+     * {@code Stream.mapMulti}.
+     */
+    public static void forEachWord(CharSequence line, Consumer<? super String> sink) {
+        forEachToken(line, (source, start, end) -> sink.accept(source.subSequence(start, end).toString()));
+    }
+
+    /**
+     * The tokens of {@code line} as a stream, for use with {@code flatMap}.
+     */
+    public static Stream<String> words(CharSequence line) {
+        Stream.Builder<String> builder = Stream.builder();
+        forEachWord(line, builder);
+        return builder.build();
+    }
+}
@@ -0,0 +1,211 @@
+package org.daodao.text;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.*;
+import java.util.stream.*;
+
+/**
+ * Word-to-count map over UTF-8 token bytes, without boxing.
+ *
+ * <p>Slots are open-addressed and linearly probed by a 64-bit hash of the word bytes. Each slot
+ * keeps the full hash, a {@code long} count and the offset and length of the word in a shared
+ * byte pool; words are only compared byte by byte when their 64-bit hashes are equal. Counting a
+ * word that is already present allocates nothing.
+ *
+ * <p>Not thread-safe. For parallel counting, fill one map per thread and {@link #merge} them, as
+ * {@link #collector()} does for parallel streams.
+ */
+public final class WordCountMap {
+
+    private static final int EMPTY = -1;
+
+    private long[] hashes;
+    private long[] counts;
+    private int[] offsets;
+    private int[] lengths;
+    private int mask;
+    private int size;
+    private long total;
+
+    private byte[] pool;
+    private int poolUsed;
+    private byte[] scratch = new byte[64];
+
+    public WordCountMap() {
+        this(64);
+    }
+
+    public WordCountMap(int expectedWords) {
+        int capacity = Math.max(16, Integer.highestOneBit(Math.max(1, expectedWords) - 1) << 2);
+        allocateSlots(capacity);
+        pool = new byte[Math.max(64, expectedWords * 8)];
+    }
+
+    /**
+     * Collects {@code CharSequence} words into a map. Parallel streams fill one map per thread and
+     * merge them.
+     */
+    public static Collector<CharSequence, ?, WordCountMap> collector() {
+        return Collector.of(WordCountMap::new, WordCountMap::add, WordCountMap::merge,
+            Collector.Characteristics.IDENTITY_FINISH, Collector.Characteristics.UNORDERED);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Sum of all counts.
+     */
+    public long total() {
+        return total;
+    }
+
+    /**
+     * Counts one occurrence of {@code bytes[offset, offset + length)} and returns the new count.
+     */
+    public long add(byte[] bytes, int offset, int length) {
+        return add(bytes, offset, length, 1);
+    }
+
+    /**
+     * Adds {@code delta} to the count of {@code bytes[offset, offset + length)} and returns the
+     * new count.
+     */
+    public long add(byte[] bytes, int offset, int length, long delta) {
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        return add(bytes, offset, length, ByteHash.hash(bytes, offset, length), delta);
+    }
+
+    public long add(CharSequence word) {
+        int length = encode(word);
+        return add(scratch, 0, length, 1);
+    }
+
+    /**
+     * Count of {@code bytes[offset, offset + length)}, or 0 if it was never added.
+     */
+    public long count(byte[] bytes, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        int slot = findSlot(bytes, offset, length, ByteHash.hash(bytes, offset, length));
+        return offsets[slot] == EMPTY ? 0 : counts[slot];
+    }
+
+    public long count(CharSequence word) {
+        int length = encode(word);
+        return count(scratch, 0, length);
+    }
+
+    /**
+     * Adds every count of {@code other} to this map and returns this map.
+     */
+    public WordCountMap merge(WordCountMap other) {
+        for (int slot = 0; slot < other.offsets.length; slot++) {
+            if (other.offsets[slot] != EMPTY) {
+                add(other.pool, other.offsets[slot], other.lengths[slot], other.hashes[slot], other.counts[slot]);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Passes each word and its count to {@code action}, in no particular order. Decodes one
+     * {@code String} per word.
+     */
+    public void forEach(ObjLongConsumer<String> action) {
+        for (int slot = 0; slot < offsets.length; slot++) {
+            if (offsets[slot] != EMPTY) {
+                action.accept(new String(pool, offsets[slot], lengths[slot], StandardCharsets.UTF_8), counts[slot]);
+            }
+        }
+    }
+
+    /**
+     * Distinct words in natural order, as {@code distinct().sorted().toList()} would return them.
+     */
+    public List<String> sortedWords() {
+        List<String> words = new ArrayList<>(size);
+        forEach((word, count) -> words.add(word));
+        Collections.sort(words);
+        return Collections.unmodifiableList(words);
+    }
+
+    public Map<String, Long> toMap() {
+        Map<String, Long> map = HashMap.newHashMap(size);
+        forEach(map::put);
+        return map;
+    }
+
+    private long add(byte[] bytes, int offset, int length, long hash, long delta) {
+        int slot = findSlot(bytes, offset, length, hash);
+        total += delta;
+        if (offsets[slot] != EMPTY) {
+            return counts[slot] += delta;
+        }
+        hashes[slot] = hash;
+        counts[slot] = delta;
+        offsets[slot] = store(bytes, offset, length);
+        lengths[slot] = length;
+        if (++size * 2 > mask) {
+            rehash();
+        }
+        return delta;
+    }
+
+    private int findSlot(byte[] bytes, int offset, int length, long hash) {
+        int slot = (int) hash & mask;
+        while (offsets[slot] != EMPTY
+                && (hashes[slot] != hash || !Arrays.equals(pool, offsets[slot], offsets[slot] + lengths[slot],
+                    bytes, offset, offset + length))) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int store(byte[] bytes, int offset, int length) {
+        if (pool.length - poolUsed < length) {
+            pool = Arrays.copyOf(pool, Math.max(pool.length * 2, poolUsed + length));
+        }
+        System.arraycopy(bytes, offset, pool, poolUsed, length);
+        int stored = poolUsed;
+        poolUsed += length;
+        return stored;
+    }
+
+    private int encode(CharSequence word) {
+        if (scratch.length < word.length() * 3) {
+            scratch = new byte[Math.max(scratch.length * 2, word.length() * 3)];
+        }
+        return ByteHash.encodeUtf8(word, scratch);
+    }
+
+    private void allocateSlots(int capacity) {
+        hashes = new long[capacity];
+        counts = new long[capacity];
+        offsets = new int[capacity];
+        lengths = new int[capacity];
+        Arrays.fill(offsets, EMPTY);
+        mask = capacity - 1;
+    }
+
+    private void rehash() {
+        long[] oldHashes = hashes;
+        long[] oldCounts = counts;
+        int[] oldOffsets = offsets;
+        int[] oldLengths = lengths;
+        allocateSlots(oldOffsets.length * 2);
+        for (int old = 0; old < oldOffsets.length; old++) {
+            if (oldOffsets[old] != EMPTY) {
+                int slot = (int) oldHashes[old] & mask;
+                while (offsets[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                hashes[slot] = oldHashes[old];
+                counts[slot] = oldCounts[old];
+                offsets[slot] = oldOffsets[old];
+                lengths[slot] = oldLengths[old];
+            }
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package org.daodao.text;
+
+import java.lang.foreign.*;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Off-heap interning dictionary that assigns dense {@code int} ids to words.
+ *
+ * <p>Word bytes (UTF-8) are appended to fixed-size pages allocated from an FFM {@link Arena}.
+ * Each id has a 16-byte entry (page, offset, length, hash) in an off-heap entry table, and an
+ * open-addressed, linearly probed slot table maps hashes to ids. The Java heap only holds a
+ * handful of segment references whatever the vocabulary size, and lookups by bytes or by
+ * {@code CharSequence} allocate nothing.
+ *
+ * <p>All memory comes from confined arenas, so growing a table frees the old one without the
+ * cross-thread handshake a shared arena needs on close. In turn the dictionary belongs to the
+ * thread that created it: only that thread may use or close it, and any other thread gets a
+ * {@link WrongThreadException}. Memory is released by {@link #close()}.
+ */
+public final class WordDictionary implements AutoCloseable {
+
+    static final int DEFAULT_PAGE_SIZE = 1 << 20;
+
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT;
+    private static final int ENTRY_SIZE = 16;
+    private static final int EMPTY = 0;
+
+    private final Arena pageArena = Arena.ofConfined();
+    private final List<MemorySegment> pages = new ArrayList<>();
+    private final int pageSize;
+    private MemorySegment currentPage;
+    private long pageUsed;
+
+    private Arena entryArena;
+    private MemorySegment entries;
+    private int size;
+
+    private Arena slotArena;
+    private MemorySegment slots;
+    private int slotMask;
+
+    private byte[] scratch = new byte[64];
+
+    public WordDictionary() {
+        this(1024, DEFAULT_PAGE_SIZE);
+    }
+
+    public WordDictionary(int expectedWords) {
+        this(expectedWords, DEFAULT_PAGE_SIZE);
+    }
+
+    WordDictionary(int expectedWords, int pageSize) {
+        if (pageSize < 16) {
+            throw new IllegalArgumentException("Page size must be at least 16 bytes: " + pageSize);
+        }
+        this.pageSize = pageSize;
+        int capacity = Math.max(16, Integer.highestOneBit(Math.max(1, expectedWords) - 1) << 1);
+        entryArena = Arena.ofConfined();
+        entries = entryArena.allocate((long) capacity * ENTRY_SIZE, Long.BYTES);
+        slotArena = Arena.ofConfined();
+        slots = slotArena.allocate((long) capacity * 2 * Integer.BYTES, Integer.BYTES);
+        slotMask = capacity * 2 - 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the id of {@code bytes[offset, offset + length)}, adding it if it is new.
+     */
+    public int add(byte[] bytes, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        long hash = ByteHash.hash(bytes, offset, length);
+        int slot = findSlot(bytes, offset, length, hash);
+        int existing = slots.getAtIndex(INT, slot);
+        if (existing != EMPTY) {
+            return existing - 1;
+        }
+        int id = append(bytes, offset, length, (int) hash);
+        slots.setAtIndex(INT, slot, id + 1);
+        if ((long) size * 2 > slotMask) {
+            rehash();
+        }
+        return id;
+    }
+
+    public int add(CharSequence word) {
+        int length = encode(word);
+        return add(scratch, 0, length);
+    }
+
+    /**
+     * Returns the id of {@code bytes[offset, offset + length)}, or -1 if it was never added.
+     */
+    public int idOf(byte[] bytes, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        long hash = ByteHash.hash(bytes, offset, length);
+        return slots.getAtIndex(INT, findSlot(bytes, offset, length, hash)) - 1;
+    }
+
+    public int idOf(CharSequence word) {
+        int length = encode(word);
+        return idOf(scratch, 0, length);
+    }
+
+    public boolean contains(byte[] bytes, int offset, int length) {
+        return idOf(bytes, offset, length) >= 0;
+    }
+
+    public boolean contains(CharSequence word) {
+        return idOf(word) >= 0;
+    }
+
+    /**
+     * Length in bytes of the word with {@code id}.
+     */
+    public int length(int id) {
+        return entries.get(INT, entryOffset(id) + 8);
+    }
+
+    /**
+     * Decodes the word with {@code id}. Allocates.
+     */
+    public String word(int id) {
+        long entry = entryOffset(id);
+        long location = entries.get(LONG, entry);
+        int length = entries.get(INT, entry + 8);
+        byte[] bytes = new byte[length];
+        MemorySegment.copy(pages.get((int) (location >>> 32)), ValueLayout.JAVA_BYTE, location & 0xFFFFFFFFL,
+            bytes, 0, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Off-heap bytes currently reserved for pages, entries and slots.
+     */
+    public long offHeapBytes() {
+        long pageBytes = pages.stream().mapToLong(MemorySegment::byteSize).sum();
+        return pageBytes + entries.byteSize() + slots.byteSize();
+    }
+
+    @Override
+    public void close() {
+        pageArena.close();
+        entryArena.close();
+        slotArena.close();
+    }
+
+    private long entryOffset(int id) {
+        return (long) Objects.checkIndex(id, size) * ENTRY_SIZE;
+    }
+
+    private int encode(CharSequence word) {
+        if (scratch.length < word.length() * 3) {
+            scratch = new byte[Math.max(scratch.length * 2, word.length() * 3)];
+        }
+        return ByteHash.encodeUtf8(word, scratch);
+    }
+
+    /**
+     * Probes from the hash's home slot to either the slot holding an equal word or the first
+     * empty slot.
+     */
+    private int findSlot(byte[] bytes, int offset, int length, long hash) {
+        int slot = (int) hash & slotMask;
+        while (true) {
+            int stored = slots.getAtIndex(INT, slot);
+            if (stored == EMPTY || matches(stored - 1, bytes, offset, length, (int) hash)) {
+                return slot;
+            }
+            slot = (slot + 1) & slotMask;
+        }
+    }
+
+    private boolean matches(int id, byte[] bytes, int offset, int length, int hash) {
+        long entry = (long) id * ENTRY_SIZE;
+        if (entries.get(INT, entry + 12) != hash || entries.get(INT, entry + 8) != length) {
+            return false;
+        }
+        long location = entries.get(LONG, entry);
+        MemorySegment page = pages.get((int) (location >>> 32));
+        long base = location & 0xFFFFFFFFL;
+        int i = 0;
+        for (; i + Long.BYTES <= length; i += Long.BYTES) {
+            if (page.get(LONG, base + i) != ByteHash.longAt(bytes, offset + i)) {
+                return false;
+            }
+        }
+        for (; i < length; i++) {
+            if (page.get(ValueLayout.JAVA_BYTE, base + i) != bytes[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int append(byte[] bytes, int offset, int length, int hash) {
+        if (currentPage == null || pageUsed + length > currentPage.byteSize()) {
+            currentPage = pageArena.allocate(Math.max(pageSize, length), Long.BYTES);
+            pages.add(currentPage);
+            pageUsed = 0;
+        }
+        MemorySegment.copy(bytes, offset, currentPage, ValueLayout.JAVA_BYTE, pageUsed, length);
+        long location = ((long) (pages.size() - 1) << 32) | pageUsed;
+        pageUsed += length;
+
+        if ((long) (size + 1) * ENTRY_SIZE > entries.byteSize()) {
+            Arena arena = Arena.ofConfined();
+            MemorySegment grown = arena.allocate(entries.byteSize() * 2, Long.BYTES);
+            MemorySegment.copy(entries, 0, grown, 0, entries.byteSize());
+            entryArena.close();
+            entryArena = arena;
+            entries = grown;
+        }
+        long entry = (long) size * ENTRY_SIZE;
+        entries.set(LONG, entry, location);
+        entries.set(INT, entry + 8, length);
+        entries.set(INT, entry + 12, hash);
+        return size++;
+    }
+
+    private void rehash() {
+        int capacity = (slotMask + 1) * 2;
+        Arena arena = Arena.ofConfined();
+        MemorySegment grown = arena.allocate((long) capacity * Integer.BYTES, Integer.BYTES);
+        int mask = capacity - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = entries.get(INT, (long) id * ENTRY_SIZE + 12) & mask;
+            while (grown.getAtIndex(INT, slot) != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            grown.setAtIndex(INT, slot, id + 1);
+        }
+        slotArena.close();
+        slotArena = arena;
+        slots = grown;
+        slotMask = mask;
+    }
+}
@@ -1,6 +1,7 @@
 package org.daodao;
 
 import lombok.extern.slf4j.Slf4j;
+import org.daodao.concurrent.ParallelMap;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.BeforeEach;
@@ -8,6 +9,7 @@ import org.junit.jupiter.api.AfterEach;
 
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.*;
 
 import static org.assertj.core.api.Assertions.*;
@@ -71,28 +73,23 @@ public class BasicJava21Test {
     @Test
     @DisplayName("Test Virtual Threads")
     void testVirtualThreads() throws Exception {
-        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
-            List<String> results = new ArrayList<>();
-            
-            for (int i = 0; i < 5; i++) {
-                final int taskId = i;
-                CompletableFuture<String> future = CompletableFuture.supplyAsync(() -> {
-                    log.debug("Virtual thread {} running", taskId);
-                    try {
-                        Thread.sleep(10);
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                    }
-                    return "Task-" + taskId;
-                }, executor);
-                results.add(future.get());
-            }
-            
-            assertThat(results).hasSize(5);
-            assertThat(results).contains("Task-0", "Task-4");
-            
-            log.debug("Virtual threads test completed with {} results", results.size());
-        }
+        List<Integer> taskIds = IntStream.range(0, 5).boxed().toList();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<String> results = ParallelMap.parallelMap(taskIds, taskId -> {
+            log.debug("Virtual thread {} running", taskId);
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(10);
+            running.decrementAndGet();
+            return "Task-" + taskId;
+        }, taskIds.size());
+
+        assertThat(results).hasSize(5);
+        assertThat(results).containsExactly("Task-0", "Task-1", "Task-2", "Task-3", "Task-4");
+        // The tasks overlap instead of running one after another
+        assertThat(maxRunning.get()).isGreaterThan(1);
+
+        log.debug("Virtual threads test completed with {} results, up to {} at once", results.size(), maxRunning.get());
     }
 
     /**
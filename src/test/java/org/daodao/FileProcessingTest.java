@@ -1,10 +1,20 @@
 package org.daodao;
 
 import lombok.extern.slf4j.Slf4j;
+import org.daodao.io.DirectoryFollower;
+import org.daodao.io.MappedLineReader;
+import org.daodao.io.MultiFileProcessor;
+import org.daodao.processor.TextProcessor;
+import org.daodao.records.RecordCodec;
+import org.daodao.text.KeywordClassifier;
+import org.daodao.text.WhitespaceTokenizer;
+import org.daodao.text.WordCountMap;
+import org.daodao.text.WordDictionary;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.io.*;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.nio.file.*;
 import java.util.*;
 import java.util.concurrent.*;
@@ -18,19 +28,6 @@ import static org.assertj.core.api.Assertions.*;
  */
 @Slf4j
 public class FileProcessingTest {
-    
-    // Sealed interfaces for testing
-    sealed interface FileProcessor permits TextProcessor, JsonProcessor {}
-    final class TextProcessor implements FileProcessor {
-        public String process(String content) {
-            return "Text: " + content.toUpperCase();
-        }
-    }
-    final class JsonProcessor implements FileProcessor {
-        public String process(String content) {
-            return "JSON: " + content.replace("\n", " ").trim();
-        }
-    }
 
     private static Path testDir;
     private static Path testFile;
@@ -118,18 +115,34 @@ public class FileProcessingTest {
     void testFileProcessingWithRecordPatterns() throws IOException {
         record FileLine(int lineNumber, String content) {}
         
-        // Read file and create record instances
-        List<FileLine> lines = Files.lines(testFile)
-            .map(line -> new FileLine(0, line)) // Simplified for demo
-            .toList();
+        // Read the memory-mapped file and create record instances with real line numbers
+        List<FileLine> lines;
+        try (MappedLineReader reader = MappedLineReader.open(testFile);
+             Stream<MappedLineReader.NumberedLine> numbered = reader.numberedLines()) {
+            lines = numbered
+                .map(line -> new FileLine(Math.toIntExact(line.number()), line.content()))
+                .toList();
+        }
         
         assertThat(lines).hasSize(5);
         
+        // Encode all lines into one buffer and decode them back
+        RecordCodec<FileLine> codec = RecordCodec.of(FileLine.class);
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        lines.forEach(line -> codec.encode(line, buffer));
+        buffer.flip();
+        List<FileLine> decoded = new ArrayList<>();
+        while (buffer.hasRemaining()) {
+            decoded.add(codec.decode(buffer));
+        }
+        assertThat(decoded).isEqualTo(lines);
+        
         // Process with record patterns
         for (FileLine fileLine : lines) {
             if (fileLine instanceof FileLine(int num, String content)) {
                 assertThat(content).isNotEmpty();
-                log.debug("Processed line: {}", content);
+                assertThat(content).startsWith("Line " + num + ":");
+                log.debug("Processed line {}: {}", num, content);
             }
         }
         
@@ -149,17 +162,25 @@ public class FileProcessingTest {
         
         assertThat(processedLines).hasSize(5);
         assertThat(processedLines.get(0)).contains("Processed:");
+        assertThat(processedLines.get(1)).startsWith("Java Feature: ");
+        assertThat(processedLines.get(2)).startsWith("Record Feature: ");
+        assertThat(processedLines.get(3)).startsWith("Concurrency Feature: ");
+        assertThat(processedLines.get(4)).startsWith("String Feature: ");
         
         log.info("File processing with pattern matching completed");
     }
 
+    // Same guards as the switch below used to have, in the same order, matched in one pass
+    private static final KeywordClassifier<String> FEATURE_CLASSIFIER = KeywordClassifier.<String>builder()
+        .add("Java", "Java Feature: ")
+        .add("Record", "Record Feature: ")
+        .add("Virtual", "Concurrency Feature: ")
+        .add("String", "String Feature: ")
+        .build();
+
     private String processLineWithPatternMatching(String line) {
         return switch (line) {
-            case String s when s.contains("Java") -> "Java Feature: " + s;
-            case String s when s.contains("Record") -> "Record Feature: " + s;
-            case String s when s.contains("Virtual") -> "Concurrency Feature: " + s;
-            case String s when s.contains("String") -> "String Feature: " + s;
-            case String s -> "Processed: " + s;
+            case String s -> FEATURE_CLASSIFIER.classify(s, "Processed: ") + s;
             case null -> "Null line";
         };
     }
@@ -180,17 +201,14 @@ public class FileProcessingTest {
         
         // Use mapMulti for complex processing
         List<String> words = Files.lines(testFile)
-            .mapMulti((String line, Consumer<String> sink) -> {
-                String[] parts = line.split("\\s+");
-                for (String part : parts) {
-                    if (part.length() > 3) {
-                        sink.accept(part.toLowerCase());
+            .mapMulti((String line, Consumer<String> sink) ->
+                WhitespaceTokenizer.forEachToken(line, (source, start, end) -> {
+                    if (end - start > 3) {
+                        sink.accept(source.subSequence(start, end).toString().toLowerCase());
                     }
-                }
-            })
-            .distinct()
-            .sorted()
-            .toList();
+                }))
+            .collect(WordCountMap.collector())
+            .sortedWords();
         
         assertThat(words).contains("features", "java", "patterns", "record", "string", "templates", "threads", "virtual");
         
@@ -211,23 +229,19 @@ public class FileProcessingTest {
             testFiles.add(file);
         }
         
-        // Process files concurrently (simulating virtual threads)
-        List<CompletableFuture<Integer>> futures = testFiles.stream()
-            .map(file -> CompletableFuture.supplyAsync(() -> {
-                try {
-                    return Files.lines(file).mapToInt(String::length).sum();
-                } catch (IOException e) {
-                    log.error("Error processing file: {}", file, e);
-                    return 0;
-                }
-            }))
-            .toList();
+        // Process files on virtual threads, at most two files open at a time
+        MultiFileProcessor processor = new MultiFileProcessor(2);
+        MultiFileProcessor.Result<Integer> result = processor.process(testFiles, file -> {
+            try (Stream<String> lines = Files.lines(file)) {
+                return lines.mapToInt(String::length).sum();
+            }
+        }, 0, Integer::sum);
         
-        // Wait for all to complete
-        int totalLength = futures.stream()
-            .mapToInt(CompletableFuture::join)
-            .sum();
+        // Results were summed as each file completed
+        int totalLength = result.value();
         
+        assertThat(result.failures()).isEmpty();
+        assertThat(result.succeeded()).isEqualTo(testFiles.size());
         assertThat(totalLength).isGreaterThan(0);
         
         // Clean up
@@ -288,12 +302,25 @@ public class FileProcessingTest {
     void testFileProcessingWithCollectionFactories() throws IOException {
         // Use collection factory methods for file processing
         Set<String> uniqueWords = Files.lines(testFile)
-            .flatMap(line -> Arrays.stream(line.split("\\s+")))
+            .flatMap(WhitespaceTokenizer::words)
             .filter(word -> word.length() > 3)
             .collect(Collectors.toSet());
         
         assertThat(uniqueWords).isNotEmpty();
         assertThat(uniqueWords).contains("Java", "Features", "Record", "Patterns");
+
+        // Same vocabulary interned off-heap with dense ids
+        try (WordDictionary dictionary = new WordDictionary()) {
+            for (String line : Files.readAllLines(testFile)) {
+                WhitespaceTokenizer.forEachWord(line, word -> {
+                    if (word.length() > 3) {
+                        dictionary.add(word);
+                    }
+                });
+            }
+            assertThat(dictionary.size()).isEqualTo(uniqueWords.size());
+            assertThat(dictionary.contains("Patterns")).isTrue();
+        }
         
         // Create immutable collections
         List<String> firstLines = Files.lines(testFile)
@@ -310,4 +337,31 @@ public class FileProcessingTest {
         
         log.debug("Collection factory processing completed");
     }
+
+    /**
+     * Incremental processing: only appended lines go through the processor again
+     */
+    @Test
+    @DisplayName("Test Incremental Follow Mode")
+    void testIncrementalFollowMode() throws IOException {
+        TextProcessor processor = new TextProcessor(Locale.ROOT);
+        List<String> processed = new ArrayList<>();
+
+        try (DirectoryFollower follower = new DirectoryFollower(testDir,
+                file -> file.getFileName().equals(testFile.getFileName()),
+                (file, offset, line) -> processed.add(processor.process(line)))) {
+            assertThat(follower.scan()).isEqualTo(5);
+
+            Files.writeString(testFile, "Line 6: Scoped Values\n", StandardOpenOption.APPEND);
+            assertThat(follower.scan()).isEqualTo(1);
+            assertThat(follower.checkpoint().values())
+                .extracting(DirectoryFollower.Position::offset)
+                .containsExactly(Files.size(testFile));
+        }
+
+        assertThat(processed).hasSize(6);
+        assertThat(processed.get(5)).isEqualTo("Text: LINE 6: SCOPED VALUES");
+
+        log.debug("Follow mode processed {} lines", processed.size());
+    }
 }
\ No newline at end of file
@@ -1,6 +1,11 @@
 package org.daodao;
 
 import lombok.extern.slf4j.Slf4j;
+import org.daodao.dispatch.TypeClassifier;
+import org.daodao.employee.*;
+import org.daodao.records.RecordInterner;
+import org.daodao.shape.*;
+import org.daodao.text.WordCountMap;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -20,18 +25,6 @@ import static org.assertj.core.api.Assertions.*;
 @ExtendWith(MockitoExtension.class)
 public class Java21NewFeaturesTest {
     
-    // Sealed interfaces for testing - defined at class level
-    sealed interface Shape permits Circle, Rectangle, Triangle {}
-    final record Circle(double radius) implements Shape {
-        public double area() { return Math.PI * radius * radius; }
-    }
-    final record Rectangle(double width, double height) implements Shape {
-        public double area() { return width * height; }
-    }
-    final record Triangle(double base, double height) implements Shape {
-        public double area() { return 0.5 * base * height; }
-    }
-
     @BeforeEach
     void setUp() {
         log.info("Setting up Java 21 features test");
@@ -93,6 +86,18 @@ public class Java21NewFeaturesTest {
         
         assertThat(results).containsExactly("Long string: Hello", "Number: 42", 
                                           "List with 2 items", "Null value");
+        
+        // Same rules as a reusable classifier, resolved once per concrete class
+        TypeClassifier<String> classifier = TypeClassifier.<String>builder()
+            .when(String.class, s -> s.length() > 3, s -> "Long string: " + s)
+            .on(String.class, s -> "Short string: " + s)
+            .on(Integer.class, i -> "Number: " + i)
+            .when(List.class, list -> !list.isEmpty(), list -> "List with " + list.size() + " items")
+            .onNull(() -> "Null value")
+            .otherwise(value -> "Unknown type")
+            .build();
+        
+        assertThat(Arrays.stream(values).map(classifier::classify).toList()).isEqualTo(results);
         log.debug("Pattern matching for switch results: {}", results);
     }
 
@@ -166,9 +171,6 @@ public class Java21NewFeaturesTest {
     @Test
     @DisplayName("Test Record Classes - Immutable Data Carriers")
     void testRecordClasses() {
-        record Department(String name, String location) {}
-        record Employee(String name, int id, Department department) {}
-        
         Department tech = new Department("Technology", "Floor 5");
         Employee emp1 = new Employee("Alice", 1001, tech);
         Employee emp2 = new Employee("Alice", 1001, tech);
@@ -184,6 +186,20 @@ public class Java21NewFeaturesTest {
         assertThat(emp1.id()).isEqualTo(1001);
         assertThat(emp1.department().name()).isEqualTo("Technology");
         
+        // Columnar repository with id and department indexes
+        EmployeeRepository repository = EmployeeRepository.load(Stream.of(
+            emp1, new Employee("Bob", 1002, tech), new Employee("Carol", 2001, new Department("Sales", "Floor 2"))));
+        
+        assertThat(repository.findById(1001)).contains(emp1);
+        assertThat(repository.name(repository.rowOf(1002))).isEqualTo("Bob");
+        assertThat(repository.countInDepartment(tech)).isEqualTo(2);
+        assertThat(repository.contains(9999)).isFalse();
+        
+        // Equal departments intern to one shared instance
+        RecordInterner<Department> departments = new RecordInterner<>(100);
+        assertThat(departments.intern(tech)).isSameAs(tech);
+        assertThat(departments.intern(new Department("Technology", "Floor 5"))).isSameAs(tech);
+        
         log.debug("Record classes test completed for employee: {}", emp1);
     }
 
@@ -216,6 +232,17 @@ public class Java21NewFeaturesTest {
         
         assertThat(results).containsExactly("Long string: Hello World", "Large number: 42",
                                           "List with 2 elements", "Other type: Double");
+        
+        TypeClassifier<String> classifier = TypeClassifier.<String>builder()
+            .when(String.class, s -> s.length() > 5, s -> "Long string: " + s)
+            .on(String.class, s -> "Short string: " + s)
+            .when(Integer.class, i -> i > 40, i -> "Large number: " + i)
+            .on(Integer.class, i -> "Small number: " + i)
+            .when(List.class, list -> !list.isEmpty(), list -> "List with " + list.size() + " elements")
+            .otherwise(obj -> "Other type: " + obj.getClass().getSimpleName())
+            .build();
+        
+        assertThat(Arrays.stream(objects).map(classifier::classify).toList()).isEqualTo(results);
         log.debug("Pattern matching for instanceof results: {}", results);
     }
 
@@ -247,6 +274,15 @@ public class Java21NewFeaturesTest {
         
         assertThat(words).contains("features", "java", "matching", "pattern", 
                                  "powerful", "stream", "useful");
+
+        // Word frequencies without boxed counts
+        WordCountMap wordCounts = sentences.stream()
+            .flatMap(sentence -> Arrays.stream(sentence.split("\\s+")))
+            .map(String::toLowerCase)
+            .collect(WordCountMap.collector());
+        
+        assertThat(wordCounts.count("is")).isEqualTo(2);
+        assertThat(wordCounts.sortedWords()).containsAll(words);
         
         // Test takeWhile and dropWhile
         List<Integer> numbers = IntStream.range(1, 20).boxed().toList();
@@ -327,6 +363,11 @@ public class Java21NewFeaturesTest {
         assertThat(areas.get(1)).isEqualTo(12.0);
         assertThat(areas.get(2)).isEqualTo(24.0);
         
+        // Columnar batch computes the same areas with one kernel loop per kind
+        ShapeBatch batch = ShapeBatch.of(shapes);
+        assertThat(batch.areas()).containsExactly(areas.stream().mapToDouble(Double::doubleValue).toArray());
+        assertThat(batch.toList()).isEqualTo(shapes);
+        
         log.debug("Sealed classes areas: {}", areas);
     }
 
@@ -1,6 +1,8 @@
 package org.daodao;
 
 import lombok.extern.slf4j.Slf4j;
+import org.daodao.records.RecordCodec;
+import org.daodao.service.*;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
@@ -89,12 +91,6 @@ public class MockitoIntegrationTest {
     @Test
     @DisplayName("Test Mock Service with Virtual Threads Simulation")
     void testMockServiceWithVirtualThreadsSimulation() throws Exception {
-        // Create a mock service interface
-        interface DataService {
-            String fetchData(int id);
-            boolean isAvailable();
-        }
-        
         DataService mockService = mock(DataService.class);
         
         // Setup mock behavior
@@ -117,6 +113,14 @@ public class MockitoIntegrationTest {
         verify(mockService).fetchData(1);
         verify(mockService).fetchData(42);
         
+        // Repeated reads through the cache reach the service once
+        CachingDataService cached = CachingDataService.builder(mockService).build();
+        for (int i = 0; i < 5; i++) {
+            assertThat(cached.fetchData(7)).isEqualTo("Data-7");
+        }
+        verify(mockService, times(1)).fetchData(7);
+        assertThat(cached.hits()).isEqualTo(4);
+        
         log.info("Mock service with virtual threads simulation completed");
     }
 
@@ -206,6 +210,12 @@ public class MockitoIntegrationTest {
             log.debug("Stubbing with record patterns: result={}, success={}", result, success);
         }
         
+        // Messages survive a round trip through the binary record codec
+        RecordCodec<Request> requestCodec = RecordCodec.of(Request.class);
+        RecordCodec<Response> responseCodec = RecordCodec.of(Response.class);
+        assertThat(requestCodec.fromBytes(requestCodec.toBytes(request))).isEqualTo(request);
+        assertThat(responseCodec.fromBytes(responseCodec.toBytes(response))).isEqualTo(response);
+        
         // Verify interaction
         verify(mockList).get(1);
         
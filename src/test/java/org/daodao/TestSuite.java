@@ -1,6 +1,32 @@
 package org.daodao;
 
 import lombok.extern.slf4j.Slf4j;
+import org.daodao.concurrent.ParallelMapTest;
+import org.daodao.dispatch.TypeClassifierTest;
+import org.daodao.employee.EmployeeRepositoryTest;
+import org.daodao.io.ChunkedFileScannerTest;
+import org.daodao.io.DirectoryFollowerTest;
+import org.daodao.io.MappedLineReaderTest;
+import org.daodao.io.MultiFileProcessorTest;
+import org.daodao.json.JsonPullParserTest;
+import org.daodao.load.LatencyHistogramTest;
+import org.daodao.load.LoadGeneratorTest;
+import org.daodao.processor.FaultInjectingProcessorTest;
+import org.daodao.processor.JsonProcessorTest;
+import org.daodao.processor.TextProcessorTest;
+import org.daodao.records.RecordCodecTest;
+import org.daodao.records.RecordInternerTest;
+import org.daodao.service.BatchingDataServiceTest;
+import org.daodao.service.CachingDataServiceTest;
+import org.daodao.service.FaultInjectorTest;
+import org.daodao.service.LoopbackDataServerTest;
+import org.daodao.shape.AreaKernelTest;
+import org.daodao.shape.ShapeBatchTest;
+import org.daodao.shape.ShapeVisitorTest;
+import org.daodao.text.KeywordClassifierTest;
+import org.daodao.text.WhitespaceTokenizerTest;
+import org.daodao.text.WordCountMapTest;
+import org.daodao.text.WordDictionaryTest;
 import org.junit.jupiter.api.*;
 import org.junit.platform.suite.api.*;
 
@@ -15,7 +41,33 @@ import org.junit.platform.suite.api.*;
     BasicJava21Test.class,
     MockitoIntegrationTest.class,
     FileProcessingTest.class,
-    Java21NewFeaturesTest.class
+    Java21NewFeaturesTest.class,
+    MappedLineReaderTest.class,
+    WhitespaceTokenizerTest.class,
+    ChunkedFileScannerTest.class,
+    MultiFileProcessorTest.class,
+    JsonPullParserTest.class,
+    JsonProcessorTest.class,
+    TextProcessorTest.class,
+    KeywordClassifierTest.class,
+    WordDictionaryTest.class,
+    WordCountMapTest.class,
+    DirectoryFollowerTest.class,
+    AreaKernelTest.class,
+    ShapeBatchTest.class,
+    ShapeVisitorTest.class,
+    TypeClassifierTest.class,
+    EmployeeRepositoryTest.class,
+    RecordInternerTest.class,
+    RecordCodecTest.class,
+    CachingDataServiceTest.class,
+    BatchingDataServiceTest.class,
+    LoopbackDataServerTest.class,
+    LatencyHistogramTest.class,
+    LoadGeneratorTest.class,
+    FaultInjectorTest.class,
+    FaultInjectingProcessorTest.class,
+    ParallelMapTest.class
 })
 public class TestSuite {
 
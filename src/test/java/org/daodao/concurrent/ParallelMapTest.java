@@ -0,0 +1,123 @@
+package org.daodao.concurrent;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.stream.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Test class for the bounded, ordered parallel map over virtual threads
+ */
+@Slf4j
+public class ParallelMapTest {
+
+    @Test
+    @DisplayName("Test results keep input order within the concurrency bound")
+    void testOrderAndBound() throws Exception {
+        List<Integer> inputs = IntStream.range(0, 10_000).boxed().toList();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        List<Integer> results = ParallelMap.parallelMap(inputs, i -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(i % 3);
+            running.decrementAndGet();
+            return i * 2;
+        }, 64);
+
+        assertThat(results).hasSize(inputs.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertThat(results.get(i)).isEqualTo(i * 2);
+        }
+        assertThat(maxRunning.get()).isBetween(2, 64);
+        assertThatThrownBy(() -> results.set(0, 1)).isInstanceOf(UnsupportedOperationException.class);
+        log.info("Mapped {} inputs with up to {} tasks at once", results.size(), maxRunning.get());
+    }
+
+    @Test
+    @DisplayName("Test results are streamed in completion order")
+    void testForEachCompleted() throws Exception {
+        List<Integer> delays = List.of(60, 0, 30);
+        List<Integer> completionOrder = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>();
+
+        ParallelMap.forEachCompleted(delays, delay -> {
+            Thread.sleep(delay);
+            return delay;
+        }, delays.size(), (value, index) -> {
+            completionOrder.add(value);
+            indexes.add(index);
+        });
+
+        assertThat(completionOrder).containsExactly(0, 30, 60);
+        assertThat(indexes).containsExactly(1, 2, 0);
+    }
+
+    @Test
+    @DisplayName("Test the first failure cancels the remaining tasks")
+    void testFailFast() {
+        List<Integer> inputs = IntStream.range(0, 1000).boxed().toList();
+        AtomicInteger started = new AtomicInteger();
+        AtomicInteger interrupted = new AtomicInteger();
+        long start = System.nanoTime();
+
+        assertThatThrownBy(() -> ParallelMap.parallelMap(inputs, i -> {
+            started.incrementAndGet();
+            if (i == 5) {
+                throw new IOException("Bad input " + i);
+            }
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.incrementAndGet();
+                throw e;
+            }
+            return i;
+        }, 10))
+            .isInstanceOf(ExecutionException.class)
+            .hasCauseInstanceOf(IOException.class)
+            .hasRootCauseMessage("Bad input 5");
+
+        assertThat(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start)).isLessThan(5);
+        assertThat(started.get()).isEqualTo(10);
+        assertThat(interrupted.get()).isEqualTo(9);
+    }
+
+    @Test
+    @DisplayName("Test a failing result callback cancels the batch")
+    void testCallbackFailure() {
+        AtomicInteger interrupted = new AtomicInteger();
+
+        assertThatThrownBy(() -> ParallelMap.forEachCompleted(List.of(0, 10_000, 10_000), delay -> {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                interrupted.incrementAndGet();
+                throw e;
+            }
+            return delay;
+        }, 3, (value, index) -> {
+            throw new IllegalStateException("Rejected " + value);
+        }))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("Rejected 0");
+
+        assertThat(interrupted.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Test empty inputs, null results and invalid concurrency")
+    void testEdgeCases() throws Exception {
+        assertThat(ParallelMap.parallelMap(List.of(), i -> i, 4)).isEmpty();
+        assertThat(ParallelMap.parallelMap(new LinkedList<>(Arrays.asList("a", null, "c")),
+            s -> s == null ? null : s.toUpperCase(), 1)).containsExactly("A", null, "C");
+        assertThatThrownBy(() -> ParallelMap.parallelMap(List.of(1), i -> i, 0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,117 @@
+package org.daodao.dispatch;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.*;
+
+import java.lang.ref.WeakReference;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Test class for the ClassValue-backed type classifier
+ */
+@Slf4j
+public class TypeClassifierTest {
+
+    private static final TypeClassifier<String> CLASSIFIER = TypeClassifier.<String>builder()
+        .when(String.class, s -> s.length() > 5, s -> "long")
+        .on(String.class, s -> "short")
+        .when(Number.class, n -> n.doubleValue() < 0, n -> "negative")
+        .on(Integer.class, i -> "int")
+        .on(CharSequence.class, cs -> "chars")
+        .when(Collection.class, c -> !c.isEmpty(), c -> "collection")
+        .onNull(() -> "null")
+        .otherwise(value -> "other")
+        .build();
+
+    private static String asSwitch(Object value) {
+        return switch (value) {
+            case null -> "null";
+            case String s when s.length() > 5 -> "long";
+            case String s -> "short";
+            case Number n when n.doubleValue() < 0 -> "negative";
+            case Integer i -> "int";
+            case CharSequence cs -> "chars";
+            case Collection<?> c when !c.isEmpty() -> "collection";
+            default -> "other";
+        };
+    }
+
+    @Test
+    @DisplayName("Test first matching rule wins, as in a pattern switch")
+    void testMatchesPatternSwitch() {
+        Object[] values = {"Hello World", "Hi", -1, 42, -2.5, 2.5, new StringBuilder("sb"), List.of("a"),
+            Set.of(), new ArrayList<>(List.of(1, 2)), null, new Object()};
+
+        for (Object value : values) {
+            assertThat(CLASSIFIER.classify(value)).as("%s", value).isEqualTo(asSwitch(value));
+        }
+    }
+
+    @Test
+    @DisplayName("Test unreachable rules are dropped per class")
+    void testRuleResolution() {
+        // String stops at its unguarded rule; CharSequence is never reached
+        assertThat(CLASSIFIER.ruleCount(String.class)).isEqualTo(2);
+        assertThat(CLASSIFIER.ruleCount(Integer.class)).isEqualTo(2);
+        assertThat(CLASSIFIER.ruleCount(Double.class)).isEqualTo(1);
+        assertThat(CLASSIFIER.ruleCount(StringBuilder.class)).isEqualTo(1);
+        assertThat(CLASSIFIER.ruleCount(Object.class)).isZero();
+    }
+
+    @Test
+    @DisplayName("Test null and unmatched values without handlers")
+    void testMissingHandlers() {
+        TypeClassifier<String> strict = TypeClassifier.<String>builder()
+            .on(String.class, s -> s)
+            .build();
+
+        assertThat(strict.classify("text")).isEqualTo("text");
+        assertThatThrownBy(() -> strict.classify(null)).isInstanceOf(NullPointerException.class);
+        assertThatThrownBy(() -> strict.classify(42))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("java.lang.Integer");
+        assertThatThrownBy(() -> TypeClassifier.<String>builder().on(int.class, i -> "int"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Test concurrent classification from many threads")
+    void testConcurrentClassification() throws Exception {
+        List<Object> values = List.of("Hello World", 7, -3L, List.of(1), Optional.empty());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                futures.add(executor.submit(() -> values.stream()
+                    .allMatch(value -> CLASSIFIER.classify(value).equals(asSwitch(value)))));
+            }
+            for (Future<Boolean> future : futures) {
+                assertThat(future.get()).isTrue();
+            }
+        }
+    }
+
+    private static WeakReference<TypeClassifier<String>> classifyAndDrop() {
+        TypeClassifier<String> classifier = TypeClassifier.<String>builder()
+            .when(String.class, s -> s.length() > 5, s -> "long")
+            .otherwise(value -> "other")
+            .build();
+        assertThat(classifier.classify("abc")).isEqualTo("other");
+        return new WeakReference<>(classifier);
+    }
+
+    @Test
+    @DisplayName("Test a dropped classifier is not kept alive by its cached dispatch")
+    void testClassifierCollectable() throws InterruptedException {
+        WeakReference<TypeClassifier<String>> classifier = classifyAndDrop();
+
+        for (int attempt = 0; attempt < 100 && classifier.get() != null; attempt++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertThat(classifier.get()).isNull();
+    }
+}
@@ -0,0 +1,84 @@
+package org.daodao.employee;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+import java.util.stream.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Test class for the columnar employee repository
+ */
+@Slf4j
+public class EmployeeRepositoryTest {
+
+    private static final Department TECH = new Department("Technology", "Floor 5");
+    private static final Department SALES = new Department("Sales", "Floor 2");
+
+    @Test
+    @DisplayName("Test lookups by id and per-row columns")
+    void testLookupById() {
+        EmployeeRepository repository = EmployeeRepository.load(Stream.of(
+            new Employee("Alice", 1001, TECH),
+            new Employee("Bob", -7, SALES),
+            new Employee("Alice", 0, SALES)));
+
+        int row = repository.rowOf(-7);
+        assertThat(row).isEqualTo(1);
+        assertThat(repository.id(row)).isEqualTo(-7);
+        assertThat(repository.name(row)).isEqualTo("Bob");
+        assertThat(repository.department(row)).isSameAs(SALES);
+        assertThat(repository.findById(0)).contains(new Employee("Alice", 0, SALES));
+        assertThat(repository.findById(42)).isEmpty();
+        assertThat(repository.rowOf(42)).isEqualTo(-1);
+        assertThat(repository.distinctNames()).isEqualTo(2);
+        assertThat(repository.departments()).containsExactly(TECH, SALES);
+    }
+
+    @Test
+    @DisplayName("Test duplicate ids and null columns are rejected")
+    void testRejectsInvalidEmployees() {
+        EmployeeRepository repository = new EmployeeRepository();
+        repository.add(new Employee("Alice", 1, TECH));
+
+        assertThatThrownBy(() -> repository.add(new Employee("Bob", 1, SALES)))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Duplicate employee id: 1");
+        assertThatThrownBy(() -> repository.add(new Employee("Carol", 2, null)))
+            .isInstanceOf(NullPointerException.class);
+        assertThat(repository.size()).isEqualTo(1);
+        assertThat(repository.contains(2)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Test agreement with a HashMap across index growth")
+    void testMatchesHashMap() {
+        Random random = new Random(21);
+        List<Department> departments = IntStream.range(0, 40)
+            .mapToObj(i -> new Department("Department " + i, "Floor " + i % 7))
+            .toList();
+        Map<Integer, Employee> expected = new LinkedHashMap<>();
+        while (expected.size() < 50_000) {
+            int id = random.nextInt();
+            expected.putIfAbsent(id, new Employee("Name " + random.nextInt(1_000), id,
+                departments.get(random.nextInt(departments.size()))));
+        }
+
+        EmployeeRepository repository = EmployeeRepository.load(expected.values().stream());
+
+        assertThat(repository.size()).isEqualTo(expected.size());
+        expected.values().forEach(employee ->
+            assertThat(repository.findById(employee.id())).contains(employee));
+        for (Department department : departments) {
+            List<Employee> inDepartment = expected.values().stream()
+                .filter(employee -> employee.department().equals(department))
+                .toList();
+            assertThat(repository.countInDepartment(department)).isEqualTo(inDepartment.size());
+            assertThat(repository.rowsInDepartment(department).mapToObj(repository::employee).toList())
+                .isEqualTo(inDepartment);
+        }
+        assertThat(repository.countInDepartment(new Department("Unknown", "Nowhere"))).isZero();
+    }
+}
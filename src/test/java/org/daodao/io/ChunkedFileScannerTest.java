@@ -0,0 +1,121 @@
+package org.daodao.io;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+import java.util.stream.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Test class for the parallel byte-range file scanner
+ */
+@Slf4j
+public class ChunkedFileScannerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void setUpClass() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void tearDownClass() {
+        pool.shutdown();
+    }
+
+    private Path writeSample(int lineCount) throws IOException {
+        String[] words = {"Java", "Record", "Patterns", "Virtual", "Threads", "the", "of", "Größe", "Sealed"};
+        Random random = new Random(7);
+        String content = IntStream.range(0, lineCount)
+            .mapToObj(i -> "Line " + i + ": " + IntStream.range(0, 1 + random.nextInt(10))
+                .mapToObj(j -> words[random.nextInt(words.length)])
+                .collect(Collectors.joining(" ")))
+            .collect(Collectors.joining("\n"));
+        Path file = tempDir.resolve("sample.txt");
+        Files.writeString(file, content);
+        return file;
+    }
+
+    /**
+     * Sequential reference: the word extraction of testFileProcessingWithStreamAPI, with counts
+     */
+    private static Map<String, Long> sequentialCounts(Path file) throws IOException {
+        try (Stream<String> lines = Files.lines(file)) {
+            return lines
+                .mapMulti((String line, Consumer<String> sink) -> {
+                    for (String part : line.split("\\s+")) {
+                        if (part.length() > 3) {
+                            sink.accept(part.toLowerCase());
+                        }
+                    }
+                })
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        }
+    }
+
+    @Test
+    @DisplayName("Test parallel word counts match sequential extraction")
+    void testCountWordsMatchesSequential() throws IOException {
+        Path file = writeSample(5_000);
+
+        for (int chunksPerThread : new int[] {1, 4, 64}) {
+            ChunkedFileScanner scanner = new ChunkedFileScanner(pool, chunksPerThread);
+            assertThat(scanner.countWords(file)).isEqualTo(sequentialCounts(file));
+        }
+        log.debug("Parallel word counts match for {} distinct words", sequentialCounts(file).size());
+    }
+
+    @Test
+    @DisplayName("Test ranges are newline aligned and cover the file")
+    void testSplitAlignment() throws IOException {
+        Path file = writeSample(1_000);
+        byte[] bytes = Files.readAllBytes(file);
+
+        try (FileChannel channel = FileChannel.open(file)) {
+            List<ChunkedFileScanner.Range> ranges = ChunkedFileScanner.split(channel, bytes.length, 37);
+
+            assertThat(ranges).isNotEmpty();
+            assertThat(ranges.get(0).start()).isZero();
+            assertThat(ranges.get(ranges.size() - 1).end()).isEqualTo(bytes.length);
+            for (int i = 0; i < ranges.size(); i++) {
+                ChunkedFileScanner.Range range = ranges.get(i);
+                assertThat(range.length()).isPositive();
+                if (i > 0) {
+                    assertThat(range.start()).isEqualTo(ranges.get(i - 1).end());
+                    assertThat(bytes[(int) range.start() - 1]).isEqualTo((byte) '\n');
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test more chunks than lines")
+    void testMoreChunksThanLines() throws IOException {
+        Path file = tempDir.resolve("short.txt");
+        Files.writeString(file, "Java Virtual\nThreads Java\n");
+
+        Map<String, Long> counts = new ChunkedFileScanner(pool, 100).countWords(file);
+
+        assertThat(counts).containsExactlyInAnyOrderEntriesOf(Map.of("java", 2L, "virtual", 1L, "threads", 1L));
+    }
+
+    @Test
+    @DisplayName("Test empty file")
+    void testEmptyFile() throws IOException {
+        Path file = Files.createFile(tempDir.resolve("empty.txt"));
+
+        assertThat(new ChunkedFileScanner(pool, 4).countWords(file)).isEmpty();
+    }
+}
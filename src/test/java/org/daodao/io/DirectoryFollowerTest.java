@@ -0,0 +1,178 @@
+package org.daodao.io;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.*;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Test class for the WatchService tail-follow mode
+ */
+@Slf4j
+public class DirectoryFollowerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final List<String> lines = new ArrayList<>();
+
+    private DirectoryFollower follower(Map<Path, DirectoryFollower.Position> checkpoint, int bufferSize) throws IOException {
+        return new DirectoryFollower(tempDir, file -> file.getFileName().toString().startsWith("app.log"),
+            (file, offset, line) -> lines.add(file.getFileName() + "@" + offset + ":" + line), checkpoint, bufferSize);
+    }
+
+    @Test
+    @DisplayName("Test only appended complete lines are delivered")
+    void testDeliversAppendedLines() throws IOException {
+        Path log = tempDir.resolve("app.log");
+        Files.writeString(log, "one\ntwo\nthr");
+        Files.writeString(tempDir.resolve("other.txt"), "ignored\n");
+
+        try (DirectoryFollower follower = follower(Map.of(), 8)) {
+            assertThat(follower.scan()).isEqualTo(2);
+            assertThat(lines).containsExactly("app.log@0:one", "app.log@4:two");
+            assertThat(follower.scan()).isZero();
+
+            // Completes the held-back line, with a CRLF line longer than the buffer
+            Files.writeString(log, "ee\nfour is longer than the buffer\r\n", StandardOpenOption.APPEND);
+            assertThat(follower.scan()).isEqualTo(2);
+            assertThat(lines).endsWith("app.log@8:three", "app.log@14:four is longer than the buffer");
+            assertThat(follower.checkpoint().get(log).offset()).isEqualTo(Files.size(log));
+        }
+    }
+
+    @Test
+    @DisplayName("Test truncation and rotation are detected")
+    void testTruncationAndRotation() throws IOException {
+        Path log = tempDir.resolve("app.log");
+        Files.writeString(log, "one\ntwo\n");
+
+        try (DirectoryFollower follower = follower(Map.of(), DirectoryFollower.DEFAULT_BUFFER_SIZE)) {
+            follower.scan();
+
+            Files.writeString(log, "a\n");
+            assertThat(follower.scan()).isEqualTo(1);
+            assertThat(lines).last().isEqualTo("app.log@0:a");
+
+            // Rotate: the tail of the old file is read once under its new name
+            Assumptions.assumeTrue(Files.readAttributes(log, BasicFileAttributes.class).fileKey() != null,
+                "Rename tracking needs file keys");
+            Files.writeString(log, "b\n", StandardOpenOption.APPEND);
+            Files.move(log, tempDir.resolve("app.log.1"));
+            Files.writeString(log, "fresh\n");
+            lines.clear();
+            assertThat(follower.scan()).isEqualTo(2);
+            assertThat(lines).containsExactlyInAnyOrder("app.log.1@2:b", "app.log@0:fresh");
+        }
+    }
+
+    @Test
+    @DisplayName("Test a file truncated and regrown past the offset is re-read")
+    void testTruncateAndRegrow() throws IOException {
+        Path log = tempDir.resolve("app.log");
+        Files.writeString(log, "one\ntwo\n");
+
+        try (DirectoryFollower follower = follower(Map.of(), DirectoryFollower.DEFAULT_BUFFER_SIZE)) {
+            follower.scan();
+
+            // Longer than before, so the size alone does not show the truncation
+            Files.writeString(log, "rewritten\nand longer\n");
+            lines.clear();
+            assertThat(follower.scan()).isEqualTo(2);
+            assertThat(lines).containsExactly("app.log@0:rewritten", "app.log@10:and longer");
+        }
+    }
+
+    @Test
+    @DisplayName("Test resuming from a checkpoint reads only new bytes")
+    void testResumeFromCheckpoint() throws IOException {
+        Path log = tempDir.resolve("app.log");
+        Files.writeString(log, "one\ntwo\n");
+
+        Map<Path, DirectoryFollower.Position> checkpoint;
+        try (DirectoryFollower follower = follower(Map.of(), DirectoryFollower.DEFAULT_BUFFER_SIZE)) {
+            follower.scan();
+            checkpoint = follower.checkpoint();
+        }
+
+        Files.writeString(log, "three\n", StandardOpenOption.APPEND);
+        lines.clear();
+        try (DirectoryFollower follower = follower(checkpoint, DirectoryFollower.DEFAULT_BUFFER_SIZE)) {
+            assertThat(follower.scan()).isEqualTo(1);
+            assertThat(lines).containsExactly("app.log@8:three");
+        }
+    }
+
+    @Test
+    @DisplayName("Test rotation between checkpoint and restart skips no bytes")
+    void testRotationAcrossRestart() throws IOException {
+        Path log = tempDir.resolve("app.log");
+        Files.writeString(log, "one\ntwo\n");
+        Assumptions.assumeTrue(Files.readAttributes(log, BasicFileAttributes.class).fileKey() != null,
+            "Rotation tracking needs file keys");
+
+        Map<Path, DirectoryFollower.Position> checkpoint;
+        try (DirectoryFollower follower = follower(Map.of(), DirectoryFollower.DEFAULT_BUFFER_SIZE)) {
+            follower.scan();
+            checkpoint = follower.checkpoint();
+        }
+
+        // The new file is longer than the checkpointed offset, so only its identity gives it away
+        Files.writeString(log, "three\n", StandardOpenOption.APPEND);
+        Files.move(log, tempDir.resolve("app.log.1"));
+        Files.writeString(log, "fresh start\n");
+        lines.clear();
+        try (DirectoryFollower follower = follower(checkpoint, DirectoryFollower.DEFAULT_BUFFER_SIZE)) {
+            assertThat(follower.scan()).isEqualTo(2);
+            assertThat(lines).containsExactlyInAnyOrder("app.log.1@8:three", "app.log@0:fresh start");
+        }
+    }
+
+    @Test
+    @DisplayName("Test a file rewritten in place before restart is re-read")
+    void testFingerprintAcrossRestart() throws IOException {
+        Path log = tempDir.resolve("app.log");
+        Files.writeString(log, "one\ntwo\n");
+
+        Map<Path, DirectoryFollower.Position> checkpoint;
+        try (DirectoryFollower follower = follower(Map.of(), DirectoryFollower.DEFAULT_BUFFER_SIZE)) {
+            follower.scan();
+            checkpoint = follower.checkpoint();
+        }
+        assertThat(checkpoint.get(log).headBytes()).isEqualTo(8);
+
+        // Same file key, longer than the checkpointed offset, different first bytes
+        Files.writeString(log, "uno\ndos\ntres\n");
+        lines.clear();
+        try (DirectoryFollower follower = follower(checkpoint, DirectoryFollower.DEFAULT_BUFFER_SIZE)) {
+            assertThat(follower.scan()).isEqualTo(3);
+            assertThat(lines).containsExactly("app.log@0:uno", "app.log@4:dos", "app.log@8:tres");
+        }
+    }
+
+    @Test
+    @DisplayName("Test watch events deliver new lines")
+    void testPollDeliversChanges() throws Exception {
+        Path log = tempDir.resolve("app.log");
+        Files.writeString(log, "one\n");
+
+        try (DirectoryFollower follower = follower(Map.of(), DirectoryFollower.DEFAULT_BUFFER_SIZE)) {
+            follower.scan();
+            Files.writeString(log, "two\n", StandardOpenOption.APPEND);
+
+            // Polling watch services (e.g. on macOS) can take several seconds to notice
+            Instant deadline = Instant.now().plusSeconds(30);
+            while (lines.size() < 2 && Instant.now().isBefore(deadline)) {
+                follower.poll(Duration.ofMillis(200));
+            }
+            assertThat(lines).containsExactly("app.log@0:one", "app.log@4:two");
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package org.daodao.io;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Test class for the memory-mapped line reader
+ */
+@Slf4j
+public class MappedLineReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path write(String content) throws IOException {
+        Path file = tempDir.resolve("lines.txt");
+        Files.writeString(file, content);
+        return file;
+    }
+
+    private List<String> expected(Path file) throws IOException {
+        try (Stream<String> lines = Files.lines(file)) {
+            return lines.toList();
+        }
+    }
+
+    @Test
+    @DisplayName("Test lines match Files.lines")
+    void testLinesMatchFilesLines() throws IOException {
+        for (String content : List.of("", "a", "a\n", "a\nb", "a\n\nb\n", "\n\n", "first line\r\nsecond line\r\n")) {
+            Path file = write(content);
+            try (MappedLineReader reader = MappedLineReader.open(file);
+                 Stream<String> lines = reader.lines()) {
+                assertThat(lines.toList()).as("content %s", content.replace("\n", "\\n")).isEqualTo(expected(file));
+            }
+        }
+        log.debug("Mapped lines match Files.lines for all edge cases");
+    }
+
+    @Test
+    @DisplayName("Test numbered lines start at 1")
+    void testNumberedLines() throws IOException {
+        Path file = write("alpha\nbeta\ngamma\n");
+
+        try (MappedLineReader reader = MappedLineReader.open(file);
+             Stream<MappedLineReader.NumberedLine> lines = reader.numberedLines()) {
+            assertThat(lines.toList()).containsExactly(
+                new MappedLineReader.NumberedLine(1, "alpha"),
+                new MappedLineReader.NumberedLine(2, "beta"),
+                new MappedLineReader.NumberedLine(3, "gamma"));
+        }
+    }
+
+    @Test
+    @DisplayName("Test lines spanning mapping windows")
+    void testLinesSpanningWindows() throws IOException {
+        String content = IntStream.rangeClosed(1, 500)
+            .mapToObj(i -> "line-" + i + "-" + "x".repeat(i % 17))
+            .collect(Collectors.joining("\n", "", "\n"));
+        Path file = write(content);
+
+        try (MappedLineReader reader = MappedLineReader.open(file, StandardCharsets.UTF_8, 64);
+             Stream<String> lines = reader.lines()) {
+            assertThat(lines.toList()).isEqualTo(expected(file));
+        }
+    }
+
+    @Test
+    @DisplayName("Test visitor sees raw line bytes")
+    void testVisitor() throws IOException {
+        Path file = write("héllo\nwörld");
+        List<String> seen = new ArrayList<>();
+
+        try (MappedLineReader reader = MappedLineReader.open(file)) {
+            long count = reader.forEachLine((number, buffer, offset, length) -> {
+                byte[] bytes = new byte[length];
+                buffer.get(offset, bytes);
+                seen.add(number + ":" + new String(bytes, StandardCharsets.UTF_8));
+            });
+            assertThat(count).isEqualTo(2);
+        }
+        assertThat(seen).containsExactly("1:héllo", "2:wörld");
+    }
+
+    @Test
+    @DisplayName("Test line longer than window is rejected")
+    void testLineLongerThanWindow() throws IOException {
+        Path file = write("short\n" + "y".repeat(100) + "\n");
+
+        try (MappedLineReader reader = MappedLineReader.open(file, StandardCharsets.UTF_8, 32)) {
+            assertThatThrownBy(() -> reader.forEachLine((number, buffer, offset, length) -> {}))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Line 2");
+        }
+    }
+
+    @Test
+    @DisplayName("Test charsets that are not ASCII-compatible are rejected")
+    void testCharsets() throws IOException {
+        Path file = Files.write(tempDir.resolve("latin1.txt"),
+            "caf\u00e9\nna\u00efve\n".getBytes(StandardCharsets.ISO_8859_1));
+
+        try (MappedLineReader reader = MappedLineReader.open(file, StandardCharsets.ISO_8859_1);
+             Stream<String> lines = reader.lines()) {
+            assertThat(lines).containsExactly("caf\u00e9", "na\u00efve");
+        }
+        for (Charset charset : List.of(StandardCharsets.UTF_16, StandardCharsets.UTF_16BE,
+                                       StandardCharsets.UTF_16LE, Charset.forName("UTF-32"))) {
+            assertThatThrownBy(() -> MappedLineReader.open(file, charset))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining(charset.name());
+        }
+    }
+
+    @Test
+    @DisplayName("Test newline search across word boundaries")
+    void testIndexOfNewline() {
+        ByteBuffer buffer = ByteBuffer.wrap("abcdefghij\nkl".getBytes(StandardCharsets.US_ASCII))
+            .order(ByteOrder.LITTLE_ENDIAN);
+
+        assertThat(MappedLineReader.indexOfNewline(buffer, 0, buffer.limit())).isEqualTo(10);
+        assertThat(MappedLineReader.indexOfNewline(buffer, 11, buffer.limit())).isEqualTo(-1);
+        assertThat(MappedLineReader.indexOfNewline(buffer, 0, 10)).isEqualTo(-1);
+    }
+}
@@ -0,0 +1,113 @@
+package org.daodao.io;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Throughput comparison between {@link MappedLineReader} and {@code Files.lines}.
+ * Writes files of several GB, so it only runs with {@code -Dbenchmark=true}; sizes can be
+ * overridden with {@code -Dbenchmark.sizes=1MB,1GB}.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class MappedLineReaderThroughputTest {
+
+    private static final String SIZES = System.getProperty("benchmark.sizes", "1MB,1GB,10GB");
+
+    record Result(long lines, long chars, long nanos) {}
+
+    @TestFactory
+    @DisplayName("Test mapped reader throughput against Files.lines")
+    Stream<DynamicTest> testThroughput() {
+        return Arrays.stream(SIZES.split(","))
+            .map(String::trim)
+            .map(size -> DynamicTest.dynamicTest(size, () -> compare(size, parseSize(size))));
+    }
+
+    private void compare(String label, long bytes) throws IOException {
+        Path file = Files.createTempFile("mapped-throughput-", ".log");
+        try {
+            generate(file, bytes);
+
+            Result filesLines = measure(() -> {
+                try (Stream<String> lines = Files.lines(file)) {
+                    long[] totals = new long[2];
+                    lines.forEach(line -> {
+                        totals[0]++;
+                        totals[1] += line.length();
+                    });
+                    return totals;
+                }
+            });
+            Result mapped = measure(() -> {
+                try (MappedLineReader reader = MappedLineReader.open(file)) {
+                    long[] totals = new long[2];
+                    reader.forEachLine((number, buffer, offset, length) -> {
+                        totals[0]++;
+                        totals[1] += length;
+                    });
+                    return totals;
+                }
+            });
+
+            assertThat(mapped.lines()).isEqualTo(filesLines.lines());
+            assertThat(mapped.chars()).isEqualTo(filesLines.chars());
+
+            double size = Files.size(file) / (1024.0 * 1024.0);
+            log.info("{}: Files.lines {} MB/s, mapped {} MB/s ({} lines)", label,
+                String.format("%.1f", size / (filesLines.nanos() / 1e9)),
+                String.format("%.1f", size / (mapped.nanos() / 1e9)),
+                mapped.lines());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    interface Task {
+        long[] run() throws IOException;
+    }
+
+    private static Result measure(Task task) throws IOException {
+        long start = System.nanoTime();
+        long[] totals = task.run();
+        return new Result(totals[0], totals[1], System.nanoTime() - start);
+    }
+
+    private static void generate(Path file, long bytes) throws IOException {
+        byte[] block = IntStream.range(0, 1024)
+            .mapToObj(i -> "2024-01-01T00:00:00Z INFO request " + i + " served in " + (i % 97) + " ms")
+            .collect(Collectors.joining("\n", "", "\n"))
+            .getBytes(StandardCharsets.US_ASCII);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(block);
+            for (long written = 0; written < bytes; written += block.length) {
+                buffer.clear();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+        }
+    }
+
+    static long parseSize(String size) {
+        String upper = size.toUpperCase(Locale.ROOT);
+        return switch (upper.replaceAll("[0-9]", "")) {
+            case "KB" -> Long.parseLong(upper.replace("KB", "")) << 10;
+            case "MB" -> Long.parseLong(upper.replace("MB", "")) << 20;
+            case "GB" -> Long.parseLong(upper.replace("GB", "")) << 30;
+            case "" -> Long.parseLong(upper);
+            default -> throw new IllegalArgumentException("Unknown size: " + size);
+        };
+    }
+}
@@ -0,0 +1,183 @@
+package org.daodao.io;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.file.*;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.stream.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Test class for the virtual-thread multi-file processor
+ */
+@Slf4j
+public class MultiFileProcessorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private List<Path> writeFiles(int count) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Path file = tempDir.resolve("file-" + i + ".txt");
+            Files.writeString(file, "Content of file " + i + "\nLine 2 of file " + i);
+            files.add(file);
+        }
+        return files;
+    }
+
+    private static int totalLength(Path file) throws IOException {
+        try (Stream<String> lines = Files.lines(file)) {
+            return lines.mapToInt(String::length).sum();
+        }
+    }
+
+    @Test
+    @DisplayName("Test results are folded across all files")
+    void testFoldsAllResults() throws Exception {
+        List<Path> files = writeFiles(200);
+        int expected = 0;
+        for (Path file : files) {
+            expected += totalLength(file);
+        }
+
+        MultiFileProcessor.Result<Integer> result = new MultiFileProcessor(16)
+            .process(files, MultiFileProcessorTest::totalLength, 0, Integer::sum);
+
+        assertThat(result.value()).isEqualTo(expected);
+        assertThat(result.succeeded()).isEqualTo(200);
+        assertThat(result.hasFailures()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Test open files never exceed the limit")
+    void testBoundedConcurrency() throws Exception {
+        List<Path> files = writeFiles(100);
+        AtomicInteger open = new AtomicInteger();
+        AtomicInteger maxOpen = new AtomicInteger();
+
+        MultiFileProcessor.Result<Integer> result = new MultiFileProcessor(4).process(files, file -> {
+            maxOpen.accumulateAndGet(open.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5);
+                return totalLength(file);
+            } finally {
+                open.decrementAndGet();
+            }
+        }, 0, Integer::sum);
+
+        assertThat(result.succeeded()).isEqualTo(100);
+        assertThat(maxOpen.get()).isBetween(1, 4);
+        log.debug("Maximum concurrently open files: {}", maxOpen.get());
+    }
+
+    @Test
+    @DisplayName("Test results arrive in completion order")
+    void testCompletionOrder() throws Exception {
+        List<Path> files = writeFiles(3);
+
+        // The first file is the slowest, so it must be folded last
+        MultiFileProcessor.Result<List<String>> result = new MultiFileProcessor(3).process(files, file -> {
+            if (file.equals(files.get(0))) {
+                Thread.sleep(200);
+            }
+            return file.getFileName().toString();
+        }, new ArrayList<>(), (list, name) -> {
+            list.add(name);
+            return list;
+        });
+
+        assertThat(result.value()).hasSize(3).last().isEqualTo("file-0.txt");
+    }
+
+    @Test
+    @DisplayName("Test failures are reported per file")
+    void testFailures() throws Exception {
+        List<Path> files = new ArrayList<>(writeFiles(2));
+        Path missing = tempDir.resolve("missing.txt");
+        files.add(missing);
+
+        MultiFileProcessor.Result<Integer> result = new MultiFileProcessor(2)
+            .process(files, MultiFileProcessorTest::totalLength, 0, Integer::sum);
+
+        assertThat(result.succeeded()).isEqualTo(2);
+        assertThat(result.failures()).containsOnlyKeys(missing);
+        assertThat(result.failures().get(missing)).isInstanceOf(NoSuchFileException.class);
+    }
+
+    @Test
+    @DisplayName("Test an Error fails the batch instead of hanging it")
+    @Timeout(10)
+    void testErrorPropagates() throws Exception {
+        List<Path> files = writeFiles(20);
+
+        assertThatThrownBy(() -> new MultiFileProcessor(4).process(files, file -> {
+            if (file.equals(files.get(3))) {
+                throw new AssertionError("Broken invariant");
+            }
+            return totalLength(file);
+        }, 0, Integer::sum))
+            .isInstanceOf(AssertionError.class)
+            .hasMessage("Broken invariant");
+    }
+
+    @Test
+    @DisplayName("Test fail-fast batch folds in input order")
+    void testFailFastSuccess() throws Exception {
+        List<Path> files = writeFiles(50);
+
+        List<String> names = new MultiFileProcessor(8).processFailFast(files,
+            file -> file.getFileName().toString(), new ArrayList<>(), (list, name) -> {
+                list.add(name);
+                return list;
+            }, Instant.now().plusSeconds(30));
+
+        assertThat(names).isEqualTo(files.stream().map(file -> file.getFileName().toString()).toList());
+    }
+
+    @Test
+    @DisplayName("Test first failure cancels sibling tasks")
+    void testFailFastCancelsSiblings() throws Exception {
+        List<Path> files = new ArrayList<>(writeFiles(200));
+        Path missing = tempDir.resolve("missing.txt");
+        files.add(0, missing);
+        AtomicInteger completed = new AtomicInteger();
+
+        assertThatThrownBy(() -> new MultiFileProcessor(4).processFailFast(files, file -> {
+            int length = totalLength(file);
+            Thread.sleep(50);
+            completed.incrementAndGet();
+            return length;
+        }, 0, Integer::sum, Instant.now().plusSeconds(30)))
+            .isInstanceOf(ExecutionException.class)
+            .hasCauseInstanceOf(NoSuchFileException.class);
+
+        assertThat(completed.get()).isLessThan(files.size() - 1);
+        log.debug("Fail-fast batch completed {} of {} files before cancellation", completed.get(), files.size());
+    }
+
+    @Test
+    @DisplayName("Test deadline cancels the batch")
+    void testFailFastDeadline() throws Exception {
+        List<Path> files = writeFiles(20);
+
+        assertThatThrownBy(() -> new MultiFileProcessor(2).processFailFast(files, file -> {
+            Thread.sleep(10_000);
+            return 1;
+        }, 0, Integer::sum, Instant.now().plusMillis(100)))
+            .isInstanceOf(TimeoutException.class);
+    }
+
+    @Test
+    @DisplayName("Test invalid limit")
+    void testInvalidLimit() {
+        assertThatThrownBy(() -> new MultiFileProcessor(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,136 @@
+package org.daodao.json;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.*;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Test class for the streaming pull JSON parser
+ */
+@Slf4j
+public class JsonPullParserTest {
+
+    private static JsonPullParser parser(String json, int windowSize) {
+        return JsonPullParser.of(ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8)), windowSize);
+    }
+
+    private static List<String> tokens(JsonPullParser parser) throws IOException {
+        List<String> tokens = new ArrayList<>();
+        for (JsonToken token = parser.next(); token != JsonToken.END_DOCUMENT; token = parser.next()) {
+            tokens.add(switch (token) {
+                case FIELD_NAME, STRING -> token + ":" + parser.stringValue();
+                case NUMBER -> token + ":" + new String(parser.tokenBuffer(), parser.tokenOffset(),
+                    parser.tokenLength(), StandardCharsets.US_ASCII);
+                default -> token.name();
+            });
+        }
+        return tokens;
+    }
+
+    @Test
+    @DisplayName("Test tokens of sample.json")
+    void testSampleJson() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/sample.json");
+             JsonPullParser parser = new JsonPullParser(Channels.newChannel(in))) {
+            List<String> tokens = tokens(parser);
+
+            assertThat(tokens).startsWith("START_OBJECT", "FIELD_NAME:name", "STRING:Java 21 Test",
+                "FIELD_NAME:features", "START_ARRAY", "STRING:Record Patterns");
+            assertThat(tokens).contains("FIELD_NAME:version", "NUMBER:21", "END_ARRAY");
+            assertThat(tokens).endsWith("STRING:Test data for Java 21 features", "END_OBJECT");
+            log.debug("Parsed {} tokens from sample.json", tokens.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Test tokens are identical across window sizes")
+    void testWindowBoundaries() throws IOException {
+        String json = """
+            {"id": 12345, "name": "Ünïcödé \\\"quoted\\\" name", "tags": ["a", "bb", "ccc"],
+             "nested": {"pi": -3.14159e+0, "ok": true, "nothing": null, "no": false},
+             "long": "%s"}
+            """.formatted("x".repeat(100));
+
+        List<String> expected = tokens(parser(json, 64 * 1024));
+        for (int windowSize : new int[] {8, 9, 16, 33}) {
+            assertThat(tokens(parser(json, windowSize))).as("window %d", windowSize).isEqualTo(expected);
+        }
+        assertThat(expected).contains("STRING:Ünïcödé \"quoted\" name", "NUMBER:-3.14159e+0", "TRUE", "NULL", "FALSE");
+    }
+
+    @Test
+    @DisplayName("Test raw token offsets without copying")
+    void testRawTokens() throws IOException {
+        JsonPullParser parser = parser("{\"key\": \"a\\nb\", \"count\": -42}", 16);
+
+        assertThat(parser.next()).isEqualTo(JsonToken.START_OBJECT);
+        assertThat(parser.next()).isEqualTo(JsonToken.FIELD_NAME);
+        assertThat(parser.tokenEquals("key".getBytes(StandardCharsets.UTF_8))).isTrue();
+        assertThat(parser.tokenPosition()).isEqualTo(2);
+
+        assertThat(parser.next()).isEqualTo(JsonToken.STRING);
+        assertThat(parser.hasEscapes()).isTrue();
+        assertThat(parser.tokenLength()).isEqualTo(4);
+        assertThat(parser.stringValue()).isEqualTo("a\nb");
+
+        assertThat(parser.next()).isEqualTo(JsonToken.FIELD_NAME);
+        assertThat(parser.next()).isEqualTo(JsonToken.NUMBER);
+        assertThat(parser.longValue()).isEqualTo(-42L);
+        assertThat(parser.next()).isEqualTo(JsonToken.END_OBJECT);
+        assertThat(parser.next()).isEqualTo(JsonToken.END_DOCUMENT);
+    }
+
+    @Test
+    @DisplayName("Test skipping nested children")
+    void testSkipChildren() throws IOException {
+        JsonPullParser parser = parser("{\"skip\": {\"a\": [1, 2, {\"b\": 3}]}, \"keep\": 7}", 8);
+
+        parser.next();
+        parser.next();
+        assertThat(parser.next()).isEqualTo(JsonToken.START_OBJECT);
+        parser.skipChildren();
+        assertThat(parser.currentToken()).isEqualTo(JsonToken.END_OBJECT);
+        assertThat(parser.next()).isEqualTo(JsonToken.FIELD_NAME);
+        assertThat(parser.stringValue()).isEqualTo("keep");
+        assertThat(parser.next()).isEqualTo(JsonToken.NUMBER);
+        assertThat(parser.longValue()).isEqualTo(7L);
+    }
+
+    @Test
+    @DisplayName("Test sequence of top-level values")
+    void testJsonLines() throws IOException {
+        assertThat(tokens(parser("{\"a\": 1}\n{\"a\": 2}\n", 8)))
+            .containsExactly("START_OBJECT", "FIELD_NAME:a", "NUMBER:1", "END_OBJECT",
+                "START_OBJECT", "FIELD_NAME:a", "NUMBER:2", "END_OBJECT");
+    }
+
+    @Test
+    @DisplayName("Test malformed documents are rejected")
+    void testMalformed() {
+        for (String json : List.of("[1,]", "{,}", "{\"a\" 1}", "[1 2]", "tru", "\"open", "01", "1.", "{\"a\": 1", "]")) {
+            assertThatThrownBy(() -> tokens(parser(json, 8)))
+                .as("json %s", json)
+                .isInstanceOf(JsonParseException.class);
+        }
+    }
+
+    @Test
+    @DisplayName("Test number validation")
+    void testNumberValidation() {
+        for (String valid : List.of("0", "-0", "12", "-3.5", "1e10", "2E-3", "6.02e+23")) {
+            byte[] bytes = valid.getBytes(StandardCharsets.US_ASCII);
+            assertThat(JsonPullParser.isValidNumber(bytes, 0, bytes.length)).as(valid).isTrue();
+        }
+        for (String invalid : List.of("-", "01", "1.", ".5", "1e", "1e+", "--1", "1.2.3")) {
+            byte[] bytes = invalid.getBytes(StandardCharsets.US_ASCII);
+            assertThat(JsonPullParser.isValidNumber(bytes, 0, bytes.length)).as(invalid).isFalse();
+        }
+    }
+}
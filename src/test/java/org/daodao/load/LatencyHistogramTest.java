@@ -0,0 +1,90 @@
+package org.daodao.load;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Test class for the log-linear latency histogram
+ */
+@Slf4j
+public class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("Test bucket boundaries are contiguous and bound the value")
+    void testBuckets() {
+        for (long value : new long[] {0, 1, 127, 128, 129, 255, 256, 1_000, 123_456_789L, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.index(value);
+            assertThat(LatencyHistogram.highestInBucket(index)).isGreaterThanOrEqualTo(value);
+            if (index > 0) {
+                assertThat(LatencyHistogram.highestInBucket(index - 1)).isLessThan(value);
+            }
+        }
+        for (int index = 1; index <= LatencyHistogram.index(Long.MAX_VALUE); index++) {
+            long low = LatencyHistogram.highestInBucket(index - 1) + 1;
+            assertThat(LatencyHistogram.index(low)).isEqualTo(index);
+            assertThat(LatencyHistogram.index(LatencyHistogram.highestInBucket(index))).isEqualTo(index);
+        }
+    }
+
+    @Test
+    @DisplayName("Test percentiles are within two percent of the exact values")
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Random random = new Random(42);
+        long[] values = new long[100_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(12 + 2 * random.nextGaussian());
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double percentile : new double[] {0, 50, 90, 99, 99.9, 100}) {
+            long exact = values[(int) Math.max(0, Math.ceil(percentile / 100 * values.length) - 1)];
+            assertThat(histogram.percentileNanos(percentile))
+                .isGreaterThanOrEqualTo(exact)
+                .isLessThanOrEqualTo(exact + exact / 50);
+        }
+        assertThat(histogram.count()).isEqualTo(100_000);
+        assertThat(histogram.maxNanos()).isEqualTo(values[values.length - 1]);
+        assertThat(histogram.meanNanos()).isCloseTo(Arrays.stream(values).average().orElseThrow(), within(1.0));
+    }
+
+    @Test
+    @DisplayName("Test concurrent recording and merging")
+    void testConcurrentRecordAndAdd() throws Exception {
+        LatencyHistogram shared = new LatencyHistogram();
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            for (int t = 0; t < 4; t++) {
+                executor.submit(() -> {
+                    for (int i = 0; i < 100_000; i++) {
+                        shared.record(i % 1_000);
+                    }
+                });
+            }
+        }
+        assertThat(shared.count()).isEqualTo(400_000);
+        assertThat(shared.percentileNanos(50)).isEqualTo(499);
+
+        LatencyHistogram total = new LatencyHistogram();
+        total.record(5_000);
+        total.add(shared);
+        assertThat(total.count()).isEqualTo(400_001);
+        assertThat(total.maxNanos()).isEqualTo(5_000);
+    }
+
+    @Test
+    @DisplayName("Test empty histogram and invalid input")
+    void testEmptyAndInvalid() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertThat(histogram.percentileNanos(99)).isZero();
+        assertThat(histogram.meanNanos()).isZero();
+        assertThatThrownBy(() -> histogram.record(-1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> histogram.percentileNanos(101)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,108 @@
+package org.daodao.load;
+
+import lombok.extern.slf4j.Slf4j;
+import org.daodao.service.*;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Test class for the open-loop load generator
+ */
+@Slf4j
+public class LoadGeneratorTest {
+
+    @Test
+    @DisplayName("Test constant schedule sends at the target rate")
+    void testConstantRate() throws InterruptedException {
+        AtomicLong calls = new AtomicLong();
+        LoadGenerator generator = LoadGenerator.builder().duration(Duration.ofMillis(500)).build();
+
+        LoadGenerator.Result result = generator.run(200, sequence -> {
+            calls.incrementAndGet();
+            Thread.sleep(2);
+        });
+
+        assertThat(result.sent()).isEqualTo(100);
+        assertThat(calls).hasValue(100);
+        assertThat(result.errors()).isZero();
+        assertThat(result.latencies().count()).isEqualTo(100);
+        assertThat(result.latencies().percentileNanos(50)).isGreaterThanOrEqualTo(Duration.ofMillis(2).toNanos());
+    }
+
+    @Test
+    @DisplayName("Test Poisson schedule is seeded and counts errors")
+    void testPoissonScheduleAndErrors() throws InterruptedException {
+        LoadGenerator generator = LoadGenerator.builder()
+            .schedule(LoadGenerator.Schedule.POISSON)
+            .duration(Duration.ofMillis(500))
+            .seed(7)
+            .build();
+        LoadGenerator.Task failEveryFourth = sequence -> {
+            if (sequence % 4 == 3) {
+                throw new IllegalStateException("injected");
+            }
+        };
+
+        LoadGenerator.Result first = generator.run(1_000, failEveryFourth);
+        LoadGenerator.Result second = generator.run(1_000, failEveryFourth);
+
+        assertThat(first.sent()).isEqualTo(second.sent()).isBetween(400L, 600L);
+        assertThat(first.errors()).isEqualTo(first.sent() / 4);
+        assertThat(first.latencies().count()).isEqualTo(first.sent() - first.errors());
+    }
+
+    @Test
+    @DisplayName("Test latency is charged from the intended send time")
+    void testCoordinatedOmissionCorrected() throws InterruptedException {
+        // One request at a time, 10 ms each: capacity is 100/s, so 200/s builds a queue
+        ReentrantLock server = new ReentrantLock();
+        LoadGenerator generator = LoadGenerator.builder().duration(Duration.ofMillis(500)).maxOutstanding(1).build();
+
+        LoadGenerator.Result result = generator.run(200, sequence -> {
+            server.lock();
+            try {
+                Thread.sleep(10);
+            } finally {
+                server.unlock();
+            }
+        });
+
+        // Each request takes 10 ms to serve, but the last ones were due ~250 ms before they ran
+        assertThat(result.latencies().maxNanos()).isGreaterThan(Duration.ofMillis(200).toNanos());
+        assertThat(result.achievedRate()).isLessThan(150);
+    }
+
+    @Test
+    @DisplayName("Test rate sweep report against the loopback server")
+    void testSweepReport() throws IOException, InterruptedException {
+        try (LoopbackDataServer server = LoopbackDataServer.builder()
+                 .serviceTime(LatencyDistribution.exponential(Duration.ofNanos(200_000)))
+                 .concurrency(4)
+                 .start();
+             RemoteDataService client = RemoteDataService.connect(server.address(), Duration.ofSeconds(5))) {
+            LoadGenerator generator = LoadGenerator.builder()
+                .schedule(LoadGenerator.Schedule.POISSON)
+                .warmup(Duration.ofMillis(100))
+                .duration(Duration.ofMillis(300))
+                .build();
+
+            List<LoadGenerator.Result> results = generator.sweep(new double[] {100, 500, 1_000},
+                sequence -> client.fetchData((int) sequence));
+            String report = LoadGenerator.report(results);
+
+            assertThat(results).hasSize(3).allSatisfy(result -> assertThat(result.errors()).isZero());
+            assertThat(report.lines()).hasSize(4);
+            assertThat(report.lines().findFirst().orElseThrow()).contains("p50 ms", "p99 ms", "p99.9 ms", "max ms");
+            log.info("DataService latency by target rate:\n{}", report);
+        }
+        assertThatThrownBy(() -> LoadGenerator.builder().build().run(0, sequence -> {}))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,60 @@
+package org.daodao.processor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.daodao.service.FaultInjector;
+import org.junit.jupiter.api.*;
+
+import java.io.*;
+import java.net.SocketTimeoutException;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Test class for the fault-injecting file processor decorator
+ */
+@Slf4j
+public class FaultInjectingProcessorTest {
+
+    private static String stream(FileProcessor processor, String content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        processor.process(
+            Channels.newChannel(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8))),
+            Channels.newChannel(out));
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Test a disabled decorator matches its delegate")
+    void testPassThrough() throws IOException {
+        FileProcessor processor = new FaultInjectingProcessor(new TextProcessor(), FaultInjector.disabled());
+
+        assertThat(processor.process("hello")).isEqualTo(new TextProcessor().process("hello"));
+        assertThat(stream(processor, "hello\nworld")).isEqualTo(stream(new TextProcessor(), "hello\nworld"));
+    }
+
+    @Test
+    @DisplayName("Test injected failures on both processing paths")
+    void testInjectedFailures() {
+        FileProcessor failing = new FaultInjectingProcessor(new JsonProcessor(),
+            FaultInjector.builder().errorRate(1).build());
+        assertThatThrownBy(() -> failing.process("{}")).hasMessage("Injected failure");
+        assertThatThrownBy(() -> stream(failing, "{}")).isInstanceOf(IllegalStateException.class);
+
+        FileProcessor timingOut = new FaultInjectingProcessor(new JsonProcessor(),
+            FaultInjector.builder().timeoutRate(1, Duration.ZERO).build());
+        assertThatThrownBy(() -> stream(timingOut, "{}")).isInstanceOf(SocketTimeoutException.class);
+        assertThatThrownBy(() -> timingOut.process("{}"))
+            .isInstanceOf(UncheckedIOException.class)
+            .hasCauseInstanceOf(SocketTimeoutException.class);
+    }
+
+    @Test
+    @DisplayName("Test the decorator is part of the sealed hierarchy")
+    void testSealedHierarchy() {
+        assertThat(FileProcessor.class.getPermittedSubclasses())
+            .contains(TextProcessor.class, JsonProcessor.class, FaultInjectingProcessor.class);
+    }
+}
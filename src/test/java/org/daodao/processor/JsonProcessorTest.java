@@ -0,0 +1,83 @@
+package org.daodao.processor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.*;
+
+import java.io.*;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Test class for the in-memory and streaming JSON processor paths
+ */
+@Slf4j
+public class JsonProcessorTest {
+
+    private final JsonProcessor processor = new JsonProcessor();
+
+    private String stream(String json) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = processor.process(
+            Channels.newChannel(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))),
+            Channels.newChannel(out));
+        assertThat(written).isEqualTo(out.size());
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Test in-memory path joins lines")
+    void testInMemory() {
+        assertThat(processor.process("{\n  \"a\": 1\n}\n")).isEqualTo("JSON: {   \"a\": 1 }");
+    }
+
+    @Test
+    @DisplayName("Test streaming path minifies the document")
+    void testStreaming() throws IOException {
+        String json = """
+            {
+                "name": "Java 21 Test",
+                "features": [
+                    "Record Patterns",
+                    "Virtual Threads"
+                ],
+                "empty": {},
+                "version": 21
+            }
+            """;
+
+        assertThat(stream(json)).isEqualTo(
+            "JSON: {\"name\":\"Java 21 Test\",\"features\":[\"Record Patterns\",\"Virtual Threads\"],"
+                + "\"empty\":{},\"version\":21}");
+    }
+
+    @Test
+    @DisplayName("Test streaming sample.json")
+    void testStreamingSampleJson() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = getClass().getResourceAsStream("/sample.json")) {
+            processor.process(Channels.newChannel(in), Channels.newChannel(out));
+        }
+
+        String result = out.toString(StandardCharsets.UTF_8);
+        assertThat(result).startsWith("JSON: {\"name\":\"Java 21 Test\"");
+        assertThat(result).contains("\"Structured Concurrency\"]", "\"version\":21").doesNotContain("\n");
+        log.debug("Streamed sample.json: {}", result);
+    }
+
+    @Test
+    @DisplayName("Test streaming keeps escapes and separates top-level values")
+    void testStreamingEscapesAndJsonLines() throws IOException {
+        assertThat(stream("{\"s\": \"a \\\"b\\\" c\"}\n[1, 2]\n"))
+            .isEqualTo("JSON: {\"s\":\"a \\\"b\\\" c\"}\n[1,2]");
+    }
+
+    @Test
+    @DisplayName("Test streaming tokens larger than the output buffer")
+    void testLargeToken() throws IOException {
+        String large = "y".repeat(JsonProcessor.OUTPUT_BUFFER_SIZE * 2 + 3);
+
+        assertThat(stream("[\"" + large + "\", 1]")).isEqualTo("JSON: [\"" + large + "\",1]");
+    }
+}
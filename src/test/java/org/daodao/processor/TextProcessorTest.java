@@ -0,0 +1,76 @@
+package org.daodao.processor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.*;
+
+import java.io.*;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Test class for the in-memory and chunked streaming text processor paths
+ */
+@Slf4j
+public class TextProcessorTest {
+
+    private static String stream(TextProcessor processor, String content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = processor.process(
+            Channels.newChannel(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8))),
+            Channels.newChannel(out));
+        assertThat(written).isEqualTo(out.size());
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Test streaming matches in-memory upper-casing")
+    void testStreamingMatchesInMemory() throws IOException {
+        List<String> contents = List.of(
+            "",
+            "Line 1: Hello World\nLine 2: Java 21 Features\n",
+            "straße ﬁne café",
+            "emoji 😀 and 中文 mixed with ascii",
+            "ǅemal ς σ"
+        );
+
+        for (int chunkSize : new int[] {8, 9, 13, TextProcessor.DEFAULT_CHUNK_SIZE}) {
+            TextProcessor processor = new TextProcessor(Locale.ROOT, chunkSize);
+            for (String content : contents) {
+                assertThat(stream(processor, content))
+                    .as("chunk %d, content %s", chunkSize, content)
+                    .isEqualTo(processor.process(content));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test code points split across chunks")
+    void testSplitCodePoints() throws IOException {
+        // Every chunk boundary falls inside a multi-byte sequence
+        String content = "aé😀".repeat(50);
+        TextProcessor processor = new TextProcessor(Locale.ROOT, 8);
+
+        assertThat(stream(processor, content)).isEqualTo("Text: " + "AÉ😀".repeat(50));
+    }
+
+    @Test
+    @DisplayName("Test locale-specific ASCII mappings")
+    void testTurkishLocale() throws IOException {
+        TextProcessor processor = new TextProcessor(Locale.forLanguageTag("tr"), 8);
+
+        assertThat(stream(processor, "istanbul icin")).isEqualTo("Text: İSTANBUL İCİN");
+    }
+
+    @Test
+    @DisplayName("Test complete sequence detection")
+    void testCompleteSequenceEnd() {
+        byte[] bytes = "aé😀".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(TextProcessor.completeSequenceEnd(bytes, 0, bytes.length)).isEqualTo(bytes.length);
+        assertThat(TextProcessor.completeSequenceEnd(bytes, 0, bytes.length - 1)).isEqualTo(3);
+        assertThat(TextProcessor.completeSequenceEnd(bytes, 0, 2)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,144 @@
+package org.daodao.records;
+
+import lombok.extern.slf4j.Slf4j;
+import org.daodao.employee.*;
+import org.junit.jupiter.api.*;
+
+import java.io.*;
+import java.nio.*;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Test class for the binary record codec
+ */
+@Slf4j
+public class RecordCodecTest {
+
+    enum Level { LOW, HIGH }
+
+    record Primitives(int i, long l, short s, char c, byte b, boolean z, float f, double d) {}
+
+    record Tagged(String label, Level level, Department department) {}
+
+    record Node(int value, Node next) {}
+
+    record Unsupported(List<String> values) {}
+
+    record SerializableDepartment(String name, String location) implements Serializable {}
+
+    record SerializableEmployee(String name, int id, SerializableDepartment department) implements Serializable {}
+
+    @Test
+    @DisplayName("Test employee round trip and encoded size")
+    void testEmployeeRoundTrip() {
+        RecordCodec<Employee> codec = RecordCodec.of(Employee.class);
+        Employee employee = new Employee("Alice", 1001, new Department("Technology", "Floor 5"));
+
+        byte[] bytes = codec.toBytes(employee);
+
+        // 6 + 2 (id) + 1 (presence) + 11 + 8
+        assertThat(bytes).hasSize(28);
+        assertThat(codec.fromBytes(bytes)).isEqualTo(employee);
+        assertThat(RecordCodec.of(Employee.class)).isSameAs(codec);
+        assertThat(codec.type()).isEqualTo(Employee.class);
+    }
+
+    @Test
+    @DisplayName("Test primitive components at their extremes")
+    void testPrimitives() {
+        RecordCodec<Primitives> codec = RecordCodec.of(Primitives.class);
+        List<Primitives> values = List.of(
+            new Primitives(0, 0, (short) 0, '\0', (byte) 0, false, 0f, 0d),
+            new Primitives(Integer.MIN_VALUE, Long.MIN_VALUE, Short.MIN_VALUE, Character.MAX_VALUE,
+                Byte.MIN_VALUE, true, Float.NaN, Double.NEGATIVE_INFINITY),
+            new Primitives(Integer.MAX_VALUE, Long.MAX_VALUE, Short.MAX_VALUE, 'x', Byte.MAX_VALUE, true,
+                -0f, Double.MIN_VALUE),
+            new Primitives(-1, -1, (short) -1, 'é', (byte) -1, false, 1.5f, Math.PI));
+
+        for (Primitives value : values) {
+            assertThat(codec.fromBytes(codec.toBytes(value))).isEqualTo(value);
+        }
+        // Small magnitudes, positive or negative, take one byte each
+        assertThat(codec.toBytes(values.get(3))).hasSize(1 + 1 + 1 + 2 + 1 + 1 + 4 + 8);
+    }
+
+    @Test
+    @DisplayName("Test strings, enums, nested and null components")
+    void testReferenceComponents() {
+        RecordCodec<Tagged> codec = RecordCodec.of(Tagged.class);
+        List<Tagged> values = List.of(
+            new Tagged("plain", Level.HIGH, new Department("Sales", "Floor 2")),
+            new Tagged("héllo wörld 😀", Level.LOW, new Department("", null)),
+            new Tagged(null, null, null),
+            new Tagged("", Level.LOW, null));
+
+        for (Tagged value : values) {
+            assertThat(codec.fromBytes(codec.toBytes(value))).isEqualTo(value);
+        }
+
+        RecordCodec<Node> nodes = RecordCodec.of(Node.class);
+        Node list = new Node(1, new Node(-2, new Node(3, null)));
+        assertThat(nodes.fromBytes(nodes.toBytes(list))).isEqualTo(list);
+    }
+
+    @Test
+    @DisplayName("Test a stream of records through heap and direct buffers")
+    void testBufferStream() {
+        RecordCodec<Employee> codec = RecordCodec.of(Employee.class);
+        List<Employee> employees = new ArrayList<>();
+        for (int id = -500; id < 500; id++) {
+            employees.add(new Employee("Employee " + id, id * 9_973, new Department("Department " + id % 7, "Floor 1")));
+        }
+
+        for (ByteBuffer buffer : List.of(ByteBuffer.allocate(64 * 1024), ByteBuffer.allocateDirect(64 * 1024))) {
+            employees.forEach(employee -> codec.encode(employee, buffer));
+            buffer.flip();
+            List<Employee> decoded = new ArrayList<>();
+            while (buffer.hasRemaining()) {
+                decoded.add(codec.decode(buffer));
+            }
+            assertThat(decoded).isEqualTo(employees);
+        }
+    }
+
+    @Test
+    @DisplayName("Test overflow, truncation and unsupported types")
+    void testErrors() {
+        RecordCodec<Employee> codec = RecordCodec.of(Employee.class);
+        Employee employee = new Employee("Alice", 1001, new Department("Technology", "Floor 5"));
+        byte[] bytes = codec.toBytes(employee);
+
+        ByteBuffer small = ByteBuffer.allocate(16).position(3);
+        assertThatThrownBy(() -> codec.encode(employee, small)).isInstanceOf(BufferOverflowException.class);
+        assertThat(small.position()).isEqualTo(3);
+
+        assertThatThrownBy(() -> codec.fromBytes(Arrays.copyOf(bytes, 10)))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Truncated");
+        assertThatThrownBy(() -> codec.fromBytes(Arrays.copyOf(bytes, bytes.length + 1)))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("trailing");
+        assertThatThrownBy(() -> RecordCodec.of(Unsupported.class))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("java.util.List");
+    }
+
+    @Test
+    @DisplayName("Test encoding is smaller than Java serialization")
+    void testSmallerThanObjectOutputStream() throws IOException {
+        RecordCodec<SerializableEmployee> codec = RecordCodec.of(SerializableEmployee.class);
+        SerializableEmployee employee = new SerializableEmployee("Alice", 1001,
+            new SerializableDepartment("Technology", "Floor 5"));
+
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(serialized)) {
+            out.writeObject(employee);
+        }
+
+        assertThat(codec.toBytes(employee).length).isLessThan(serialized.size() / 4);
+        log.debug("Encoded size: codec {} bytes vs ObjectOutputStream {} bytes",
+            codec.toBytes(employee).length, serialized.size());
+    }
+}
@@ -0,0 +1,137 @@
+package org.daodao.records;
+
+import lombok.extern.slf4j.Slf4j;
+import org.daodao.employee.*;
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Test class for the record interner and heap footprint estimate
+ */
+@Slf4j
+public class RecordInternerTest {
+
+    @Test
+    @DisplayName("Test equal records intern to one instance")
+    void testInternCanonicalizes() {
+        RecordInterner<Department> interner = new RecordInterner<>(100);
+        Department first = new Department("Technology", "Floor 5");
+        Department copy = new Department("Technology", "Floor 5");
+        Department other = new Department("Sales", "Floor 2");
+
+        assertThat(interner.intern(first)).isSameAs(first);
+        assertThat(interner.intern(copy)).isSameAs(first);
+        assertThat(interner.intern(other)).isSameAs(other);
+        assertThat(interner.size()).isEqualTo(2);
+        assertThat(interner.hits()).isEqualTo(1);
+        assertThat(interner.misses()).isEqualTo(2);
+        assertThatThrownBy(() -> interner.intern(null)).isInstanceOf(NullPointerException.class);
+        assertThatThrownBy(() -> new RecordInterner<Department>(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Test interner stays within its bound")
+    void testBounded() {
+        RecordInterner<Department> interner = new RecordInterner<>(100);
+        List<Department> retained = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            Department department = new Department("Department " + i, "Floor 1");
+            retained.add(department);
+            assertThat(interner.intern(department)).isSameAs(department);
+        }
+
+        assertThat(interner.size()).isEqualTo(100);
+        assertThat(interner.evictions()).isEqualTo(900);
+        assertThat(retained).hasSize(1_000);
+    }
+
+    @Test
+    @DisplayName("Test unreachable canonical instances are expunged")
+    void testWeakEntriesExpunged() throws InterruptedException {
+        RecordInterner<Department> interner = new RecordInterner<>(100_000);
+        for (int i = 0; i < 10_000; i++) {
+            interner.intern(new Department("Department " + i, "Floor 1"));
+        }
+        Department kept = interner.intern(new Department("Kept", "Floor 1"));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (interner.size() > 1_000 && System.nanoTime() < deadline) {
+            System.gc();
+            Thread.sleep(10);
+            interner.intern(kept);
+        }
+
+        assertThat(interner.size()).isLessThan(1_000);
+        assertThat(interner.intern(new Department("Kept", "Floor 1"))).isSameAs(kept);
+    }
+
+    @Test
+    @DisplayName("Test concurrent interning agrees on one instance per value")
+    void testConcurrentIntern() throws Exception {
+        RecordInterner<Department> interner = new RecordInterner<>(1_000);
+        List<Callable<Department[]>> tasks = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            tasks.add(() -> {
+                Department[] canonical = new Department[200];
+                for (int round = 0; round < 50; round++) {
+                    for (int i = 0; i < canonical.length; i++) {
+                        canonical[i] = interner.intern(new Department("Department " + i, "Floor " + i % 7));
+                    }
+                }
+                return canonical;
+            });
+        }
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            List<Future<Department[]>> results = executor.invokeAll(tasks);
+            Department[] first = results.get(0).get();
+            for (Future<Department[]> result : results) {
+                Department[] canonical = result.get();
+                for (int i = 0; i < canonical.length; i++) {
+                    assertThat(canonical[i]).isSameAs(first[i]);
+                }
+            }
+        }
+        assertThat(interner.size()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Test interning shrinks the heap footprint of employees")
+    void testFootprintReport() {
+        RecordInterner<Department> interner = new RecordInterner<>(1_000);
+        Random random = new Random(42);
+        List<Employee> decoded = new ArrayList<>();
+        List<Employee> interned = new ArrayList<>();
+        for (int id = 0; id < 100_000; id++) {
+            int d = random.nextInt(200);
+            Employee employee = new Employee("Name " + random.nextInt(50_000), id,
+                new Department("Department " + d, "Floor " + d % 20));
+            decoded.add(employee);
+            interned.add(new Employee(employee.name(), employee.id(), interner.intern(employee.department())));
+        }
+
+        HeapFootprint before = HeapFootprint.of(decoded);
+        HeapFootprint after = HeapFootprint.of(interned);
+
+        assertThat(interned).isEqualTo(decoded);
+        assertThat(interner.size()).isEqualTo(200);
+        assertThat(before.objects() - after.objects()).isEqualTo(3 * (100_000 - 200));
+        assertThat(after.bytesPerValue(interned.size())).isLessThan(before.bytesPerValue(decoded.size()) / 2);
+        log.info("Heap per employee: {} bytes before interning, {} bytes after",
+            before.bytesPerValue(decoded.size()), after.bytesPerValue(interned.size()));
+    }
+
+    @Test
+    @DisplayName("Test footprint of a single record")
+    void testFootprintOfRecord() {
+        // record 24 + two strings of (24 + 24)
+        assertThat(HeapFootprint.of(List.of(new Department("ab", "c")))).isEqualTo(new HeapFootprint(3, 120));
+        assertThat(HeapFootprint.of(List.of())).isEqualTo(new HeapFootprint(0, 0));
+        assertThatThrownBy(() -> HeapFootprint.of(List.of(new Object())))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
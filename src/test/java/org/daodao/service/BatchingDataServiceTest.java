@@ -0,0 +1,152 @@
+package org.daodao.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Test class for the micro-batching DataService front end
+ */
+@Slf4j
+public class BatchingDataServiceTest {
+
+    /**
+     * Answers "Data-id" and records the size of every batch it receives.
+     */
+    static class BulkService implements DataService {
+        final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public String fetchData(int id) {
+            throw new AssertionError("Expected only batch calls");
+        }
+
+        @Override
+        public String[] fetchBatch(int[] ids) {
+            batchSizes.add(ids.length);
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(200));
+            return Arrays.stream(ids).mapToObj(id -> "Data-" + id).toArray(String[]::new);
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+    }
+
+    @Test
+    @DisplayName("Test concurrent calls from virtual threads are answered in batches")
+    void testConcurrentCallsBatched() throws Exception {
+        BulkService upstream = new BulkService();
+        List<Future<String>> results = new ArrayList<>();
+        try (BatchingDataService batching = new BatchingDataService(upstream, 64, Duration.ofMillis(1));
+             ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int id = 0; id < 10_000; id++) {
+                int requested = id;
+                results.add(callers.submit(() -> batching.fetchData(requested)));
+            }
+            for (int id = 0; id < results.size(); id++) {
+                assertThat(results.get(id).get()).isEqualTo("Data-" + id);
+            }
+
+            assertThat(batching.requests()).isEqualTo(10_000);
+            assertThat(batching.batches()).isEqualTo(upstream.batchSizes.size());
+            assertThat(batching.batches()).isLessThan(10_000 / 4);
+            assertThat(upstream.batchSizes).allSatisfy(size -> assertThat(size).isBetween(1, 64));
+            log.debug("10000 calls in {} batches", batching.batches());
+        }
+    }
+
+    @Test
+    @DisplayName("Test a lone caller stops paying the full wait")
+    void testWaitAdaptsToLightLoad() {
+        try (BatchingDataService batching = new BatchingDataService(new BulkService(), 64, Duration.ofMillis(50))) {
+            for (int id = 0; id < 20; id++) {
+                assertThat(batching.fetchData(id)).isEqualTo("Data-" + id);
+            }
+
+            assertThat(batching.currentWait()).isLessThan(Duration.ofMillis(1));
+            assertThat(batching.currentBatchLimit()).isLessThanOrEqualTo(2);
+            long start = System.nanoTime();
+            batching.fetchData(99);
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(50));
+        }
+    }
+
+    @Test
+    @DisplayName("Test a failed batch fails each of its callers")
+    void testBatchFailure() throws Exception {
+        DataService failing = new DataService() {
+            @Override
+            public String fetchData(int id) {
+                throw new IllegalStateException("upstream down");
+            }
+
+            @Override
+            public boolean isAvailable() {
+                return false;
+            }
+        };
+        DataService truncating = new BulkService() {
+            @Override
+            public String[] fetchBatch(int[] ids) {
+                return new String[ids.length - 1];
+            }
+        };
+
+        for (DataService upstream : List.of(failing, truncating)) {
+            try (BatchingDataService batching = new BatchingDataService(upstream, 8, Duration.ofMillis(1));
+                 ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<String>> results = new ArrayList<>();
+                for (int id = 0; id < 100; id++) {
+                    int requested = id;
+                    results.add(callers.submit(() -> batching.fetchData(requested)));
+                }
+                for (Future<String> result : results) {
+                    assertThatThrownBy(result::get).hasCauseInstanceOf(IllegalStateException.class);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test closed service rejects calls")
+    void testClosed() {
+        BatchingDataService batching = new BatchingDataService(new BulkService(), 8, Duration.ofMillis(1));
+        assertThat(batching.fetchData(1)).isEqualTo("Data-1");
+        assertThat(batching.isAvailable()).isTrue();
+
+        batching.close();
+        batching.close();
+
+        assertThat(batching.isAvailable()).isFalse();
+        assertThatThrownBy(() -> batching.fetchData(2)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new BatchingDataService(new BulkService(), 0, Duration.ZERO))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Test default fetchBatch calls fetchData per id")
+    void testDefaultFetchBatch() {
+        DataService single = new DataService() {
+            @Override
+            public String fetchData(int id) {
+                return id % 2 == 0 ? "even-" + id : null;
+            }
+
+            @Override
+            public boolean isAvailable() {
+                return true;
+            }
+        };
+
+        assertThat(single.fetchBatch(new int[] {4, 7, 0})).containsExactly("even-4", null, "even-0");
+        assertThat(single.fetchBatch(new int[0])).isEmpty();
+    }
+}
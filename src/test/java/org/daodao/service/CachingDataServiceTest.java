@@ -0,0 +1,214 @@
+package org.daodao.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Test class for the read-through DataService cache
+ */
+@Slf4j
+public class CachingDataServiceTest {
+
+    /**
+     * Returns "Data-id" for non-negative ids and null for negative ones, counting upstream calls.
+     */
+    static final class CountingService implements DataService {
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public String fetchData(int id) {
+            calls.incrementAndGet();
+            return id < 0 ? null : "Data-" + id;
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+    }
+
+    @Test
+    @DisplayName("Test hits, misses and expiry after the TTL")
+    void testHitsAndTtl() {
+        CountingService upstream = new CountingService();
+        AtomicLong now = new AtomicLong();
+        CachingDataService cache = CachingDataService.builder(upstream)
+            .expireAfterWrite(Duration.ofSeconds(10))
+            .ticker(now::get)
+            .build();
+
+        assertThat(cache.fetchData(1)).isEqualTo("Data-1");
+        assertThat(cache.fetchData(1)).isEqualTo("Data-1");
+        assertThat(cache.fetchData(2)).isEqualTo("Data-2");
+        now.addAndGet(Duration.ofSeconds(9).toNanos());
+        assertThat(cache.fetchData(1)).isEqualTo("Data-1");
+        assertThat(upstream.calls).hasValue(2);
+
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertThat(cache.fetchData(1)).isEqualTo("Data-1");
+        assertThat(upstream.calls).hasValue(3);
+        assertThat(cache.hits()).isEqualTo(2);
+        assertThat(cache.misses()).isEqualTo(3);
+        assertThat(cache.loads()).isEqualTo(3);
+        assertThat(cache.isAvailable()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Test missing ids are cached under the negative TTL")
+    void testNegativeCaching() {
+        CountingService upstream = new CountingService();
+        AtomicLong now = new AtomicLong();
+        CachingDataService cache = CachingDataService.builder(upstream)
+            .expireAfterWrite(Duration.ofMinutes(1))
+            .negativeTtl(Duration.ofSeconds(1))
+            .ticker(now::get)
+            .build();
+
+        assertThat(cache.fetchData(-5)).isNull();
+        assertThat(cache.fetchData(-5)).isNull();
+        assertThat(upstream.calls).hasValue(1);
+
+        now.addAndGet(Duration.ofSeconds(2).toNanos());
+        assertThat(cache.fetchData(-5)).isNull();
+        assertThat(cache.fetchData(5)).isEqualTo("Data-5");
+        assertThat(cache.fetchData(5)).isEqualTo("Data-5");
+        assertThat(upstream.calls).hasValue(3);
+
+        CachingDataService uncachedMisses = CachingDataService.builder(upstream).negativeTtl(Duration.ZERO).build();
+        uncachedMisses.fetchData(-1);
+        uncachedMisses.fetchData(-1);
+        assertThat(uncachedMisses.loads()).isEqualTo(2);
+        assertThat(uncachedMisses.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Test cache stays within its maximum size")
+    void testMaximumSize() {
+        CachingDataService cache = CachingDataService.builder(new CountingService()).maximumSize(100).build();
+
+        for (int id = 0; id < 1_000; id++) {
+            assertThat(cache.fetchData(id)).isEqualTo("Data-" + id);
+        }
+
+        assertThat(cache.size()).isEqualTo(100);
+        assertThat(cache.evictions()).isEqualTo(900);
+        cache.invalidateAll();
+        assertThat(cache.size()).isZero();
+        assertThatThrownBy(() -> CachingDataService.builder(new CountingService()).maximumSize(0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Test least recently used entries are evicted first")
+    void testHotIdsSurviveEviction() {
+        CountingService upstream = new CountingService();
+        CachingDataService cache = CachingDataService.builder(upstream).maximumSize(100).build();
+
+        // A stream of one-off ids interleaved with ten hot ones
+        for (int cold = 1_000; cold < 5_000; cold++) {
+            cache.fetchData(cold);
+            assertThat(cache.fetchData(cold % 10)).isEqualTo("Data-" + cold % 10);
+        }
+
+        assertThat(upstream.calls).hasValue(4_000 + 10);
+        assertThat(cache.hits()).isEqualTo(4_000 - 10);
+        assertThat(cache.size()).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("Test concurrent misses from virtual threads collapse into one upstream call")
+    void testSingleFlight() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        DataService slow = new DataService() {
+            @Override
+            public String fetchData(int id) {
+                calls.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "Data-" + id;
+            }
+
+            @Override
+            public boolean isAvailable() {
+                return true;
+            }
+        };
+        CachingDataService cache = CachingDataService.builder(slow).build();
+
+        List<Future<String>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 10_000; i++) {
+                results.add(executor.submit(() -> cache.fetchData(7)));
+            }
+            while (cache.coalesced() < 9_999) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            for (Future<String> result : results) {
+                assertThat(result.get()).isEqualTo("Data-7");
+            }
+        }
+
+        assertThat(calls).hasValue(1);
+        assertThat(cache.loads()).isEqualTo(1);
+        log.debug("Single flight: {} misses, {} hits, {} loads", cache.misses(), cache.hits(), cache.loads());
+    }
+
+    @Test
+    @DisplayName("Test a failed load reaches every waiter and is not cached")
+    void testFailureShared() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        DataService failing = new DataService() {
+            @Override
+            public String fetchData(int id) {
+                if (calls.incrementAndGet() == 1) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    throw new IllegalStateException("upstream down");
+                }
+                return "Data-" + id;
+            }
+
+            @Override
+            public boolean isAvailable() {
+                return false;
+            }
+        };
+        CachingDataService cache = CachingDataService.builder(failing).build();
+
+        List<Future<String>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 100; i++) {
+                results.add(executor.submit(() -> cache.fetchData(3)));
+            }
+            // The load cannot finish before release, so every caller that joined it gets its failure
+            while (cache.coalesced() < 99) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            for (Future<String> result : results) {
+                assertThatThrownBy(result::get).hasCauseInstanceOf(IllegalStateException.class);
+            }
+        }
+
+        assertThat(cache.loads()).isEqualTo(1);
+        assertThat(cache.fetchData(3)).isEqualTo("Data-3");
+        assertThat(calls).hasValue(2);
+        assertThat(cache.isAvailable()).isFalse();
+    }
+}
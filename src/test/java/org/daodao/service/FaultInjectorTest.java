@@ -0,0 +1,162 @@
+package org.daodao.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.*;
+
+import java.io.*;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Test class for seeded latency and failure injection into a DataService
+ */
+@Slf4j
+public class FaultInjectorTest {
+
+    private static final DataService UPSTREAM = new DataService() {
+        @Override
+        public String fetchData(int id) {
+            return "Data-" + id;
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+    };
+
+    /**
+     * One character per call: '.' for success, 'E' for an injected error, 'T' for a timeout.
+     */
+    private static String outcomes(DataService service, int calls) {
+        StringBuilder outcomes = new StringBuilder(calls);
+        for (int i = 0; i < calls; i++) {
+            try {
+                service.fetchData(i);
+                outcomes.append('.');
+            } catch (IllegalStateException e) {
+                outcomes.append('E');
+            } catch (UncheckedIOException e) {
+                outcomes.append('T');
+            }
+        }
+        return outcomes.toString();
+    }
+
+    private static FaultInjector flaky(long seed) {
+        return FaultInjector.builder()
+            .errorRate(0.1)
+            .timeoutRate(0.05, Duration.ZERO)
+            .seed(seed)
+            .build();
+    }
+
+    @Test
+    @DisplayName("Test the same seed injects the same faults")
+    void testSeededReproducibility() {
+        FaultInjector first = flaky(7);
+        FaultInjector second = flaky(7);
+        String firstRun = outcomes(new FaultInjectingDataService(UPSTREAM, first), 1000);
+        String secondRun = outcomes(new FaultInjectingDataService(UPSTREAM, second), 1000);
+        String otherSeed = outcomes(new FaultInjectingDataService(UPSTREAM, flaky(8)), 1000);
+
+        assertThat(secondRun).isEqualTo(firstRun);
+        assertThat(otherSeed).isNotEqualTo(firstRun);
+        assertThat(first.calls()).isEqualTo(1000);
+        assertThat(first.errors()).isEqualTo(firstRun.chars().filter(c -> c == 'E').count()).isBetween(60L, 140L);
+        assertThat(first.timeouts()).isEqualTo(firstRun.chars().filter(c -> c == 'T').count()).isBetween(20L, 80L);
+        log.info("Injected {} errors and {} timeouts in 1000 calls", first.errors(), first.timeouts());
+    }
+
+    @Test
+    @DisplayName("Test neighbouring calls draw independent faults")
+    void testCallsIndependent() {
+        FaultInjector faults = flaky(7);
+        int calls = 100_000;
+        double sumX = 0, sumY = 0, sumXX = 0, sumYY = 0, sumXY = 0;
+        int equal = 0;
+        for (int call = 0; call < calls; call++) {
+            SplittableRandom random = faults.random(call);
+            random.nextDouble();
+            // Call n's latency or tail draw against call n + 1's failure roll
+            double tail = random.nextDouble();
+            double nextRoll = faults.random(call + 1).nextDouble();
+            if (tail == nextRoll) {
+                equal++;
+            }
+            sumX += tail;
+            sumY += nextRoll;
+            sumXX += tail * tail;
+            sumYY += nextRoll * nextRoll;
+            sumXY += tail * nextRoll;
+        }
+        double correlation = (calls * sumXY - sumX * sumY)
+            / Math.sqrt((calls * sumXX - sumX * sumX) * (calls * sumYY - sumY * sumY));
+
+        assertThat(equal).isZero();
+        assertThat(Math.abs(correlation)).isLessThan(0.02);
+        log.info("Correlation of neighbouring draws: {}", correlation);
+    }
+
+    @Test
+    @DisplayName("Test injected exceptions, timeouts and latency")
+    void testFaultKinds() {
+        DataService failing = new FaultInjectingDataService(UPSTREAM, FaultInjector.builder()
+            .errorRate(1, () -> new IllegalArgumentException("boom"))
+            .build());
+        assertThatThrownBy(() -> failing.fetchData(1))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("boom");
+        assertThatThrownBy(() -> failing.fetchBatch(new int[]{1, 2}))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(failing.isAvailable()).isTrue();
+
+        DataService hanging = new FaultInjectingDataService(UPSTREAM, FaultInjector.builder()
+            .timeoutRate(1, Duration.ofMillis(20))
+            .build());
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> hanging.fetchData(1))
+            .isInstanceOf(UncheckedIOException.class)
+            .hasCauseInstanceOf(SocketTimeoutException.class);
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(Duration.ofMillis(20).toNanos());
+
+        DataService slow = new FaultInjectingDataService(UPSTREAM, FaultInjector.builder()
+            .latency(LatencyDistribution.fixed(Duration.ofMillis(20)))
+            .build());
+        start = System.nanoTime();
+        assertThat(slow.fetchData(3)).isEqualTo("Data-3");
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(Duration.ofMillis(20).toNanos());
+    }
+
+    @Test
+    @DisplayName("Test a disabled injector passes calls through untouched")
+    void testDisabled() {
+        FaultInjector faults = FaultInjector.builder().errorRate(1).enabled(false).build();
+        DataService service = new FaultInjectingDataService(UPSTREAM, faults);
+
+        assertThat(service.fetchData(1)).isEqualTo("Data-1");
+        assertThat(service.fetchBatch(new int[]{1, 2})).containsExactly("Data-1", "Data-2");
+        assertThat(faults.calls()).isZero();
+
+        faults.setEnabled(true);
+        assertThatThrownBy(() -> service.fetchData(1)).hasMessage("Injected failure");
+        assertThat(faults.calls()).isEqualTo(1);
+        assertThat(FaultInjector.disabled().isEnabled()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Test invalid rates are rejected")
+    void testInvalidRates() {
+        assertThatThrownBy(() -> FaultInjector.builder().errorRate(1.5))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FaultInjector.builder().errorRate(Double.NaN))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FaultInjector.builder().timeoutRate(0.1, Duration.ofMillis(-1)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FaultInjector.builder().errorRate(0.6).timeoutRate(0.6, Duration.ZERO).build())
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
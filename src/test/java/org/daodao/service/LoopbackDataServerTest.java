@@ -0,0 +1,200 @@
+package org.daodao.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.*;
+
+import java.io.*;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Test class for the loopback stand-in server and its DataService client
+ */
+@Slf4j
+public class LoopbackDataServerTest {
+
+    @Test
+    @DisplayName("Test fetch, batch, availability and errors over loopback")
+    void testRoundTrips() throws IOException {
+        try (LoopbackDataServer server = LoopbackDataServer.builder()
+                 .data(id -> switch (id) {
+                     case -1 -> null;
+                     case -2 -> throw new IllegalArgumentException("No such id: -2");
+                     default -> "Data-" + id + "-ü";
+                 })
+                 .start();
+             RemoteDataService client = RemoteDataService.connect(server.address(), Duration.ofSeconds(5))) {
+
+            assertThat(server.address().getAddress().isLoopbackAddress()).isTrue();
+            assertThat(client.fetchData(42)).isEqualTo("Data-42-ü");
+            assertThat(client.fetchData(-1)).isNull();
+            assertThat(client.fetchBatch(new int[] {1, -1, 3})).containsExactly("Data-1-ü", null, "Data-3-ü");
+            assertThat(client.fetchBatch(new int[0])).isEmpty();
+            assertThatThrownBy(() -> client.fetchData(-2))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("No such id: -2");
+
+            assertThat(client.isAvailable()).isTrue();
+            server.setAvailable(false);
+            assertThat(client.isAvailable()).isFalse();
+            assertThat(server.requests()).isEqualTo(7);
+        }
+    }
+
+    @Test
+    @DisplayName("Test concurrent virtual-thread callers share one connection")
+    void testConcurrentCallers() throws Exception {
+        try (LoopbackDataServer server = LoopbackDataServer.builder()
+                 .serviceTime(LatencyDistribution.exponential(Duration.ofNanos(100_000)))
+                 .start();
+             RemoteDataService client = RemoteDataService.connect(server.address(), Duration.ofSeconds(10));
+             ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> results = new ArrayList<>();
+            for (int id = 0; id < 5_000; id++) {
+                int requested = id;
+                results.add(callers.submit(() -> client.fetchData(requested)));
+            }
+            for (int id = 0; id < results.size(); id++) {
+                assertThat(results.get(id).get()).isEqualTo("Data-" + id);
+            }
+            assertThat(server.requests()).isEqualTo(5_000);
+        }
+    }
+
+    @Test
+    @DisplayName("Test interrupted callers do not break the shared connection")
+    void testInterruptedCallers() throws Exception {
+        try (LoopbackDataServer server = LoopbackDataServer.builder()
+                 .serviceTime(LatencyDistribution.fixed(Duration.ofMillis(50)))
+                 .start();
+             RemoteDataService client = RemoteDataService.connect(server.address(), Duration.ofSeconds(10));
+             ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> results = new ArrayList<>();
+            for (int id = 0; id < 100; id++) {
+                int requested = id;
+                results.add(callers.submit(() -> client.fetchData(requested)));
+            }
+
+            Future<String> interrupted = callers.submit(() -> {
+                Thread.currentThread().interrupt();
+                return client.fetchData(-1);
+            });
+            assertThatThrownBy(interrupted::get)
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(UncheckedIOException.class)
+                .hasRootCauseInstanceOf(InterruptedIOException.class);
+            List<Future<String>> cancelled = new ArrayList<>();
+            for (int id = 0; id < 200; id++) {
+                int requested = id;
+                cancelled.add(callers.submit(() -> client.fetchData(requested)));
+            }
+            cancelled.forEach(call -> call.cancel(true));
+
+            for (int id = 0; id < results.size(); id++) {
+                assertThat(results.get(id).get()).isEqualTo("Data-" + id);
+            }
+            assertThat(client.fetchData(1000)).isEqualTo("Data-1000");
+            assertThat(client.isAvailable()).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("Test oversized frames fail only their own call")
+    void testOversizedFrames() throws IOException {
+        String large = "x".repeat(6 * 1024 * 1024);
+        try (LoopbackDataServer server = LoopbackDataServer.builder()
+                 .data(id -> id < 0 ? large : "Data-" + id)
+                 .start();
+             RemoteDataService client = RemoteDataService.connect(server.address(), Duration.ofSeconds(10))) {
+
+            assertThatThrownBy(() -> client.fetchBatch(new int[Protocol.MAX_FRAME_BYTES / Integer.BYTES]))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("exceeds");
+            assertThat(server.requests()).isZero();
+
+            // Three 6 MB values fit one at a time but not in one response
+            assertThat(client.fetchData(-1)).hasSize(large.length());
+            assertThatThrownBy(() -> client.fetchBatch(new int[] {-1, -2, -3}))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("exceeds");
+
+            assertThat(client.fetchData(1)).isEqualTo("Data-1");
+            assertThat(client.isAvailable()).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("Test limited workers queue requests")
+    void testConcurrencyLimitQueues() throws Exception {
+        try (LoopbackDataServer server = LoopbackDataServer.builder()
+                 .serviceTime(LatencyDistribution.fixed(Duration.ofMillis(20)))
+                 .concurrency(2)
+                 .start();
+             RemoteDataService client = RemoteDataService.connect(server.address(), Duration.ofSeconds(10));
+             ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            long start = System.nanoTime();
+            List<Future<String>> results = new ArrayList<>();
+            for (int id = 0; id < 10; id++) {
+                int requested = id;
+                results.add(callers.submit(() -> client.fetchData(requested)));
+            }
+            for (Future<String> result : results) {
+                result.get();
+            }
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+            // Ten 20 ms requests on two workers take five rounds
+            assertThat(elapsed).isGreaterThanOrEqualTo(Duration.ofMillis(100));
+            log.debug("10 requests on 2 workers took {}", elapsed);
+        }
+    }
+
+    @Test
+    @DisplayName("Test timeouts and a closed server")
+    void testTimeoutAndServerClose() throws IOException {
+        LoopbackDataServer server = LoopbackDataServer.builder()
+            .serviceTime(LatencyDistribution.fixed(Duration.ofSeconds(1)))
+            .start();
+        try (RemoteDataService client = RemoteDataService.connect(server.address(), Duration.ofMillis(50))) {
+            assertThatThrownBy(() -> client.fetchData(1))
+                .isInstanceOf(UncheckedIOException.class)
+                .hasCauseInstanceOf(SocketTimeoutException.class);
+
+            server.close();
+
+            assertThatThrownBy(() -> client.fetchData(1)).isInstanceOf(UncheckedIOException.class);
+            assertThat(client.isAvailable()).isFalse();
+        }
+    }
+
+    @Test
+    @DisplayName("Test latency distributions are seeded and non-negative")
+    void testLatencyDistributions() {
+        LatencyDistribution spiky = LatencyDistribution.logNormal(Duration.ofMillis(1), 0.5)
+            .withTail(0.01, LatencyDistribution.fixed(Duration.ofMillis(100)));
+
+        SplittableRandom a = new SplittableRandom(7);
+        SplittableRandom b = new SplittableRandom(7);
+        long spikes = 0;
+        for (int i = 0; i < 10_000; i++) {
+            long sample = spiky.sampleNanos(a);
+            assertThat(sample).isEqualTo(spiky.sampleNanos(b)).isNotNegative();
+            if (sample == Duration.ofMillis(100).toNanos()) {
+                spikes++;
+            }
+        }
+        assertThat(spikes).isBetween(50L, 150L);
+
+        LatencyDistribution uniform = LatencyDistribution.uniform(Duration.ofMillis(1), Duration.ofMillis(2));
+        assertThat(uniform.sampleNanos(a)).isBetween(1_000_000L, 2_000_000L);
+        assertThat(LatencyDistribution.none().sampleNanos(a)).isZero();
+        assertThatThrownBy(() -> LatencyDistribution.uniform(Duration.ofMillis(2), Duration.ofMillis(1)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LatencyDistribution.fixed(Duration.ofMillis(-1)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
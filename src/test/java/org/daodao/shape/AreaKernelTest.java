@@ -0,0 +1,97 @@
+package org.daodao.shape;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+import java.util.stream.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Test class for the bulk Shape area kernels
+ */
+@Slf4j
+public class AreaKernelTest {
+
+    static Stream<AreaKernel> kernels() {
+        return Stream.concat(Stream.of(AreaKernel.scalar()), AreaKernel.vector().stream());
+    }
+
+    @Test
+    @DisplayName("Test the Vector API kernel is used when the module is present")
+    void testBestKernel() {
+        boolean moduleResolved = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+        if (!moduleResolved) {
+            assertThat(AreaKernel.vector()).isEmpty();
+        }
+        AreaKernel.vector().ifPresent(kernel -> assertThat(kernel.lanes()).isGreaterThan(1));
+        assertThat(AreaKernel.best()).isEqualTo(AreaKernel.vector().orElse(AreaKernel.scalar()));
+        assertThat(AreaKernel.scalar().lanes()).isEqualTo(1);
+        log.debug("Best area kernel: {} with {} lanes", AreaKernel.best().getClass().getSimpleName(),
+            AreaKernel.best().lanes());
+    }
+
+    @Test
+    @DisplayName("Test element-wise areas equal Shape.area() for every length")
+    void testElementWiseAreas() {
+        Random random = new Random(13);
+        kernels().forEach(kernel -> {
+            for (int length = 0; length <= 67; length++) {
+                double[] a = random.doubles(length, 0, 100).toArray();
+                double[] b = random.doubles(length, 0, 100).toArray();
+                double[] circles = new double[length];
+                double[] rectangles = new double[length];
+                double[] triangles = new double[length];
+                kernel.circleAreas(a, circles, length);
+                kernel.rectangleAreas(a, b, rectangles, length);
+                kernel.triangleAreas(a, b, triangles, length);
+
+                for (int i = 0; i < length; i++) {
+                    assertThat(circles[i]).isEqualTo(new Circle(a[i]).area());
+                    assertThat(rectangles[i]).isEqualTo(new Rectangle(a[i], b[i]).area());
+                    assertThat(triangles[i]).isEqualTo(new Triangle(a[i], b[i]).area());
+                }
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("Test area sums agree with the record switch")
+    void testAreaSums() {
+        Random random = new Random(17);
+        int length = 10_001;
+        double[] a = random.doubles(length, 0, 10).toArray();
+        double[] b = random.doubles(length, 0, 10).toArray();
+
+        double circles = 0;
+        double rectangles = 0;
+        double triangles = 0;
+        for (int i = 0; i < length; i++) {
+            circles += new Circle(a[i]).area();
+            rectangles += new Rectangle(a[i], b[i]).area();
+            triangles += new Triangle(a[i], b[i]).area();
+        }
+
+        double expectedCircles = circles;
+        double expectedRectangles = rectangles;
+        double expectedTriangles = triangles;
+        kernels().forEach(kernel -> {
+            assertThat(kernel.circleAreaSum(a, length)).isCloseTo(expectedCircles, withinPercentage(1e-9));
+            assertThat(kernel.rectangleAreaSum(a, b, length)).isCloseTo(expectedRectangles, withinPercentage(1e-9));
+            assertThat(kernel.triangleAreaSum(a, b, length)).isCloseTo(expectedTriangles, withinPercentage(1e-9));
+        });
+        assertThat(AreaKernel.scalar().circleAreaSum(a, length)).isEqualTo(circles);
+    }
+
+    @Test
+    @DisplayName("Test lengths beyond the arrays are rejected")
+    void testRejectsBadLength() {
+        kernels().forEach(kernel -> {
+            assertThatThrownBy(() -> kernel.circleAreas(new double[4], new double[3], 4))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+            assertThatThrownBy(() -> kernel.rectangleAreaSum(new double[4], new double[4], 5))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+        });
+    }
+}
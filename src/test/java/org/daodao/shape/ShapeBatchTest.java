@@ -0,0 +1,92 @@
+package org.daodao.shape;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Test class for the columnar Shape batch
+ */
+@Slf4j
+public class ShapeBatchTest {
+
+    private static List<Shape> randomShapes(int count, long seed) {
+        Random random = new Random(seed);
+        List<Shape> shapes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            double a = random.nextDouble() * 10;
+            double b = random.nextDouble() * 10;
+            shapes.add(switch (random.nextInt(3)) {
+                case 0 -> new Circle(a);
+                case 1 -> new Rectangle(a, b);
+                default -> new Triangle(a, b);
+            });
+        }
+        return shapes;
+    }
+
+    @Test
+    @DisplayName("Test round trip preserves records and order")
+    void testRoundTrip() {
+        List<Shape> shapes = randomShapes(1_000, 1);
+        ShapeBatch batch = ShapeBatch.of(shapes);
+
+        assertThat(batch.size()).isEqualTo(shapes.size());
+        assertThat(batch.toList()).isEqualTo(shapes);
+        assertThat(batch.kind(0)).isEqualTo(switch (shapes.get(0)) {
+            case Circle c -> ShapeBatch.Kind.CIRCLE;
+            case Rectangle r -> ShapeBatch.Kind.RECTANGLE;
+            case Triangle t -> ShapeBatch.Kind.TRIANGLE;
+        });
+        assertThat(batch.count(ShapeBatch.Kind.CIRCLE) + batch.count(ShapeBatch.Kind.RECTANGLE)
+            + batch.count(ShapeBatch.Kind.TRIANGLE)).isEqualTo(shapes.size());
+        assertThatThrownBy(() -> batch.kind(shapes.size())).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    @DisplayName("Test areas in original order match the records")
+    void testAreas() {
+        List<Shape> shapes = randomShapes(1_001, 2);
+        ShapeBatch batch = ShapeBatch.of(shapes);
+
+        double[] expected = shapes.stream().mapToDouble(Shape::area).toArray();
+        assertThat(batch.areas()).containsExactly(expected);
+        assertThat(batch.areas(AreaKernel.scalar())).containsExactly(expected);
+        assertThat(batch.totalArea()).isCloseTo(Arrays.stream(expected).sum(), withinPercentage(1e-9));
+    }
+
+    @Test
+    @DisplayName("Test incremental adds and trimming")
+    void testAddAndTrim() {
+        ShapeBatch batch = new ShapeBatch(0)
+            .addCircle(1.0)
+            .add(new Rectangle(2.0, 3.0))
+            .addTriangle(4.0, 5.0)
+            .addCircle(2.0);
+
+        assertThat(batch.toList()).containsExactly(
+            new Circle(1.0), new Rectangle(2.0, 3.0), new Triangle(4.0, 5.0), new Circle(2.0));
+        long before = batch.footprint().batchBytes();
+        batch.trimToSize();
+        assertThat(batch.footprint().batchBytes()).isLessThan(before);
+        assertThat(batch.toList()).hasSize(4);
+    }
+
+    @Test
+    @DisplayName("Test footprint per shape is below the record list")
+    void testFootprint() {
+        ShapeBatch batch = ShapeBatch.of(randomShapes(100_000, 3));
+        batch.trimToSize();
+        ShapeBatch.Footprint footprint = batch.footprint();
+
+        assertThat(footprint.shapes()).isEqualTo(100_000);
+        // About 1 + 8 * 5/3 bytes per shape vs a reference plus a 24 or 32 byte record
+        assertThat(footprint.batchBytesPerShape()).isBetween(14.0, 15.0);
+        assertThat(footprint.recordListBytesPerShape()).isBetween(30.0, 37.0);
+        log.debug("Bytes per shape: batch {} vs records {}", footprint.batchBytesPerShape(),
+            footprint.recordListBytesPerShape());
+    }
+}
@@ -0,0 +1,46 @@
+package org.daodao.shape;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Test class for visitor dispatch over the sealed Shape hierarchy
+ */
+@Slf4j
+public class ShapeVisitorTest {
+
+    @Test
+    @DisplayName("Test visitor agrees with the record-pattern switch")
+    void testVisitorMatchesSwitch() {
+        ShapeVisitor<String> describer = new ShapeVisitor<>() {
+            @Override
+            public String visitCircle(Circle circle) {
+                return "Circle r=" + circle.radius();
+            }
+
+            @Override
+            public String visitRectangle(Rectangle rectangle) {
+                return "Rectangle " + rectangle.width() + "x" + rectangle.height();
+            }
+
+            @Override
+            public String visitTriangle(Triangle triangle) {
+                return "Triangle b=" + triangle.base() + " h=" + triangle.height();
+            }
+        };
+
+        List<Shape> shapes = List.of(new Circle(2.0), new Rectangle(3.0, 4.0), new Triangle(6.0, 8.0));
+        for (Shape shape : shapes) {
+            String expected = switch (shape) {
+                case Circle(double r) -> "Circle r=" + r;
+                case Rectangle(double w, double h) -> "Rectangle " + w + "x" + h;
+                case Triangle(double b, double h) -> "Triangle b=" + b + " h=" + h;
+            };
+            assertThat(shape.accept(describer)).isEqualTo(expected);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.daodao.text;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Test class for the Aho-Corasick keyword classifier
+ */
+@Slf4j
+public class KeywordClassifierTest {
+
+    @Test
+    @DisplayName("Test first added rule wins")
+    void testFirstRuleWins() {
+        KeywordClassifier<String> classifier = KeywordClassifier.<String>builder()
+            .add("Java", "java")
+            .add("Record", "record")
+            .add("Virtual", "virtual")
+            .build();
+
+        // "Record" occurs first in the line, but the "Java" rule was added first
+        assertThat(classifier.classify("Record types in Java", "none")).isEqualTo("java");
+        assertThat(classifier.classify("Virtual Record", "none")).isEqualTo("record");
+        assertThat(classifier.classify("Virtual Threads", "none")).isEqualTo("virtual");
+        assertThat(classifier.classify("Hello World", "none")).isEqualTo("none");
+        assertThat(classifier.classify("java virtual", "none")).isEqualTo("none");
+    }
+
+    @Test
+    @DisplayName("Test overlapping keywords through failure links")
+    void testOverlappingKeywords() {
+        KeywordClassifier<Integer> classifier = KeywordClassifier.<Integer>builder()
+            .add("hers", 0)
+            .add("she", 1)
+            .add("he", 2)
+            .add("his", 3)
+            .build();
+
+        assertThat(classifier.matchRule("ushers")).isEqualTo(0);
+        assertThat(classifier.matchRule("ushe")).isEqualTo(1);
+        assertThat(classifier.matchRule("ahe")).isEqualTo(2);
+        assertThat(classifier.matchRule("ahhis")).isEqualTo(3);
+        assertThat(classifier.matchRule("hi")).isEqualTo(-1);
+    }
+
+    @Test
+    @DisplayName("Test agreement with sequential contains guards")
+    void testMatchesContainsChain() {
+        Random random = new Random(11);
+        String alphabet = "abcdé中";
+
+        for (int round = 0; round < 200; round++) {
+            List<String> keywords = new ArrayList<>();
+            KeywordClassifier.Builder<Integer> builder = KeywordClassifier.builder();
+            int keywordCount = 1 + random.nextInt(20);
+            for (int i = 0; i < keywordCount; i++) {
+                String keyword = randomString(random, alphabet, 1 + random.nextInt(4));
+                keywords.add(keyword);
+                builder.add(keyword, i);
+            }
+            KeywordClassifier<Integer> classifier = builder.build();
+
+            for (int line = 0; line < 20; line++) {
+                String text = randomString(random, alphabet, random.nextInt(30));
+                int expected = -1;
+                for (int i = 0; i < keywords.size(); i++) {
+                    if (text.contains(keywords.get(i))) {
+                        expected = i;
+                        break;
+                    }
+                }
+                assertThat(classifier.matchRule(text)).as("keywords %s, line %s", keywords, text).isEqualTo(expected);
+            }
+        }
+    }
+
+    private static String randomString(Random random, String alphabet, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return builder.toString();
+    }
+
+    @Test
+    @DisplayName("Test empty keyword matches every line")
+    void testEmptyKeyword() {
+        KeywordClassifier<String> classifier = KeywordClassifier.<String>builder()
+            .add("Java", "java")
+            .add("", "any")
+            .build();
+
+        assertThat(classifier.classify("", "none")).isEqualTo("any");
+        assertThat(classifier.classify("Java", "none")).isEqualTo("java");
+        assertThat(classifier.ruleCount()).isEqualTo(2);
+    }
+}
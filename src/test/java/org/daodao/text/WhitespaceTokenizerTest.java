@@ -0,0 +1,87 @@
+package org.daodao.text;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.*;
+
+import java.nio.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Test class for the allocation-free whitespace tokenizer
+ */
+@Slf4j
+public class WhitespaceTokenizerTest {
+
+    private static List<String> splitWords(String line) {
+        return Arrays.stream(line.split("\\s+"))
+            .filter(word -> !word.isEmpty())
+            .toList();
+    }
+
+    @Test
+    @DisplayName("Test tokens match split on whitespace")
+    void testMatchesSplit() {
+        List<String> lines = List.of(
+            "Line 2: Java 21 Features",
+            "  leading and trailing  ",
+            "tabs\tand\nnewlines\r\nand\u000Bvertical\ftabs",
+            "",
+            "   ",
+            "single"
+        );
+
+        for (String line : lines) {
+            List<String> tokens = new ArrayList<>();
+            WhitespaceTokenizer.forEachToken(line, (source, start, end) ->
+                tokens.add(source.subSequence(start, end).toString()));
+            assertThat(tokens).as("line '%s'", line).isEqualTo(splitWords(line));
+            assertThat(WhitespaceTokenizer.words(line).toList()).isEqualTo(splitWords(line));
+        }
+    }
+
+    @Test
+    @DisplayName("Test reused offset buffer")
+    void testReusedBuffer() {
+        WhitespaceTokenizer tokenizer = new WhitespaceTokenizer(1);
+
+        assertThat(tokenizer.tokenize("one two  three")).isEqualTo(3);
+        assertThat(tokenizer.start(1)).isEqualTo(4);
+        assertThat(tokenizer.end(1)).isEqualTo(7);
+        assertThat(tokenizer.token(2).toString()).isEqualTo("three");
+
+        assertThat(tokenizer.tokenize("four")).isEqualTo(1);
+        assertThat(tokenizer.token(0).toString()).isEqualTo("four");
+        assertThatThrownBy(() -> tokenizer.start(1)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    @DisplayName("Test byte tokens from a buffer slice")
+    void testByteTokens() {
+        byte[] bytes = "skip|Virtual Threads\tgrüßen|skip".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int offset = 5;
+        int length = bytes.length - 10;
+        List<String> tokens = new ArrayList<>();
+
+        WhitespaceTokenizer.forEachToken(buffer, offset, length, (source, start, end) ->
+            tokens.add(new String(bytes, start, end - start, StandardCharsets.UTF_8)));
+
+        assertThat(tokens).containsExactly("Virtual", "Threads", "grüßen");
+    }
+
+    @Test
+    @DisplayName("Test tokenizer in mapMulti pipeline")
+    void testMapMultiPipeline() {
+        List<String> words = Stream.of("Java 21 is powerful", "Stream API has new features")
+            .<String>mapMulti(WhitespaceTokenizer::forEachWord)
+            .filter(word -> word.length() > 3)
+            .toList();
+
+        assertThat(words).containsExactly("Java", "powerful", "Stream", "features");
+        log.debug("Tokenized words: {}", words);
+    }
+}
@@ -0,0 +1,67 @@
+package org.daodao.text;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Test class for the primitive word-frequency map
+ */
+@Slf4j
+public class WordCountMapTest {
+
+    @Test
+    @DisplayName("Test counting by chars and by bytes")
+    void testCounting() {
+        WordCountMap counts = new WordCountMap();
+        assertThat(counts.add("java")).isEqualTo(1);
+        assertThat(counts.add("java")).isEqualTo(2);
+        byte[] line = "java größe".getBytes(StandardCharsets.UTF_8);
+        assertThat(counts.add(line, 0, 4)).isEqualTo(3);
+        assertThat(counts.add(line, 5, line.length - 5, 10)).isEqualTo(10);
+
+        assertThat(counts.count("java")).isEqualTo(3);
+        assertThat(counts.count("größe")).isEqualTo(10);
+        assertThat(counts.count("record")).isZero();
+        assertThat(counts.size()).isEqualTo(2);
+        assertThat(counts.total()).isEqualTo(13);
+        assertThat(counts.toMap()).containsExactlyInAnyOrderEntriesOf(Map.of("java", 3L, "größe", 10L));
+    }
+
+    @Test
+    @DisplayName("Test merging per-thread maps")
+    void testMerge() {
+        WordCountMap left = new WordCountMap();
+        WordCountMap right = new WordCountMap();
+        Stream.of("a", "b", "b").forEach(left::add);
+        Stream.of("b", "c").forEach(right::add);
+
+        assertThat(left.merge(right)).isSameAs(left);
+        assertThat(left.toMap()).containsExactlyInAnyOrderEntriesOf(Map.of("a", 1L, "b", 3L, "c", 1L));
+        assertThat(right.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Test collector against groupingBy and distinct sorted")
+    void testCollector() {
+        Random random = new Random(9);
+        List<String> words = random.ints(100_000, 0, 5_000)
+            .mapToObj(i -> "w" + Integer.toString(i, 36) + (i % 7 == 0 ? "é" : ""))
+            .toList();
+
+        WordCountMap sequential = words.stream().collect(WordCountMap.collector());
+        WordCountMap parallel = words.parallelStream().collect(WordCountMap.collector());
+        Map<String, Long> expected = words.stream()
+            .collect(Collectors.groupingBy(word -> word, Collectors.counting()));
+
+        assertThat(sequential.toMap()).isEqualTo(expected);
+        assertThat(parallel.toMap()).isEqualTo(expected);
+        assertThat(parallel.total()).isEqualTo(words.size());
+        assertThat(parallel.sortedWords()).isEqualTo(words.stream().distinct().sorted().toList());
+    }
+}
@@ -0,0 +1,96 @@
+package org.daodao.text;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Test class for the off-heap word dictionary
+ */
+@Slf4j
+public class WordDictionaryTest {
+
+    @Test
+    @DisplayName("Test dense ids and lookups")
+    void testDenseIds() {
+        try (WordDictionary dictionary = new WordDictionary()) {
+            assertThat(dictionary.add("Java")).isEqualTo(0);
+            assertThat(dictionary.add("Record")).isEqualTo(1);
+            assertThat(dictionary.add("Java")).isEqualTo(0);
+            assertThat(dictionary.add("")).isEqualTo(2);
+
+            assertThat(dictionary.size()).isEqualTo(3);
+            assertThat(dictionary.idOf("Record")).isEqualTo(1);
+            assertThat(dictionary.idOf("Patterns")).isEqualTo(-1);
+            assertThat(dictionary.contains("")).isTrue();
+            assertThat(dictionary.contains("java")).isFalse();
+            assertThat(dictionary.word(1)).isEqualTo("Record");
+            assertThat(dictionary.length(1)).isEqualTo(6);
+            assertThatThrownBy(() -> dictionary.word(3)).isInstanceOf(IndexOutOfBoundsException.class);
+        }
+    }
+
+    @Test
+    @DisplayName("Test byte and char lookups agree on UTF-8 words")
+    void testByteAndCharLookups() {
+        try (WordDictionary dictionary = new WordDictionary()) {
+            byte[] line = "größe 中文 😀!".getBytes(StandardCharsets.UTF_8);
+            int id = dictionary.add(line, 0, "größe".getBytes(StandardCharsets.UTF_8).length);
+
+            assertThat(dictionary.idOf("größe")).isEqualTo(id);
+            assertThat(dictionary.add("中文")).isEqualTo(id + 1);
+            assertThat(dictionary.contains(line, 8, 6)).isTrue();
+            assertThat(dictionary.add("😀!")).isEqualTo(id + 2);
+            assertThat(dictionary.word(id + 2)).isEqualTo("😀!");
+            assertThat(dictionary.length(id + 2)).isEqualTo(5);
+        }
+    }
+
+    @Test
+    @DisplayName("Test agreement with a HashMap across growth and page boundaries")
+    void testMatchesHashMap() {
+        Random random = new Random(5);
+        Map<String, Integer> expected = new HashMap<>();
+
+        // Small initial capacity and pages force rehashing, entry growth and oversized pages
+        try (WordDictionary dictionary = new WordDictionary(1, 32)) {
+            for (int i = 0; i < 50_000; i++) {
+                char[] chars = new char[random.nextInt(40)];
+                for (int j = 0; j < chars.length; j++) {
+                    chars[j] = (char) ('a' + random.nextInt(3));
+                }
+                String word = new String(chars);
+                int id = dictionary.add(word);
+                assertThat(expected.computeIfAbsent(word, w -> id)).isEqualTo(id);
+            }
+
+            assertThat(dictionary.size()).isEqualTo(expected.size());
+            expected.forEach((word, id) -> {
+                assertThat(dictionary.idOf(word)).isEqualTo(id);
+                assertThat(dictionary.word(id)).isEqualTo(word);
+            });
+            assertThat(dictionary.offHeapBytes()).isPositive();
+            log.debug("{} words in {} off-heap bytes", dictionary.size(), dictionary.offHeapBytes());
+        }
+    }
+
+    @Test
+    @DisplayName("Test the dictionary is confined to its creating thread")
+    void testConfinedToOwner() throws Exception {
+        try (WordDictionary dictionary = new WordDictionary();
+             ExecutorService other = Executors.newVirtualThreadPerTaskExecutor()) {
+            dictionary.add("Java");
+
+            Future<Boolean> lookup = other.submit(() -> dictionary.contains("Java"));
+            assertThatThrownBy(lookup::get)
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(WrongThreadException.class);
+            assertThat(dictionary.contains("Java")).isTrue();
+        }
+    }
+}